@@ -26,6 +26,7 @@ import dan200.computercraft.core.computer.MainThread;
 import dan200.computercraft.core.filesystem.ComboMount;
 import dan200.computercraft.core.filesystem.FileMount;
 import dan200.computercraft.core.filesystem.JarMount;
+import dan200.computercraft.core.lua.CoroutineExecutor;
 import dan200.computercraft.core.tracking.Tracking;
 import dan200.computercraft.shared.*;
 import dan200.computercraft.shared.computer.blocks.BlockCommandComputer;
@@ -38,6 +39,8 @@ import dan200.computercraft.shared.media.items.ItemDiskExpanded;
 import dan200.computercraft.shared.media.items.ItemDiskLegacy;
 import dan200.computercraft.shared.media.items.ItemPrintout;
 import dan200.computercraft.shared.media.items.ItemTreasureDisk;
+import dan200.computercraft.shared.network.client.TerminalCodec;
+import dan200.computercraft.shared.network.client.TerminalEncoder;
 import dan200.computercraft.shared.peripheral.common.BlockPeripheral;
 import dan200.computercraft.shared.peripheral.common.ItemPeripheral;
 import dan200.computercraft.shared.peripheral.modem.wired.BlockCable;
@@ -47,6 +50,7 @@ import dan200.computercraft.shared.peripheral.modem.wireless.BlockAdvancedModem;
 import dan200.computercraft.shared.peripheral.modem.wireless.ItemAdvancedModem;
 import dan200.computercraft.shared.peripheral.modem.wireless.WirelessNetwork;
 import dan200.computercraft.shared.peripheral.monitor.MonitorRenderer;
+import dan200.computercraft.shared.peripheral.monitor.MonitorWatcher;
 import dan200.computercraft.shared.pocket.items.ItemPocketComputer;
 import dan200.computercraft.shared.pocket.peripherals.PocketModem;
 import dan200.computercraft.shared.pocket.peripherals.PocketSpeaker;
@@ -111,8 +115,13 @@ public class ComputerCraft {
     public static boolean commandRequireCreative = true;
 
     public static int computer_threads = 1;
+    public static int maxComputerThreads = 0;
+    public static boolean computerWorkStealing = false;
+    public static CoroutineExecutor coroutineExecutor = CoroutineExecutor.PLATFORM;
+    public static int coroutineCarrierThreads = 0;
     public static long maxMainGlobalTime = TimeUnit.MILLISECONDS.toNanos(10);
     public static long maxMainComputerTime = TimeUnit.MILLISECONDS.toNanos(5);
+    public static boolean suspendOnMainThreadTask = false;
 
     public static boolean http_enable = true;
     public static boolean http_websocket_enable = true;
@@ -133,7 +142,10 @@ public class ComputerCraft {
     public static int modem_highAltitudeRangeDuringStorm = 384;
     public static int maxNotesPerTick = 8;
     public static MonitorRenderer monitorRenderer = MonitorRenderer.BEST;
+    public static int monitorDistance = 0;
     public static long monitorBandwidth = 1_000_000;
+    public static long monitorPlayerBandwidth = 256_000;
+    public static TerminalCodec terminalCodec = TerminalCodec.DEFLATE;
 
     public static boolean turtlesNeedFuel = true;
     public static int turtleFuelLimit = 20000;
@@ -265,6 +277,8 @@ public class ComputerCraft {
             WirelessNetwork.resetNetworks();
             MainThread.reset();
             Tracking.reset();
+            MonitorWatcher.reset();
+            TerminalEncoder.reset();
         }
     }
 
@@ -275,6 +289,9 @@ public class ComputerCraft {
             WirelessNetwork.resetNetworks();
             MainThread.reset();
             Tracking.reset();
+            MonitorWatcher.reset();
+            TerminalEncoder.reset();
+            FileMount.reset();
         }
     }
 
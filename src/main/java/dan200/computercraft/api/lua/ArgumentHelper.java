@@ -26,6 +26,9 @@ import java.util.Map;
  * int amount = optInt( args, 1, 64 );
  * }
  * </pre>
+ * If you are implementing {@link ILuaObject#callMethod(ILuaContext, int, IArguments)}, the same methods are available on
+ * {@link IArguments} itself, and produce the same errors. This class only operates on {@code Object[]}s, and has no {@link IArguments}
+ * equivalents of its own.
  */
 public final class ArgumentHelper {
 
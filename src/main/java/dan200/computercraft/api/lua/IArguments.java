@@ -0,0 +1,286 @@
+/*
+ * This file is part of the public ComputerCraft API - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2020. This API may be redistributed unmodified and in full only.
+ * For help using the API, and posting your mods, visit the forums at computercraft.info.
+ */
+package dan200.computercraft.api.lua;
+
+import dan200.computercraft.api.peripheral.IComputerAccess;
+import dan200.computercraft.api.peripheral.IPeripheral;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+/**
+ * The arguments passed to a function. This is an alternative to the {@code Object[]} passed to
+ * {@link ILuaObject#callMethod(ILuaContext, int, Object[])}, which allows reading arguments directly from Lua values, rather than
+ * converting every argument up front.
+ *
+ * The getters mirror those in {@link ArgumentHelper}, and throw the same errors. {@link ArgumentHelper} and
+ * {@code dan200.computercraft.core.apis.TableHelper} have not been migrated, and still operate on {@code Object[]}s and {@link Map}s. The
+ * latter can be used on the result of {@link #getTable(int)}.
+ *
+ * When the arguments come directly from Lua, there are two differences from the {@code Object[]} version of {@code callMethod}:
+ * <ul>
+ * <li>{@link #getTable(int)} and {@link #optTable(int, Map)} may return a read-only view of the Lua table, rather than a mutable
+ * {@link java.util.HashMap}. Copy it (or use {@link #get(int)}) if you need to modify it.</li>
+ * <li>Type errors report the actual Lua type of the argument. Values which have no Java equivalent (such as functions) were previously
+ * converted to {@code null}, and so reported as {@code "got nil"}. They are now reported as, for instance, {@code "got function"}.</li>
+ * </ul>
+ *
+ * @see ILuaObject#callMethod(ILuaContext, int, IArguments)
+ * @see IPeripheral#callMethod(IComputerAccess, ILuaContext, int, IArguments)
+ * @see ObjectArguments
+ */
+public interface IArguments {
+
+    /**
+     * Get the number of arguments passed to this function.
+     *
+     * @return The number of passed arguments.
+     */
+    int count();
+
+    /**
+     * Get the argument at the specific index, converted to a Java object as described in
+     * {@link IPeripheral#callMethod(IComputerAccess, ILuaContext, int, Object[])}. This is a full copy of the Lua value, and so is safe
+     * to keep after the function has returned.
+     *
+     * @param index The argument number, starting from 0.
+     * @return The argument, or {@code null} if not present.
+     */
+    @Nullable
+    Object get(int index);
+
+    /**
+     * Get the argument at the specific index, preserving Lua's types more precisely than {@link #get(int)}. Integers are returned as
+     * {@link Long}s, other numbers as {@link Double}s, and strings as read-only {@link ByteBuffer}s containing their raw bytes, avoiding
+     * decoding them into a {@link String}. Tables are converted to {@link Map}s in the same way, though implementations which wrap already
+     * converted values (such as {@link ObjectArguments}) may leave their contents unchanged.
+     *
+     * Like {@link #get(int)}, this is a full copy and so is safe to keep after the function has returned.
+     *
+     * @param index The argument number, starting from 0.
+     * @return The argument, or {@code null} if not present.
+     */
+    @Nullable
+    default Object getTyped(int index) {
+        Object value = get(index);
+        return value instanceof String ? ByteBuffer.wrap(encodeString((String) value)).asReadOnlyBuffer() : value;
+    }
+
+    /**
+     * Drop a number of arguments, returning the remaining ones. Any errors thrown by the returned arguments will be relative to the new
+     * first argument.
+     *
+     * @param count The number of arguments to drop.
+     * @return The remaining arguments.
+     */
+    @Nonnull
+    IArguments drop(int count);
+
+    /**
+     * Convert every argument to a Java object.
+     *
+     * @return All arguments, as would be passed to {@link ILuaObject#callMethod(ILuaContext, int, Object[])}.
+     * @see #get(int)
+     */
+    @Nonnull
+    default Object[] getAll() {
+        Object[] result = new Object[count()];
+        for (int i = 0; i < result.length; i++) result[i] = get(i);
+        return result;
+    }
+
+    /**
+     * Get an argument as a double.
+     *
+     * @param index The argument number, starting from 0.
+     * @return The argument's value.
+     * @throws LuaException If the value is not a number.
+     * @see ArgumentHelper#getDouble(Object[], int)
+     */
+    double getDouble(int index) throws LuaException;
+
+    /**
+     * Get an argument as an integer.
+     *
+     * @param index The argument number, starting from 0.
+     * @return The argument's value.
+     * @throws LuaException If the value is not an integer.
+     * @see ArgumentHelper#getInt(Object[], int)
+     */
+    default int getInt(int index) throws LuaException {
+        return (int) getLong(index);
+    }
+
+    /**
+     * Get an argument as a long.
+     *
+     * @param index The argument number, starting from 0.
+     * @return The argument's value.
+     * @throws LuaException If the value is not a long.
+     * @see ArgumentHelper#getLong(Object[], int)
+     */
+    long getLong(int index) throws LuaException;
+
+    /**
+     * Get an argument as a finite number (not infinite or NaN).
+     *
+     * @param index The argument number, starting from 0.
+     * @return The argument's value.
+     * @throws LuaException If the value is not finite.
+     * @see ArgumentHelper#getFiniteDouble(Object[], int)
+     */
+    double getFiniteDouble(int index) throws LuaException;
+
+    /**
+     * Get an argument as a boolean.
+     *
+     * @param index The argument number, starting from 0.
+     * @return The argument's value.
+     * @throws LuaException If the value is not a boolean.
+     * @see ArgumentHelper#getBoolean(Object[], int)
+     */
+    boolean getBoolean(int index) throws LuaException;
+
+    /**
+     * Get an argument as a string.
+     *
+     * @param index The argument number, starting from 0.
+     * @return The argument's value.
+     * @throws LuaException If the value is not a string.
+     * @see ArgumentHelper#getString(Object[], int)
+     */
+    @Nonnull
+    String getString(int index) throws LuaException;
+
+    /**
+     * Get a string argument as its raw bytes. This avoids decoding the Lua string into a {@link String}, and then encoding it again.
+     *
+     * @param index The argument number, starting from 0.
+     * @return The argument's value, as a read-only buffer.
+     * @throws LuaException If the value is not a string.
+     */
+    @Nonnull
+    default ByteBuffer getBytes(int index) throws LuaException {
+        return ByteBuffer.wrap(encodeString(getString(index))).asReadOnlyBuffer();
+    }
+
+    /**
+     * Get an argument as a table.
+     *
+     * The returned map may be a read-only view of the underlying Lua table, whose entries are converted as they are accessed. Unlike the
+     * {@link java.util.HashMap} passed to the {@code Object[]} version of {@code callMethod}, attempting to modify it will throw an
+     * {@link UnsupportedOperationException}. It must not be used after the function has returned - use {@link #get(int)} if you need to
+     * keep hold of it or modify it.
+     *
+     * @param index The argument number, starting from 0.
+     * @return The argument's value.
+     * @throws LuaException If the value is not a table.
+     * @see ArgumentHelper#getTable(Object[], int)
+     */
+    @Nonnull
+    Map<?, ?> getTable(int index) throws LuaException;
+
+    /**
+     * Get an argument as a double.
+     *
+     * @param index The argument number, starting from 0.
+     * @param def   The default value, if this argument is not given.
+     * @return The argument's value, or {@code def} if none was provided.
+     * @throws LuaException If the value is not a number.
+     * @see ArgumentHelper#optDouble(Object[], int, double)
+     */
+    double optDouble(int index, double def) throws LuaException;
+
+    /**
+     * Get an argument as an int.
+     *
+     * @param index The argument number, starting from 0.
+     * @param def   The default value, if this argument is not given.
+     * @return The argument's value, or {@code def} if none was provided.
+     * @throws LuaException If the value is not a number.
+     * @see ArgumentHelper#optInt(Object[], int, int)
+     */
+    default int optInt(int index, int def) throws LuaException {
+        return (int) optLong(index, def);
+    }
+
+    /**
+     * Get an argument as a long.
+     *
+     * @param index The argument number, starting from 0.
+     * @param def   The default value, if this argument is not given.
+     * @return The argument's value, or {@code def} if none was provided.
+     * @throws LuaException If the value is not a number.
+     * @see ArgumentHelper#optLong(Object[], int, long)
+     */
+    long optLong(int index, long def) throws LuaException;
+
+    /**
+     * Get an argument as a boolean.
+     *
+     * @param index The argument number, starting from 0.
+     * @param def   The default value, if this argument is not given.
+     * @return The argument's value, or {@code def} if none was provided.
+     * @throws LuaException If the value is not a boolean.
+     * @see ArgumentHelper#optBoolean(Object[], int, boolean)
+     */
+    boolean optBoolean(int index, boolean def) throws LuaException;
+
+    /**
+     * Get an argument as a string.
+     *
+     * @param index The argument number, starting from 0.
+     * @param def   The default value, if this argument is not given.
+     * @return The argument's value, or {@code def} if none was provided.
+     * @throws LuaException If the value is not a string.
+     * @see ArgumentHelper#optString(Object[], int, String)
+     */
+    String optString(int index, String def) throws LuaException;
+
+    /**
+     * Get a string argument as its raw bytes.
+     *
+     * @param index The argument number, starting from 0.
+     * @param def   The default value, if this argument is not given.
+     * @return The argument's value, or {@code def} if none was provided.
+     * @throws LuaException If the value is not a string.
+     * @see #getBytes(int)
+     */
+    default ByteBuffer optBytes(int index, ByteBuffer def) throws LuaException {
+        String value = optString(index, null);
+        return value == null ? def : ByteBuffer.wrap(encodeString(value)).asReadOnlyBuffer();
+    }
+
+    /**
+     * Get an argument as a table. This has the same restrictions as {@link #getTable(int)}.
+     *
+     * @param index The argument number, starting from 0.
+     * @param def   The default value, if this argument is not given.
+     * @return The argument's value, or {@code def} if none was provided.
+     * @throws LuaException If the value is not a table.
+     * @see ArgumentHelper#optTable(Object[], int, Map)
+     */
+    Map<?, ?> optTable(int index, Map<Object, Object> def) throws LuaException;
+
+    /**
+     * Encode a string decoded from Lua back into its original bytes. Lua strings are decoded one byte per character, so this is the
+     * inverse of that.
+     *
+     * @param string The string to encode.
+     * @return The string's bytes.
+     */
+    @Nonnull
+    static byte[] encodeString(@Nonnull String string) {
+        byte[] bytes = new byte[string.length()];
+        for (int i = 0; i < bytes.length; i++) {
+            char c = string.charAt(i);
+            bytes[i] = c < 256 ? (byte) c : 63;
+        }
+        return bytes;
+    }
+}
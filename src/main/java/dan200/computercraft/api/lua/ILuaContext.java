@@ -69,8 +69,9 @@ public interface ILuaContext {
     /**
      * Queue a task to be executed on the main server thread at the beginning of next tick, waiting for it to complete. This should be used
      * when you need to interact with the world in a thread-safe manner.
-     * Note that the return values of your task are handled as events, meaning more complex objects such as maps or {@link ILuaObject} will
-     * not preserve their identities.
+     * Unlike {@link #issueMainThreadTask(ILuaTask)}, the return values of your task are passed straight back to the caller rather than via
+     * a {@code task_complete} event. The caller is resumed by a wake-up which is delivered ahead of any other queued events, and which is
+     * never dropped when the event queue is full.
      *
      * @param task The task to execute on the main thread.
      * @return The objects returned by {@code task}.
@@ -82,6 +83,27 @@ public interface ILuaContext {
     @Nullable
     Object[] executeMainThreadTask(@Nonnull ILuaTask task) throws LuaException, InterruptedException;
 
+    /**
+     * Queue several tasks to be executed on the main server thread, waiting for all of them to complete. The tasks are run in order, and
+     * as many as fit within the computer's main thread time limit are executed each tick, so this is much faster than calling
+     * {@link #executeMainThreadTask(ILuaTask)} for each task.
+     * If any task throws an exception, the remaining tasks will not be run and the exception is rethrown.
+     *
+     * @param tasks The tasks to execute on the main thread.
+     * @return The objects returned by each task, in the same order as {@code tasks}.
+     * @throws LuaException         If the tasks could not be queued, or if one of the tasks threw an exception.
+     * @throws InterruptedException If the user shuts down or reboots the computer the coroutine is suspended, InterruptedException will be
+     *                              thrown. This exception must not be caught or intercepted, or the computer will leak memory and end up in
+     *                              a broken state.
+     * @see #executeMainThreadTask(ILuaTask)
+     */
+    @Nonnull
+    default Object[][] executeMainThreadTasks(@Nonnull ILuaTask[] tasks) throws LuaException, InterruptedException {
+        Object[][] results = new Object[tasks.length][];
+        for (int i = 0; i < tasks.length; i++) results[i] = executeMainThreadTask(tasks[i]);
+        return results;
+    }
+
     /**
      * Queue a task to be executed on the main server thread at the beginning of next tick, but do not wait for it to complete. This should
      * be used when you need to interact with the world in a thread-safe manner but do not care about the result or you wish to run
@@ -47,4 +47,28 @@ public interface ILuaObject {
      */
     @Nullable
     Object[] callMethod(@Nonnull ILuaContext context, int method, @Nonnull Object[] arguments) throws LuaException, InterruptedException;
+
+    /**
+     * Called when a user calls one of the methods that this object implements. This is identical to
+     * {@link #callMethod(ILuaContext, int, Object[])}, but arguments are only converted when they are read, which avoids copying tables
+     * and boxing numbers which are never used.
+     *
+     * By default, this converts all arguments and calls {@link #callMethod(ILuaContext, int, Object[])}. Objects which override this
+     * should generally implement {@link #callMethod(ILuaContext, int, Object[])} by wrapping the arguments with {@link ObjectArguments}.
+     *
+     * @param context   The context of the currently running lua thread. This can be used to wait for events or otherwise yield.
+     * @param method    An integer identifying which of the methods from getMethodNames() the computercraft wishes to call.
+     * @param arguments The arguments for this method.
+     * @return An array of objects, representing the values you wish to return to the Lua program.
+     * @throws LuaException         If the task could not be queued, or if the task threw an exception.
+     * @throws InterruptedException If the user shuts down or reboots the computer the coroutine is suspended, InterruptedException will be
+     *                              thrown. This exception must not be caught or intercepted, or the computer will leak memory and end up in
+     *                              a broken state.
+     * @see #callMethod(ILuaContext, int, Object[])
+     */
+    @Nullable
+    default Object[] callMethod(@Nonnull ILuaContext context, int method, @Nonnull IArguments arguments)
+        throws LuaException, InterruptedException {
+        return callMethod(context, method, arguments.getAll());
+    }
 }
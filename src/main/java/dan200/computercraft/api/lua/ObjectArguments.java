@@ -0,0 +1,108 @@
+/*
+ * This file is part of the public ComputerCraft API - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2020. This API may be redistributed unmodified and in full only.
+ * For help using the API, and posting your mods, visit the forums at computercraft.info.
+ */
+package dan200.computercraft.api.lua;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * An implementation of {@link IArguments} which wraps an array of already converted arguments.
+ */
+public final class ObjectArguments implements IArguments {
+
+    private static final ObjectArguments EMPTY = new ObjectArguments(new Object[0]);
+
+    private final Object[] args;
+
+    public ObjectArguments(@Nonnull Object... args) {
+        this.args = args;
+    }
+
+    @Override
+    public int count() {
+        return args.length;
+    }
+
+    @Nullable
+    @Override
+    public Object get(int index) {
+        return index >= 0 && index < args.length ? args[index] : null;
+    }
+
+    @Nonnull
+    @Override
+    public IArguments drop(int count) {
+        if (count < 0) throw new IllegalStateException("count cannot be negative");
+        if (count == 0) return this;
+        if (count >= args.length) return EMPTY;
+        return new ObjectArguments(Arrays.copyOfRange(args, count, args.length));
+    }
+
+    @Nonnull
+    @Override
+    public Object[] getAll() {
+        return args;
+    }
+
+    @Override
+    public double getDouble(int index) throws LuaException {
+        return ArgumentHelper.getDouble(args, index);
+    }
+
+    @Override
+    public long getLong(int index) throws LuaException {
+        return ArgumentHelper.getLong(args, index);
+    }
+
+    @Override
+    public double getFiniteDouble(int index) throws LuaException {
+        return ArgumentHelper.getFiniteDouble(args, index);
+    }
+
+    @Override
+    public boolean getBoolean(int index) throws LuaException {
+        return ArgumentHelper.getBoolean(args, index);
+    }
+
+    @Nonnull
+    @Override
+    public String getString(int index) throws LuaException {
+        return ArgumentHelper.getString(args, index);
+    }
+
+    @Nonnull
+    @Override
+    public Map<?, ?> getTable(int index) throws LuaException {
+        return ArgumentHelper.getTable(args, index);
+    }
+
+    @Override
+    public double optDouble(int index, double def) throws LuaException {
+        return ArgumentHelper.optDouble(args, index, def);
+    }
+
+    @Override
+    public long optLong(int index, long def) throws LuaException {
+        return ArgumentHelper.optLong(args, index, def);
+    }
+
+    @Override
+    public boolean optBoolean(int index, boolean def) throws LuaException {
+        return ArgumentHelper.optBoolean(args, index, def);
+    }
+
+    @Override
+    public String optString(int index, String def) throws LuaException {
+        return ArgumentHelper.optString(args, index, def);
+    }
+
+    @Override
+    public Map<?, ?> optTable(int index, Map<Object, Object> def) throws LuaException {
+        return ArgumentHelper.optTable(args, index, def);
+    }
+}
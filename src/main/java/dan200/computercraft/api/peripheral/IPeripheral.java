@@ -6,8 +6,10 @@
 package dan200.computercraft.api.peripheral;
 
 import dan200.computercraft.api.lua.ArgumentHelper;
+import dan200.computercraft.api.lua.IArguments;
 import dan200.computercraft.api.lua.ILuaContext;
 import dan200.computercraft.api.lua.LuaException;
+import dan200.computercraft.api.lua.ObjectArguments;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -68,6 +70,32 @@ public interface IPeripheral {
     Object[] callMethod(@Nonnull IComputerAccess computer, @Nonnull ILuaContext context, int method, @Nonnull Object[] arguments)
         throws LuaException, InterruptedException;
 
+    /**
+     * This is identical to {@link #callMethod(IComputerAccess, ILuaContext, int, Object[])}, but arguments are only converted when they
+     * are read, which avoids copying tables and boxing numbers which are never used.
+     *
+     * By default, this converts all arguments and calls {@link #callMethod(IComputerAccess, ILuaContext, int, Object[])}. Peripherals
+     * which override this should generally implement {@link #callMethod(IComputerAccess, ILuaContext, int, Object[])} by wrapping the
+     * arguments with {@link ObjectArguments}.
+     *
+     * @param computer  The interface to the computer that is making the call.
+     * @param context   The context of the currently running lua thread. This can be used to wait for events or otherwise yield.
+     * @param method    An integer identifying which of the methods from getMethodNames() the computercraft wishes to call.
+     * @param arguments The arguments passed into {@code peripheral.call()}.
+     * @return An array of objects, representing values you wish to return to the lua program.
+     * @throws LuaException         If you throw any exception from this function, a lua error will be raised with the same message as your
+     *                              exception.
+     * @throws InterruptedException If the user shuts down or reboots the computer the coroutine is suspended, InterruptedException will be
+     *                              thrown. This exception must not be caught or intercepted, or the computer will leak memory and end up in
+     *                              a broken state.
+     * @see #callMethod(IComputerAccess, ILuaContext, int, Object[])
+     */
+    @Nullable
+    default Object[] callMethod(@Nonnull IComputerAccess computer, @Nonnull ILuaContext context, int method, @Nonnull IArguments arguments)
+        throws LuaException, InterruptedException {
+        return callMethod(computer, context, method, arguments.getAll());
+    }
+
     /**
      * Is called when when a computer is attaching to the peripheral.
      * This will occur when a peripheral is placed next to an active computer, when a computer is turned on next to a peripheral, when a
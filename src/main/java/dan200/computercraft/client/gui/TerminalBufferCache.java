@@ -0,0 +1,150 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2020. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.client.gui;
+
+import dan200.computercraft.ComputerCraft;
+import dan200.computercraft.client.FrameInfo;
+import dan200.computercraft.client.render.TileEntityMonitorRenderer;
+import dan200.computercraft.core.terminal.Terminal;
+import net.minecraft.client.renderer.BufferBuilder;
+import net.minecraft.client.renderer.GlStateManager;
+import net.minecraft.client.renderer.OpenGlHelper;
+import net.minecraft.client.renderer.Tessellator;
+import net.minecraft.client.renderer.vertex.VertexBuffer;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import net.minecraftforge.fml.common.gameevent.TickEvent;
+import net.minecraftforge.fml.relauncher.Side;
+import org.lwjgl.opengl.GL11;
+
+import javax.annotation.Nonnull;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Draws computer terminals from a vertex buffer, which is only rebuilt when the terminal changes.
+ *
+ * This is used for terminals which are drawn every frame, but rarely change, such as computer GUIs and pocket computers. Monitors
+ * have their own buffers (see {@link dan200.computercraft.shared.peripheral.monitor.ClientMonitor}).
+ *
+ * Buffers are deleted once their terminal has not been drawn for {@link #EXPIRE_FRAMES} frames.
+ */
+@Mod.EventBusSubscriber(modid = ComputerCraft.MOD_ID, value = Side.CLIENT)
+public final class TerminalBufferCache {
+
+    private static final long EXPIRE_FRAMES = 60;
+
+    private static final Map<Terminal, Entry> buffers = new IdentityHashMap<>();
+
+    private TerminalBufferCache() {
+    }
+
+    /**
+     * Draw a terminal, as {@link FixedWidthFontRenderer#drawTerminal(float, float, Terminal, boolean, float, float, float, float)}
+     * would.
+     *
+     * @param x                The x position of the terminal's text.
+     * @param y                The y position of the terminal's text.
+     * @param terminal         The terminal to draw.
+     * @param greyscale        Whether to draw the terminal in greyscale.
+     * @param topMarginSize    The size of the top margin.
+     * @param bottomMarginSize The size of the bottom margin.
+     * @param leftMarginSize   The size of the left margin.
+     * @param rightMarginSize  The size of the right margin.
+     */
+    public static void drawTerminal(float x, float y, @Nonnull Terminal terminal, boolean greyscale, float topMarginSize,
+                                    float bottomMarginSize, float leftMarginSize, float rightMarginSize) {
+        if (!OpenGlHelper.useVbo()) {
+            FixedWidthFontRenderer.drawTerminal(x, y, terminal, greyscale, topMarginSize, bottomMarginSize, leftMarginSize,
+                                                rightMarginSize);
+            return;
+        }
+
+        Tessellator tessellator = Tessellator.getInstance();
+        BufferBuilder buffer = tessellator.getBuffer();
+
+        Entry entry = buffers.get(terminal);
+        if (entry == null) buffers.put(terminal, entry = new Entry());
+        entry.lastFrame = FrameInfo.getRenderFrame();
+
+        if (entry.vbo == null || entry.version != terminal.getVersion() || entry.greyscale != greyscale ||
+            entry.topMargin != topMarginSize || entry.bottomMargin != bottomMarginSize ||
+            entry.leftMargin != leftMarginSize || entry.rightMargin != rightMarginSize) {
+            if (entry.vbo == null) entry.vbo = new VertexBuffer(FixedWidthFontRenderer.POSITION_COLOR_TEX);
+
+            entry.version = terminal.getVersion();
+            entry.greyscale = greyscale;
+            entry.topMargin = topMarginSize;
+            entry.bottomMargin = bottomMarginSize;
+            entry.leftMargin = leftMarginSize;
+            entry.rightMargin = rightMarginSize;
+
+            // The buffer is drawn relative to the terminal's origin, so moving the terminal does not require a rebuild.
+            FixedWidthFontRenderer.begin(buffer);
+            FixedWidthFontRenderer.drawTerminalWithoutCursor(buffer, 0, 0, terminal, greyscale, topMarginSize, bottomMarginSize,
+                                                             leftMarginSize, rightMarginSize);
+            buffer.finishDrawing();
+            buffer.reset();
+            entry.vbo.bufferData(buffer.getByteBuffer());
+        }
+
+        FixedWidthFontRenderer.bindFont();
+
+        GlStateManager.pushMatrix();
+        GlStateManager.translate(x, y, 0);
+
+        entry.vbo.bindBuffer();
+        TileEntityMonitorRenderer.setupBufferFormat();
+        entry.vbo.drawArrays(GL11.GL_TRIANGLES);
+        entry.vbo.unbindBuffer();
+
+        GlStateManager.glDisableClientState(GL11.GL_VERTEX_ARRAY);
+        GlStateManager.glDisableClientState(GL11.GL_COLOR_ARRAY);
+        GlStateManager.glDisableClientState(GL11.GL_TEXTURE_COORD_ARRAY);
+
+        GlStateManager.popMatrix();
+
+        // The cursor blinks, so it is drawn separately rather than rebuilding the buffer.
+        FixedWidthFontRenderer.begin(buffer);
+        FixedWidthFontRenderer.drawCursor(buffer, x, y, terminal, greyscale);
+        tessellator.draw();
+    }
+
+    @SubscribeEvent
+    public static void onRenderTick(TickEvent.RenderTickEvent event) {
+        if (event.phase != TickEvent.Phase.END || buffers.isEmpty()) return;
+
+        long frame = FrameInfo.getRenderFrame();
+        for (Iterator<Entry> iterator = buffers.values().iterator(); iterator.hasNext(); ) {
+            Entry entry = iterator.next();
+            if (frame - entry.lastFrame < EXPIRE_FRAMES) continue;
+
+            if (entry.vbo != null) entry.vbo.deleteGlBuffers();
+            iterator.remove();
+        }
+    }
+
+    public static void destroyAll() {
+        for (Entry entry : buffers.values()) {
+            if (entry.vbo != null) entry.vbo.deleteGlBuffers();
+        }
+        buffers.clear();
+    }
+
+    private static final class Entry {
+
+        VertexBuffer vbo;
+        long lastFrame;
+
+        int version;
+        boolean greyscale;
+        float topMargin;
+        float bottomMargin;
+        float leftMargin;
+        float rightMargin;
+    }
+}
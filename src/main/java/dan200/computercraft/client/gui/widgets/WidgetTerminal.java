@@ -6,6 +6,7 @@
 package dan200.computercraft.client.gui.widgets;
 
 import dan200.computercraft.client.gui.FixedWidthFontRenderer;
+import dan200.computercraft.client.gui.TerminalBufferCache;
 import dan200.computercraft.core.terminal.Terminal;
 import dan200.computercraft.shared.computer.core.IComputer;
 import dan200.computercraft.shared.computer.core.IComputerContainer;
@@ -275,8 +276,8 @@ public class WidgetTerminal extends Widget {
             IComputer computer = m_computer.getComputer();
             Terminal terminal = computer != null ? computer.getTerminal() : null;
             if (terminal != null) {
-                FixedWidthFontRenderer.drawTerminal(startX + topMargin, startY + bottomMargin, terminal, !computer.isColour(), topMargin,
-                                                    bottomMargin, leftMargin, rightMargin);
+                TerminalBufferCache.drawTerminal(startX + topMargin, startY + bottomMargin, terminal, !computer.isColour(), topMargin,
+                                                 bottomMargin, leftMargin, rightMargin);
             } else {
                 FixedWidthFontRenderer.drawEmptyTerminal(startX, startY, getWidth(), getHeight());
             }
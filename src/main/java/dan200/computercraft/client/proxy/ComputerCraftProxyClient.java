@@ -6,6 +6,7 @@
 package dan200.computercraft.client.proxy;
 
 import dan200.computercraft.ComputerCraft;
+import dan200.computercraft.client.gui.TerminalBufferCache;
 import dan200.computercraft.client.render.TileEntityCableRenderer;
 import dan200.computercraft.client.render.TileEntityMonitorRenderer;
 import dan200.computercraft.client.render.TileEntityTurtleRenderer;
@@ -49,6 +50,7 @@ public class ComputerCraftProxyClient extends ComputerCraftProxyCommon {
         public static void onWorldUnload(WorldEvent.Unload event) {
             if (event.getWorld().isRemote) {
                 ClientMonitor.destroyAll();
+                TerminalBufferCache.destroyAll();
             }
         }
     }
@@ -7,6 +7,7 @@ package dan200.computercraft.client.render;
 
 import dan200.computercraft.ComputerCraft;
 import dan200.computercraft.client.gui.FixedWidthFontRenderer;
+import dan200.computercraft.client.gui.TerminalBufferCache;
 import dan200.computercraft.core.terminal.Terminal;
 import dan200.computercraft.shared.computer.core.ClientComputer;
 import dan200.computercraft.shared.computer.core.ComputerFamily;
@@ -96,7 +97,7 @@ public final class ItemPocketRenderer extends ItemMapLikeRenderer {
         renderLight(lightColour, width, height);
 
         if (computer != null && terminal != null) {
-            FixedWidthFontRenderer.drawTerminal(MARGIN, MARGIN, terminal, !computer.isColour(), MARGIN, MARGIN, MARGIN, MARGIN);
+            TerminalBufferCache.drawTerminal(MARGIN, MARGIN, terminal, !computer.isColour(), MARGIN, MARGIN, MARGIN, MARGIN);
         } else {
             FixedWidthFontRenderer.drawEmptyTerminal(0, 0, width, height);
         }
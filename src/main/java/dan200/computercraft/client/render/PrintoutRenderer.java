@@ -63,10 +63,16 @@ public final class PrintoutRenderer {
     }
 
     public static void drawText(int x, int y, int start, TextBuffer[] text, TextBuffer[] colours) {
+        // Draw the whole page at once, rather than a line at a time.
+        FixedWidthFontRenderer.bindFont();
+        Tessellator tessellator = Tessellator.getInstance();
+        BufferBuilder buffer = tessellator.getBuffer();
+        FixedWidthFontRenderer.begin(buffer);
         for (int line = 0; line < LINES_PER_PAGE && line < text.length; line++) {
-            FixedWidthFontRenderer.drawString(x, y + line * FONT_HEIGHT, text[start + line], colours[start + line], null, Palette.DEFAULT,
-                                              false, 0, 0);
+            FixedWidthFontRenderer.drawString(buffer, x, y + line * FONT_HEIGHT, text[start + line], colours[start + line], null,
+                                              Palette.DEFAULT, false, 0, 0);
         }
+        tessellator.draw();
     }
 
     public static void drawText(int x, int y, int start, String[] text, String[] colours) {
@@ -75,10 +81,15 @@ public final class PrintoutRenderer {
         GlStateManager.enableTexture2D();
         GlStateManager.tryBlendFuncSeparate(SourceFactor.SRC_ALPHA, DestFactor.ONE_MINUS_SRC_ALPHA, SourceFactor.ONE, DestFactor.ZERO);
 
+        FixedWidthFontRenderer.bindFont();
+        Tessellator tessellator = Tessellator.getInstance();
+        BufferBuilder buffer = tessellator.getBuffer();
+        FixedWidthFontRenderer.begin(buffer);
         for (int line = 0; line < LINES_PER_PAGE && line < text.length; line++) {
-            FixedWidthFontRenderer.drawString(x, y + line * FONT_HEIGHT, new TextBuffer(text[start + line]),
+            FixedWidthFontRenderer.drawString(buffer, x, y + line * FONT_HEIGHT, new TextBuffer(text[start + line]),
                                               new TextBuffer(colours[start + line]), null, Palette.DEFAULT, false, 0, 0);
         }
+        tessellator.draw();
     }
 
     public static void drawBorder(double x, double y, double z, int page, int pages, boolean isBook) {
@@ -5,6 +5,7 @@
  */
 package dan200.computercraft.client.render;
 
+import dan200.computercraft.ComputerCraft;
 import dan200.computercraft.client.FrameInfo;
 import dan200.computercraft.client.gui.FixedWidthFontRenderer;
 import dan200.computercraft.core.terminal.Terminal;
@@ -19,6 +20,7 @@ import net.minecraft.client.renderer.*;
 import net.minecraft.client.renderer.tileentity.TileEntitySpecialRenderer;
 import net.minecraft.client.renderer.vertex.DefaultVertexFormats;
 import net.minecraft.client.renderer.vertex.VertexBuffer;
+import net.minecraft.client.shader.Framebuffer;
 import net.minecraft.util.EnumFacing;
 import net.minecraft.util.math.BlockPos;
 import org.lwjgl.opengl.GL11;
@@ -93,7 +95,14 @@ public class TileEntityMonitorRenderer extends TileEntitySpecialRenderer<TileMon
         GlStateManager.disableLighting();
         mc.entityRenderer.disableLightmap();
 
+        // Monitors beyond the configured distance are drawn blank. Their buffers are left alone, and so will be redrawn
+        // with the latest terminal once the monitor is back in range.
         Terminal terminal = originTerminal.getTerminal();
+        int maxDistance = ComputerCraft.monitorDistance;
+        if (terminal != null && maxDistance > 0 && posX * posX + posY * posY + posZ * posZ > (double) maxDistance * maxDistance) {
+            terminal = null;
+        }
+
         if (terminal != null) {
             // Draw a terminal
             double xScale = xSize / (terminal.getWidth() * FONT_WIDTH);
@@ -214,6 +223,36 @@ public class TileEntityMonitorRenderer extends TileEntitySpecialRenderer<TileMon
 
                 GlStateManager.callList(monitor.displayList);
                 break;
+
+            case FRAMEBUFFER: {
+                Terminal terminal = monitor.getTerminal();
+                float pixelWidth = terminal.getWidth() * FONT_WIDTH, pixelHeight = terminal.getHeight() * FONT_HEIGHT;
+
+                // One texel per font pixel, including the margins.
+                Framebuffer framebuffer = monitor.framebuffer;
+                int textureWidth = (int) Math.ceil(pixelWidth + 2 * xMargin);
+                int textureHeight = (int) Math.ceil(pixelHeight + 2 * yMargin);
+                if (framebuffer.framebufferWidth != textureWidth || framebuffer.framebufferHeight != textureHeight) {
+                    framebuffer.createBindFramebuffer(textureWidth, textureHeight);
+                    redraw = true;
+                }
+
+                if (redraw) renderTerminalToFramebuffer(monitor, framebuffer, pixelWidth, pixelHeight, xMargin, yMargin);
+
+                framebuffer.bindFramebufferTexture();
+                GlStateManager.color(1.0f, 1.0f, 1.0f, 1.0f);
+
+                // The framebuffer's origin is at the bottom left, while the terminal's is at the top left.
+                buffer.begin(GL11.GL_TRIANGLE_STRIP, DefaultVertexFormats.POSITION_TEX);
+                buffer.pos(-xMargin, -yMargin, 0).tex(0, 1).endVertex();
+                buffer.pos(-xMargin, pixelHeight + yMargin, 0).tex(0, 0).endVertex();
+                buffer.pos(pixelWidth + xMargin, -yMargin, 0).tex(1, 1).endVertex();
+                buffer.pos(pixelWidth + xMargin, pixelHeight + yMargin, 0).tex(1, 0).endVertex();
+                tessellator.draw();
+
+                FixedWidthFontRenderer.bindFont();
+                break;
+            }
         }
 
         // We don't draw the cursor with a buffer, as it's dynamic and so we'll end up refreshing far more than is
@@ -229,6 +268,34 @@ public class TileEntityMonitorRenderer extends TileEntitySpecialRenderer<TileMon
                                                          xMargin, xMargin);
     }
 
+    private static void renderTerminalToFramebuffer(ClientMonitor monitor, Framebuffer framebuffer, float pixelWidth, float pixelHeight,
+                                                    float xMargin, float yMargin) {
+        Tessellator tessellator = Tessellator.getInstance();
+
+        framebuffer.bindFramebuffer(true);
+        GlStateManager.clearColor(0.0f, 0.0f, 0.0f, 0.0f);
+        GlStateManager.clear(GL11.GL_COLOR_BUFFER_BIT);
+
+        GlStateManager.matrixMode(GL11.GL_PROJECTION);
+        GlStateManager.pushMatrix();
+        GlStateManager.loadIdentity();
+        GlStateManager.ortho(-xMargin, pixelWidth + xMargin, pixelHeight + yMargin, -yMargin, -1, 1);
+        GlStateManager.matrixMode(GL11.GL_MODELVIEW);
+        GlStateManager.pushMatrix();
+        GlStateManager.loadIdentity();
+
+        renderTerminalTo(monitor, tessellator.getBuffer(), xMargin, yMargin);
+        tessellator.draw();
+
+        GlStateManager.popMatrix();
+        GlStateManager.matrixMode(GL11.GL_PROJECTION);
+        GlStateManager.popMatrix();
+        GlStateManager.matrixMode(GL11.GL_MODELVIEW);
+
+        // Switch back to the main framebuffer, which also restores the viewport.
+        Minecraft.getMinecraft().getFramebuffer().bindFramebuffer(true);
+    }
+
     public static void setupBufferFormat() {
         int stride = FixedWidthFontRenderer.POSITION_COLOR_TEX.getSize();
         GlStateManager.glVertexPointer(3, GL11.GL_FLOAT, stride, 0);
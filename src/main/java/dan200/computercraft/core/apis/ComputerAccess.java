@@ -46,14 +46,10 @@ public abstract class ComputerAccess implements IComputerAccess {
         FileSystem fileSystem = m_environment.getFileSystem();
         if (fileSystem == null) throw new IllegalStateException("File system has not been created");
 
-        synchronized (fileSystem) {
-            location = findFreeLocation(desiredLoc);
-            if (location != null) {
-                try {
-                    fileSystem.mount(driveName, location, mount);
-                } catch (FileSystemException ignored) {
-                }
-            }
+        try {
+            location = fileSystem.mountIfFree(driveName, desiredLoc, mount) ? desiredLoc : null;
+        } catch (FileSystemException ignored) {
+            location = null;
         }
 
         if (location != null) m_mounts.add(location);
@@ -71,14 +67,10 @@ public abstract class ComputerAccess implements IComputerAccess {
         FileSystem fileSystem = m_environment.getFileSystem();
         if (fileSystem == null) throw new IllegalStateException("File system has not been created");
 
-        synchronized (fileSystem) {
-            location = findFreeLocation(desiredLoc);
-            if (location != null) {
-                try {
-                    fileSystem.mountWritable(driveName, location, mount);
-                } catch (FileSystemException ignored) {
-                }
-            }
+        try {
+            location = fileSystem.mountWritableIfFree(driveName, desiredLoc, mount) ? desiredLoc : null;
+        } catch (FileSystemException ignored) {
+            location = null;
         }
 
         if (location != null) m_mounts.add(location);
@@ -110,16 +102,4 @@ public abstract class ComputerAccess implements IComputerAccess {
     public IWorkMonitor getMainThreadMonitor() {
         return m_environment.getMainThreadMonitor();
     }
-
-    private String findFreeLocation(String desiredLoc) {
-        try {
-            FileSystem fileSystem = m_environment.getFileSystem();
-            if (!fileSystem.exists(desiredLoc)) return desiredLoc;
-
-            // We used to check foo2, foo3, foo4, etc here but the disk drive does this itself now
-            return null;
-        } catch (FileSystemException e) {
-            return null;
-        }
-    }
 }
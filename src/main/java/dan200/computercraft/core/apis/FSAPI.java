@@ -5,9 +5,11 @@
  */
 package dan200.computercraft.core.apis;
 
+import dan200.computercraft.api.lua.IArguments;
 import dan200.computercraft.api.lua.ILuaAPI;
 import dan200.computercraft.api.lua.ILuaContext;
 import dan200.computercraft.api.lua.LuaException;
+import dan200.computercraft.api.lua.ObjectArguments;
 import dan200.computercraft.core.apis.handles.BinaryReadableHandle;
 import dan200.computercraft.core.apis.handles.BinaryWritableHandle;
 import dan200.computercraft.core.apis.handles.EncodedReadableHandle;
@@ -29,8 +31,6 @@ import java.util.Map;
 import java.util.OptionalLong;
 import java.util.function.Function;
 
-import static dan200.computercraft.api.lua.ArgumentHelper.getString;
-
 public class FSAPI implements ILuaAPI {
 
     private final IAPIEnvironment m_env;
@@ -65,10 +65,15 @@ public class FSAPI implements ILuaAPI {
 
     @Override
     public Object[] callMethod(@Nonnull ILuaContext context, int method, @Nonnull Object[] args) throws LuaException {
+        return callMethod(context, method, new ObjectArguments(args));
+    }
+
+    @Override
+    public Object[] callMethod(@Nonnull ILuaContext context, int method, @Nonnull IArguments args) throws LuaException {
         switch (method) {
             case 0: {
                 // list
-                String path = getString(args, 0);
+                String path = args.getString(0);
                 m_env.addTrackingChange(TrackingField.FS_OPS);
                 try {
                     return new Object[]{m_fileSystem.list(path)};
@@ -78,18 +83,18 @@ public class FSAPI implements ILuaAPI {
             }
             case 1: {
                 // combine
-                String pathA = getString(args, 0);
-                String pathB = getString(args, 1);
+                String pathA = args.getString(0);
+                String pathB = args.getString(1);
                 return new Object[]{m_fileSystem.combine(pathA, pathB)};
             }
             case 2: {
                 // getName
-                String path = getString(args, 0);
+                String path = args.getString(0);
                 return new Object[]{FileSystem.getName(path)};
             }
             case 3: {
                 // getSize
-                String path = getString(args, 0);
+                String path = args.getString(0);
                 try {
                     return new Object[]{m_fileSystem.getSize(path)};
                 } catch (FileSystemException e) {
@@ -98,7 +103,7 @@ public class FSAPI implements ILuaAPI {
             }
             case 4: {
                 // exists
-                String path = getString(args, 0);
+                String path = args.getString(0);
                 try {
                     return new Object[]{m_fileSystem.exists(path)};
                 } catch (FileSystemException e) {
@@ -107,7 +112,7 @@ public class FSAPI implements ILuaAPI {
             }
             case 5: {
                 // isDir
-                String path = getString(args, 0);
+                String path = args.getString(0);
                 try {
                     return new Object[]{m_fileSystem.isDir(path)};
                 } catch (FileSystemException e) {
@@ -116,7 +121,7 @@ public class FSAPI implements ILuaAPI {
             }
             case 6: {
                 // isReadOnly
-                String path = getString(args, 0);
+                String path = args.getString(0);
                 try {
                     return new Object[]{m_fileSystem.isReadOnly(path)};
                 } catch (FileSystemException e) {
@@ -125,7 +130,7 @@ public class FSAPI implements ILuaAPI {
             }
             case 7: {
                 // makeDir
-                String path = getString(args, 0);
+                String path = args.getString(0);
                 try {
                     m_env.addTrackingChange(TrackingField.FS_OPS);
                     m_fileSystem.makeDir(path);
@@ -136,8 +141,8 @@ public class FSAPI implements ILuaAPI {
             }
             case 8: {
                 // move
-                String path = getString(args, 0);
-                String dest = getString(args, 1);
+                String path = args.getString(0);
+                String dest = args.getString(1);
                 try {
                     m_env.addTrackingChange(TrackingField.FS_OPS);
                     m_fileSystem.move(path, dest);
@@ -148,8 +153,8 @@ public class FSAPI implements ILuaAPI {
             }
             case 9: {
                 // copy
-                String path = getString(args, 0);
-                String dest = getString(args, 1);
+                String path = args.getString(0);
+                String dest = args.getString(1);
                 try {
                     m_env.addTrackingChange(TrackingField.FS_OPS);
                     m_fileSystem.copy(path, dest);
@@ -160,7 +165,7 @@ public class FSAPI implements ILuaAPI {
             }
             case 10: {
                 // delete
-                String path = getString(args, 0);
+                String path = args.getString(0);
                 try {
                     m_env.addTrackingChange(TrackingField.FS_OPS);
                     m_fileSystem.delete(path);
@@ -171,8 +176,8 @@ public class FSAPI implements ILuaAPI {
             }
             case 11: {
                 // open
-                String path = getString(args, 0);
-                String mode = getString(args, 1);
+                String path = args.getString(0);
+                String mode = args.getString(1);
                 m_env.addTrackingChange(TrackingField.FS_OPS);
                 try {
                     switch (mode) {
@@ -217,7 +222,7 @@ public class FSAPI implements ILuaAPI {
             }
             case 12: {
                 // getDrive
-                String path = getString(args, 0);
+                String path = args.getString(0);
                 try {
                     if (!m_fileSystem.exists(path)) {
                         return null;
@@ -229,7 +234,7 @@ public class FSAPI implements ILuaAPI {
             }
             case 13: {
                 // getFreeSpace
-                String path = getString(args, 0);
+                String path = args.getString(0);
                 try {
                     long freeSpace = m_fileSystem.getFreeSpace(path);
                     if (freeSpace >= 0) {
@@ -242,7 +247,7 @@ public class FSAPI implements ILuaAPI {
             }
             case 14: // find
             {
-                String path = getString(args, 0);
+                String path = args.getString(0);
                 try {
                     m_env.addTrackingChange(TrackingField.FS_OPS);
                     return new Object[]{m_fileSystem.find(path)};
@@ -252,12 +257,12 @@ public class FSAPI implements ILuaAPI {
             }
             case 15: // getDir
             {
-                String path = getString(args, 0);
+                String path = args.getString(0);
                 return new Object[]{FileSystem.getDirectory(path)};
             }
             case 16: // getCapacity
             {
-                String path = getString(args, 0);
+                String path = args.getString(0);
                 try {
                     OptionalLong capacity = m_fileSystem.getCapacity(path);
                     return new Object[]{capacity.isPresent() ? capacity.getAsLong() : null};
@@ -267,7 +272,7 @@ public class FSAPI implements ILuaAPI {
             }
             case 17: // attributes
             {
-                String path = getString(args, 0);
+                String path = args.getString(0);
                 try {
                     BasicFileAttributes attributes = m_fileSystem.getAttributes(path);
                     Map<String, Object> result = new HashMap<>();
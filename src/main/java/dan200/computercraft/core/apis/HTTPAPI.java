@@ -6,9 +6,7 @@
 package dan200.computercraft.core.apis;
 
 import dan200.computercraft.ComputerCraft;
-import dan200.computercraft.api.lua.ILuaAPI;
-import dan200.computercraft.api.lua.ILuaContext;
-import dan200.computercraft.api.lua.LuaException;
+import dan200.computercraft.api.lua.*;
 import dan200.computercraft.core.apis.http.*;
 import dan200.computercraft.core.apis.http.request.HttpRequest;
 import dan200.computercraft.core.apis.http.websocket.Websocket;
@@ -18,11 +16,11 @@ import io.netty.handler.codec.http.HttpMethod;
 
 import javax.annotation.Nonnull;
 import java.net.URI;
+import java.nio.ByteBuffer;
 import java.util.Collections;
 import java.util.Locale;
 import java.util.Map;
 
-import static dan200.computercraft.api.lua.ArgumentHelper.*;
 import static dan200.computercraft.core.apis.TableHelper.*;
 
 public class HTTPAPI implements ILuaAPI {
@@ -70,18 +68,24 @@ public class HTTPAPI implements ILuaAPI {
     }
 
     @Override
-    @SuppressWarnings("resource")
     public Object[] callMethod(@Nonnull ILuaContext context, int method, @Nonnull Object[] args) throws LuaException {
+        return callMethod(context, method, new ObjectArguments(args));
+    }
+
+    @Override
+    @SuppressWarnings("resource")
+    public Object[] callMethod(@Nonnull ILuaContext context, int method, @Nonnull IArguments args) throws LuaException {
         switch (method) {
             case 0: // request
             {
-                String address, postString, requestMethod;
+                String address, requestMethod;
+                ByteBuffer postBody;
                 Map<?, ?> headerTable;
                 boolean binary, redirect;
 
-                if (args.length >= 1 && args[0] instanceof Map<?, ?> options) {
+                if (args.get(0) instanceof Map<?, ?> options) {
                     address = getStringField(options, "url");
-                    postString = optStringField(options, "body", null);
+                    postBody = optBytesField(options, "body", null);
                     headerTable = optTableField(options, "headers", Collections.emptyMap());
                     binary = optBooleanField(options, "binary", false);
                     requestMethod = optStringField(options, "method", null);
@@ -89,10 +93,10 @@ public class HTTPAPI implements ILuaAPI {
 
                 } else {
                     // Get URL and post information
-                    address = getString(args, 0);
-                    postString = optString(args, 1, null);
-                    headerTable = optTable(args, 2, Collections.emptyMap());
-                    binary = optBoolean(args, 3, false);
+                    address = args.getString(0);
+                    postBody = args.optBytes(1, null);
+                    headerTable = args.optTable(2, Collections.emptyMap());
+                    binary = args.optBoolean(3, false);
                     requestMethod = null;
                     redirect = true;
                 }
@@ -102,7 +106,7 @@ public class HTTPAPI implements ILuaAPI {
 
                 HttpMethod httpMethod;
                 if (requestMethod == null) {
-                    httpMethod = postString == null ? HttpMethod.GET : HttpMethod.POST;
+                    httpMethod = postBody == null ? HttpMethod.GET : HttpMethod.POST;
                 } else {
                     httpMethod = HttpMethod.valueOf(requestMethod.toUpperCase(Locale.ROOT));
                     if (httpMethod == null || requestMethod.equalsIgnoreCase("CONNECT")) {
@@ -112,7 +116,7 @@ public class HTTPAPI implements ILuaAPI {
 
                 try {
                     URI uri = HttpRequest.checkUri(address);
-                    HttpRequest request = new HttpRequest(requests, m_apiEnvironment, address, postString, headers, binary, redirect);
+                    HttpRequest request = new HttpRequest(requests, m_apiEnvironment, address, postBody, headers, binary, redirect);
 
                     long requestBody = request.body().readableBytes() + HttpRequest.getHeaderSize(headers);
                     if (ComputerCraft.httpMaxUpload != 0 && requestBody > ComputerCraft.httpMaxUpload) {
@@ -129,7 +133,7 @@ public class HTTPAPI implements ILuaAPI {
             }
             case 1: // checkURL
             {
-                String address = getString(args, 0);
+                String address = args.getString(0);
 
                 // Check URL
                 try {
@@ -143,8 +147,8 @@ public class HTTPAPI implements ILuaAPI {
             }
             case 2: // websocket
             {
-                String address = getString(args, 0);
-                Map<?, ?> headerTbl = optTable(args, 1, Collections.emptyMap());
+                String address = args.getString(0);
+                Map<?, ?> headerTbl = args.optTable(1, Collections.emptyMap());
 
                 if (!ComputerCraft.http_websocket_enable) {
                     throw new LuaException("Websocket connections are disabled");
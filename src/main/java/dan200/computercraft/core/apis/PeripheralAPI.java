@@ -5,24 +5,26 @@
  */
 package dan200.computercraft.core.apis;
 
+import dan200.computercraft.ComputerCraft;
 import dan200.computercraft.api.filesystem.IMount;
 import dan200.computercraft.api.filesystem.IWritableMount;
+import dan200.computercraft.api.lua.ArgumentHelper;
+import dan200.computercraft.api.lua.IArguments;
 import dan200.computercraft.api.lua.ILuaAPI;
 import dan200.computercraft.api.lua.ILuaContext;
+import dan200.computercraft.api.lua.ILuaTask;
 import dan200.computercraft.api.lua.LuaException;
+import dan200.computercraft.api.lua.ObjectArguments;
 import dan200.computercraft.api.peripheral.IPeripheral;
 import dan200.computercraft.core.computer.ComputerSide;
 import dan200.computercraft.core.tracking.TrackingField;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
-import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
-import static dan200.computercraft.api.lua.ArgumentHelper.getString;
-
 public class PeripheralAPI implements ILuaAPI, IAPIEnvironment.IPeripheralChangeListener {
 
     private class PeripheralWrapper extends ComputerAccess {
@@ -87,7 +89,7 @@ public class PeripheralAPI implements ILuaAPI, IAPIEnvironment.IPeripheralChange
             m_attached = false;
         }
 
-        public Object[] call(ILuaContext context, String methodName, Object[] arguments) throws LuaException, InterruptedException {
+        public Object[] call(ILuaContext context, String methodName, IArguments arguments) throws LuaException, InterruptedException {
             int method = -1;
             synchronized (this) {
                 if (m_methodMap.containsKey(methodName)) {
@@ -267,16 +269,22 @@ public class PeripheralAPI implements ILuaAPI, IAPIEnvironment.IPeripheralChange
     @Nonnull
     @Override
     public String[] getMethodNames() {
-        return new String[]{"isPresent", "getType", "getMethods", "call",};
+        return new String[]{"isPresent", "getType", "getMethods", "call", "batch",};
     }
 
     @Override
     public Object[] callMethod(@Nonnull ILuaContext context, int method, @Nonnull Object[] args) throws LuaException, InterruptedException {
+        return callMethod(context, method, new ObjectArguments(args));
+    }
+
+    @Override
+    public Object[] callMethod(@Nonnull ILuaContext context, int method, @Nonnull IArguments args)
+        throws LuaException, InterruptedException {
         switch (method) {
             case 0: {
                 // isPresent
                 boolean present = false;
-                ComputerSide side = ComputerSide.valueOfInsensitive(getString(args, 0));
+                ComputerSide side = ComputerSide.valueOfInsensitive(args.getString(0));
                 if (side != null) {
                     synchronized (m_peripherals) {
                         PeripheralWrapper p = m_peripherals[side.ordinal()];
@@ -287,7 +295,7 @@ public class PeripheralAPI implements ILuaAPI, IAPIEnvironment.IPeripheralChange
             }
             case 1: {
                 // getType
-                ComputerSide side = ComputerSide.valueOfInsensitive(getString(args, 0));
+                ComputerSide side = ComputerSide.valueOfInsensitive(args.getString(0));
                 if (side != null) {
                     synchronized (m_peripherals) {
                         PeripheralWrapper p = m_peripherals[side.ordinal()];
@@ -298,7 +306,7 @@ public class PeripheralAPI implements ILuaAPI, IAPIEnvironment.IPeripheralChange
             }
             case 2: {
                 // getMethods
-                ComputerSide side = ComputerSide.valueOfInsensitive(getString(args, 0));
+                ComputerSide side = ComputerSide.valueOfInsensitive(args.getString(0));
                 if (side != null) {
                     synchronized (m_peripherals) {
                         PeripheralWrapper p = m_peripherals[side.ordinal()];
@@ -310,9 +318,9 @@ public class PeripheralAPI implements ILuaAPI, IAPIEnvironment.IPeripheralChange
             }
             case 3: {
                 // call
-                ComputerSide side = ComputerSide.valueOfInsensitive(getString(args, 0));
-                String methodName = getString(args, 1);
-                Object[] methodArgs = Arrays.copyOfRange(args, 2, args.length);
+                ComputerSide side = ComputerSide.valueOfInsensitive(args.getString(0));
+                String methodName = args.getString(1);
+                IArguments methodArgs = args.drop(2);
 
                 if (side == null) throw new LuaException("No peripheral attached");
 
@@ -331,9 +339,125 @@ public class PeripheralAPI implements ILuaAPI, IAPIEnvironment.IPeripheralChange
                     throw e;
                 }
             }
+            case 4: {
+                // batch
+                // These are used on the main thread, so must be copied.
+                Object callsArg = args.get(0);
+                if (!(callsArg instanceof Map)) throw ArgumentHelper.badArgumentOf(0, "table", callsArg);
+                Map<?, ?> calls = (Map<?, ?>) callsArg;
+                int count = 0;
+                while (calls.containsKey((double) (count + 1))) count++;
+
+                ILuaContext batchContext = new BatchContext(context);
+                ILuaTask[] tasks = new ILuaTask[count];
+                for (int i = 0; i < count; i++) {
+                    Object call = calls.get((double) (i + 1));
+                    if (!(call instanceof Map)) throw new LuaException("bad argument #1 (call " + (i + 1) + " is not a table)");
+                    tasks[i] = batchTask(batchContext, (Map<?, ?>) call);
+                }
+
+                Object[][] results = context.executeMainThreadTasks(tasks);
+                Object[] flattened = new Object[count];
+                for (int i = 0; i < count; i++) flattened[i] = results[i][0];
+                return new Object[]{flattened};
+            }
             default:
                 return null;
         }
     }
 
+    /**
+     * Create a task for a single call within {@code peripheral.batch}. Calls are tables of the form {@code {side, method, ..., n = n}}. The
+     * task never throws, instead returning a single table of the form {@code {true, ...results..., n = n}} or
+     * {@code {false, message, n = 2}}.
+     *
+     * @param context The context to call the method with.
+     * @param call    The call to perform.
+     * @return The task to run on the main thread.
+     */
+    private ILuaTask batchTask(ILuaContext context, Map<?, ?> call) {
+        Object sideName = call.get(1.0);
+        Object methodName = call.get(2.0);
+        Object count = call.get("n");
+        int n = count instanceof Number ? ((Number) count).intValue() : 2;
+
+        Object[] methodArgs = new Object[Math.max(0, n - 2)];
+        for (int i = 0; i < methodArgs.length; i++) methodArgs[i] = call.get((double) (i + 3));
+
+        ComputerSide side = sideName instanceof String ? ComputerSide.valueOfInsensitive((String) sideName) : null;
+        PeripheralWrapper p = null;
+        if (side != null) {
+            synchronized (m_peripherals) {
+                p = m_peripherals[side.ordinal()];
+            }
+        }
+
+        final PeripheralWrapper peripheral = p;
+        return () -> {
+            // The peripheral may have been detached since the batch was queued.
+            if (peripheral == null || !peripheral.isAttached()) {
+                return new Object[]{batchResult(false, new Object[]{"No peripheral attached"})};
+            }
+            if (!(methodName instanceof String)) return new Object[]{batchResult(false, new Object[]{"Method name must be a string"})};
+
+            try {
+                Object[] results = peripheral.call(context, (String) methodName, new ObjectArguments(methodArgs));
+                return new Object[]{batchResult(true, results)};
+            } catch (LuaException e) {
+                return new Object[]{batchResult(false, new Object[]{e.getMessage()})};
+            } catch (InterruptedException e) {
+                // The batch context never blocks, so this should never happen.
+                return new Object[]{batchResult(false, new Object[]{"Interrupted"})};
+            } catch (RuntimeException e) {
+                // Don't let one broken peripheral fail the rest of the batch.
+                if (ComputerCraft.logPeripheralErrors) ComputerCraft.log.error("Error calling " + methodName + " on peripheral", e);
+                return new Object[]{batchResult(false, new Object[]{"Java Exception Thrown: " + e})};
+            }
+        };
+    }
+
+    private static Map<Object, Object> batchResult(boolean success, @Nullable Object[] values) {
+        int length = values == null ? 0 : values.length;
+        Map<Object, Object> result = new HashMap<>(length + 2);
+        result.put(1, success);
+        for (int i = 0; i < length; i++) result.put(i + 2, values[i]);
+        result.put("n", length + 1);
+        return result;
+    }
+
+    /**
+     * The context used for peripheral methods called within {@code peripheral.batch}. These are already being run on the main thread,
+     * so main thread tasks are executed immediately. As we're on the main thread, we cannot wait for events.
+     */
+    private static final class BatchContext implements ILuaContext {
+
+        private final ILuaContext parent;
+
+        BatchContext(ILuaContext parent) {
+            this.parent = parent;
+        }
+
+        @Nonnull
+        @Override
+        public Object[] pullEvent(@Nullable String filter) throws LuaException {
+            throw new LuaException("Cannot wait for events within peripheral.batch");
+        }
+
+        @Nonnull
+        @Override
+        public Object[] yield(@Nullable Object[] arguments) {
+            throw new IllegalStateException("Cannot yield within peripheral.batch");
+        }
+
+        @Nullable
+        @Override
+        public Object[] executeMainThreadTask(@Nonnull ILuaTask task) throws LuaException {
+            return task.execute();
+        }
+
+        @Override
+        public long issueMainThreadTask(@Nonnull ILuaTask task) throws LuaException {
+            return parent.issueMainThreadTask(task);
+        }
+    }
 }
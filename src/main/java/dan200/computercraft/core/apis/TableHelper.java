@@ -6,10 +6,12 @@
 package dan200.computercraft.core.apis;
 
 import dan200.computercraft.api.lua.ArgumentHelper;
+import dan200.computercraft.api.lua.IArguments;
 import dan200.computercraft.api.lua.LuaException;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.nio.ByteBuffer;
 import java.util.Map;
 
 import static dan200.computercraft.api.lua.ArgumentHelper.getNumericType;
@@ -133,6 +135,19 @@ public final class TableHelper {
         }
     }
 
+    public static ByteBuffer optBytesField(@Nonnull Map<?, ?> table, @Nonnull String key, ByteBuffer def) throws LuaException {
+        Object value = table.get(key);
+        if (value == null) {
+            return def;
+        } else if (value instanceof String) {
+            return ByteBuffer.wrap(IArguments.encodeString((String) value)).asReadOnlyBuffer();
+        } else if (value instanceof ByteBuffer) {
+            return ((ByteBuffer) value).asReadOnlyBuffer();
+        } else {
+            throw badKey(key, "string", value);
+        }
+    }
+
     @SuppressWarnings("unchecked")
     public static Map<Object, Object> optTableField(@Nonnull Map<?, ?> table, @Nonnull String key, Map<Object, Object> def)
         throws LuaException {
@@ -5,9 +5,11 @@
  */
 package dan200.computercraft.core.apis;
 
+import dan200.computercraft.api.lua.IArguments;
 import dan200.computercraft.api.lua.ILuaAPI;
 import dan200.computercraft.api.lua.ILuaContext;
 import dan200.computercraft.api.lua.LuaException;
+import dan200.computercraft.api.lua.ObjectArguments;
 import dan200.computercraft.core.computer.IComputerEnvironment;
 import dan200.computercraft.core.terminal.Terminal;
 import dan200.computercraft.shared.util.Colour;
@@ -16,8 +18,6 @@ import org.apache.commons.lang3.ArrayUtils;
 
 import javax.annotation.Nonnull;
 
-import static dan200.computercraft.api.lua.ArgumentHelper.*;
-
 public class TermAPI implements ILuaAPI {
 
     private final Terminal m_terminal;
@@ -44,7 +44,11 @@ public class TermAPI implements ILuaAPI {
     }
 
     public static int parseColour(Object[] args) throws LuaException {
-        int colour = getInt(args, 0);
+        return parseColour(new ObjectArguments(args));
+    }
+
+    public static int parseColour(IArguments args) throws LuaException {
+        int colour = args.getInt(0);
         if (colour <= 0) {
             throw new LuaException("Colour out of range");
         }
@@ -68,10 +72,16 @@ public class TermAPI implements ILuaAPI {
 
     @Override
     public Object[] callMethod(@Nonnull ILuaContext context, int method, @Nonnull Object[] args) throws LuaException {
+        return callMethod(context, method, new ObjectArguments(args));
+    }
+
+    @Override
+    public Object[] callMethod(@Nonnull ILuaContext context, int method, @Nonnull IArguments args) throws LuaException {
         switch (method) {
             case 0: {
                 // write
-                String text = args.length > 0 && args[0] != null ? args[0].toString() : "";
+                Object value = args.get(0);
+                String text = value != null ? value.toString() : "";
                 synchronized (m_terminal) {
                     m_terminal.write(text);
                     m_terminal.setCursorPos(m_terminal.getCursorX() + text.length(), m_terminal.getCursorY());
@@ -80,7 +90,7 @@ public class TermAPI implements ILuaAPI {
             }
             case 1: {
                 // scroll
-                int y = getInt(args, 0);
+                int y = args.getInt(0);
                 synchronized (m_terminal) {
                     m_terminal.scroll(y);
                 }
@@ -88,8 +98,8 @@ public class TermAPI implements ILuaAPI {
             }
             case 2: {
                 // setCursorPos
-                int x = getInt(args, 0) - 1;
-                int y = getInt(args, 1) - 1;
+                int x = args.getInt(0) - 1;
+                int y = args.getInt(1) - 1;
                 synchronized (m_terminal) {
                     m_terminal.setCursorPos(x, y);
                 }
@@ -97,7 +107,7 @@ public class TermAPI implements ILuaAPI {
             }
             case 3: {
                 // setCursorBlink
-                boolean b = getBoolean(args, 0);
+                boolean b = args.getBoolean(0);
                 synchronized (m_terminal) {
                     m_terminal.setCursorBlink(b);
                 }
@@ -160,9 +170,9 @@ public class TermAPI implements ILuaAPI {
                 return encodeColour(m_terminal.getBackgroundColour());
             case 18: {
                 // blit
-                String text = getString(args, 0);
-                String textColour = getString(args, 1);
-                String backgroundColour = getString(args, 2);
+                String text = args.getString(0);
+                String textColour = args.getString(1);
+                String backgroundColour = args.getString(2);
                 if (textColour.length() != text.length() || backgroundColour.length() != text.length()) {
                     throw new LuaException("Arguments must be the same length");
                 }
@@ -177,14 +187,14 @@ public class TermAPI implements ILuaAPI {
             case 20: {
                 // setPaletteColour/setPaletteColor
                 int colour = 15 - parseColour(args);
-                if (args.length == 2) {
-                    int hex = getInt(args, 1);
+                if (args.count() == 2) {
+                    int hex = args.getInt(1);
                     double[] rgb = Palette.decodeRGB8(hex);
                     setColour(m_terminal, colour, rgb[0], rgb[1], rgb[2]);
                 } else {
-                    double r = getFiniteDouble(args, 1);
-                    double g = getFiniteDouble(args, 2);
-                    double b = getFiniteDouble(args, 3);
+                    double r = args.getFiniteDouble(1);
+                    double g = args.getFiniteDouble(2);
+                    double b = args.getFiniteDouble(3);
                     setColour(m_terminal, colour, r, g, b);
                 }
                 return null;
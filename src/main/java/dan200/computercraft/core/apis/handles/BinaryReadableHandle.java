@@ -16,9 +16,7 @@ import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.SeekableByteChannel;
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.List;
 
 import static dan200.computercraft.api.lua.ArgumentHelper.getInt;
 import static dan200.computercraft.api.lua.ArgumentHelper.optBoolean;
@@ -32,12 +30,18 @@ public class BinaryReadableHandle extends HandleGeneric {
 
     private final ReadableByteChannel m_reader;
     private final SeekableByteChannel m_seekable;
-    private final ByteBuffer single = ByteBuffer.allocate(1);
+
+    /**
+     * Bytes which have been read from the channel, but not yet by the user. The buffer is kept in "read mode": everything between the
+     * position and limit is unread. This means the channel's position is ahead of the handle's, which must be accounted for when seeking.
+     */
+    private final ByteBuffer m_buffer = ByteBuffer.allocate(BUFFER_SIZE);
 
     public BinaryReadableHandle(ReadableByteChannel channel, Closeable closeable) {
         super(closeable);
         m_reader = channel;
         m_seekable = asSeekable(channel);
+        m_buffer.limit(0);
     }
 
     public BinaryReadableHandle(ReadableByteChannel channel) {
@@ -61,53 +65,14 @@ public class BinaryReadableHandle extends HandleGeneric {
                         if (count < 0) {
                             throw new LuaException("Cannot read a negative number of bytes");
                         } else if (count == 0 && m_seekable != null) {
-                            return m_seekable.position() >= m_seekable.size() ? null : new Object[]{""};
+                            return !m_buffer.hasRemaining() && m_seekable.position() >= m_seekable.size() ? null : new Object[]{""};
                         }
 
-                        if (count <= BUFFER_SIZE) {
-                            ByteBuffer buffer = ByteBuffer.allocate(count);
-
-                            int read = m_reader.read(buffer);
-                            if (read < 0) return null;
-                            return new Object[]{read < count ? Arrays.copyOf(buffer.array(), read) : buffer.array()};
-                        } else {
-                            // Read the initial set of characters, failing if none are read.
-                            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
-                            int read = m_reader.read(buffer);
-                            if (read < 0) return null;
-
-                            // If we failed to read "enough" here, let's just abort
-                            if (read >= count || read < BUFFER_SIZE) {
-                                return new Object[]{Arrays.copyOf(buffer.array(), read)};
-                            }
-
-                            // Build up an array of ByteBuffers. Hopefully this means we can perform less allocation
-                            // than doubling up the buffer each time.
-                            int totalRead = read;
-                            List<ByteBuffer> parts = new ArrayList<>(4);
-                            parts.add(buffer);
-                            while (read >= BUFFER_SIZE && totalRead < count) {
-                                buffer = ByteBuffer.allocate(Math.min(BUFFER_SIZE, count - totalRead));
-                                read = m_reader.read(buffer);
-                                if (read < 0) break;
-
-                                totalRead += read;
-                                parts.add(buffer);
-                            }
-
-                            // Now just copy all the bytes across!
-                            byte[] bytes = new byte[totalRead];
-                            int pos = 0;
-                            for (ByteBuffer part : parts) {
-                                System.arraycopy(part.array(), 0, bytes, pos, part.position());
-                                pos += part.position();
-                            }
-                            return new Object[]{bytes};
-                        }
+                        byte[] bytes = read(count);
+                        return bytes == null ? null : new Object[]{bytes};
                     } else {
-                        single.clear();
-                        int b = m_reader.read(single);
-                        return b == -1 ? null : new Object[]{single.get(0) & 0xFF};
+                        if (!m_buffer.hasRemaining() && fill() < 0) return null;
+                        return new Object[]{m_buffer.get() & 0xFF};
                     }
                 } catch (IOException e) {
                     return null;
@@ -115,23 +80,27 @@ public class BinaryReadableHandle extends HandleGeneric {
             case 1: // readAll
                 checkOpen();
                 try {
-                    int expected = 32;
+                    // If we know how much is left, we can read straight into the result.
+                    byte[] bytes = null;
                     if (m_seekable != null) {
-                        expected = Math.max(expected, (int) (m_seekable.size() - m_seekable.position()));
+                        long remaining = m_buffer.remaining() + Math.max(0, m_seekable.size() - m_seekable.position());
+                        if (remaining > 0 && remaining < Integer.MAX_VALUE) bytes = read((int) remaining);
                     }
-                    ByteArrayOutputStream stream = new ByteArrayOutputStream(expected);
 
-                    ByteBuffer buf = ByteBuffer.allocate(8192);
-                    boolean readAnything = false;
-                    while (true) {
-                        buf.clear();
-                        int r = m_reader.read(buf);
-                        if (r == -1) break;
+                    // Then read anything else, or everything if the channel is not seekable.
+                    ByteArrayOutputStream stream = null;
+                    while (m_buffer.hasRemaining() || fill() >= 0) {
+                        if (stream == null) {
+                            stream = new ByteArrayOutputStream(bytes == null ? 32 : bytes.length + BUFFER_SIZE);
+                            if (bytes != null) stream.write(bytes);
+                        }
 
-                        readAnything = true;
-                        stream.write(buf.array(), 0, r);
+                        stream.write(m_buffer.array(), m_buffer.position(), m_buffer.remaining());
+                        m_buffer.position(m_buffer.limit());
                     }
-                    return readAnything ? new Object[]{stream.toByteArray()} : null;
+
+                    if (stream != null) return new Object[]{stream.toByteArray()};
+                    return bytes == null ? null : new Object[]{bytes};
                 } catch (IOException e) {
                     return null;
                 }
@@ -140,37 +109,45 @@ public class BinaryReadableHandle extends HandleGeneric {
                 checkOpen();
                 boolean withTrailing = optBoolean(args, 0, false);
                 try {
-                    ByteArrayOutputStream stream = new ByteArrayOutputStream();
-
-                    boolean readAnything = false, readRc = false;
+                    // Most lines fit within the buffer, and so can be copied straight out of it. We only accumulate into a stream
+                    // when a line spans several reads.
+                    ByteArrayOutputStream stream = null;
                     while (true) {
-                        single.clear();
-                        int read = m_reader.read(single);
-                        if (read <= 0) {
-                            // Nothing else to read, and we saw no \n. Return the array. If we saw a \r, then add it
-                            // back.
-                            if (readRc) stream.write('\r');
-                            return readAnything ? new Object[]{stream.toByteArray()} : null;
+                        if (!m_buffer.hasRemaining() && fill() < 0) {
+                            // Nothing else to read, and we saw no \n. Return what we have so far.
+                            return stream == null ? null : new Object[]{stream.toByteArray()};
                         }
 
-                        readAnything = true;
+                        byte[] array = m_buffer.array();
+                        int start = m_buffer.position(), limit = m_buffer.limit();
+                        int newline = indexOf(array, start, limit, (byte) '\n');
+                        if (newline < 0) {
+                            if (stream == null) stream = new ByteArrayOutputStream(BUFFER_SIZE);
+                            stream.write(array, start, limit - start);
+                            m_buffer.position(limit);
+                            continue;
+                        }
 
-                        byte chr = single.get(0);
-                        if (chr == '\n') {
-                            if (withTrailing) {
-                                if (readRc) stream.write('\r');
-                                stream.write(chr);
-                            }
-                            return new Object[]{stream.toByteArray()};
+                        m_buffer.position(newline + 1);
+                        int end = withTrailing ? newline + 1 : newline;
+
+                        // We want to skip \r\n, but obviously need to include cases where \r is not followed by \n.
+                        // Note, this behaviour is non-standard compliant (strictly speaking we should have no
+                        // special logic for \r), but we preserve compatibility with EncodedReadableHandle and
+                        // previous behaviour of the io library.
+                        byte[] line;
+                        if (stream == null) {
+                            if (!withTrailing && end > start && array[end - 1] == '\r') end--;
+                            line = Arrays.copyOfRange(array, start, end);
                         } else {
-                            // We want to skip \r\n, but obviously need to include cases where \r is not followed by \n.
-                            // Note, this behaviour is non-standard compliant (strictly speaking we should have no
-                            // special logic for \r), but we preserve compatibility with EncodedReadableHandle and
-                            // previous behaviour of the io library.
-                            if (readRc) stream.write('\r');
-                            readRc = chr == '\r';
-                            if (!readRc) stream.write(chr);
+                            stream.write(array, start, end - start);
+                            line = stream.toByteArray();
+                            if (!withTrailing && line.length > 0 && line[line.length - 1] == '\r') {
+                                line = Arrays.copyOf(line, line.length - 1);
+                            }
                         }
+
+                        return new Object[]{line};
                     }
                 } catch (IOException e) {
                     return null;
@@ -182,9 +159,79 @@ public class BinaryReadableHandle extends HandleGeneric {
                 return null;
             case 4: // seek
                 checkOpen();
+                try {
+                    // Move the channel back to where the user thinks we are, discarding anything we read ahead.
+                    if (m_buffer.hasRemaining()) m_seekable.position(m_seekable.position() - m_buffer.remaining());
+                    m_buffer.clear().limit(0);
+                } catch (IOException e) {
+                    return null;
+                }
                 return handleSeek(m_seekable, args);
             default:
                 return null;
         }
     }
+
+    /**
+     * Read up to {@code count} bytes, stopping early only at the end of the channel.
+     *
+     * @param count The number of bytes to read.
+     * @return The bytes read, or {@code null} if we are at the end of the channel.
+     * @throws IOException If the channel could not be read from.
+     */
+    private byte[] read(int count) throws IOException {
+        // Avoid allocating huge arrays for large reads near the end of the file.
+        int capacity = count;
+        if (count > BUFFER_SIZE) {
+            capacity = m_seekable == null ? BUFFER_SIZE
+                : (int) Math.min(count, m_buffer.remaining() + Math.max(0, m_seekable.size() - m_seekable.position()));
+        }
+
+        byte[] result = new byte[capacity];
+        int read = 0;
+        while (read < count) {
+            if (!m_buffer.hasRemaining()) {
+                // Large reads skip the buffer, and go straight into the result.
+                if (result.length - read >= BUFFER_SIZE) {
+                    int direct = m_reader.read(ByteBuffer.wrap(result, read, result.length - read));
+                    if (direct <= 0) break;
+                    read += direct;
+                    continue;
+                }
+
+                if (fill() <= 0) break;
+            }
+
+            if (read == result.length) {
+                result = Arrays.copyOf(result, (int) Math.min(count, Math.max(BUFFER_SIZE, result.length * 2L)));
+            }
+
+            int chunk = Math.min(m_buffer.remaining(), result.length - read);
+            m_buffer.get(result, read, chunk);
+            read += chunk;
+        }
+
+        if (read == 0 && count > 0) return null;
+        return read == result.length ? result : Arrays.copyOf(result, read);
+    }
+
+    /**
+     * Refill the buffer from the channel. This should only be called once the buffer is empty.
+     *
+     * @return The number of bytes read, or {@code -1} at the end of the channel.
+     * @throws IOException If the channel could not be read from.
+     */
+    private int fill() throws IOException {
+        m_buffer.clear();
+        int read = m_reader.read(m_buffer);
+        m_buffer.flip();
+        return read;
+    }
+
+    private static int indexOf(byte[] array, int start, int end, byte value) {
+        for (int i = start; i < end; i++) {
+            if (array[i] == value) return i;
+        }
+        return -1;
+    }
 }
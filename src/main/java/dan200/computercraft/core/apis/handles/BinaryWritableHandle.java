@@ -7,9 +7,10 @@ package dan200.computercraft.core.apis.handles;
 
 import com.google.common.collect.ObjectArrays;
 import dan200.computercraft.api.lua.ArgumentHelper;
+import dan200.computercraft.api.lua.IArguments;
 import dan200.computercraft.api.lua.ILuaContext;
 import dan200.computercraft.api.lua.LuaException;
-import dan200.computercraft.shared.util.StringUtil;
+import dan200.computercraft.api.lua.ObjectArguments;
 
 import javax.annotation.Nonnull;
 import java.io.Closeable;
@@ -46,26 +47,36 @@ public class BinaryWritableHandle extends HandleGeneric {
 
     @Override
     public Object[] callMethod(@Nonnull ILuaContext context, int method, @Nonnull Object[] args) throws LuaException {
+        return callMethod(context, method, new ObjectArguments(args));
+    }
+
+    @Override
+    public Object[] callMethod(@Nonnull ILuaContext context, int method, @Nonnull IArguments args) throws LuaException {
         switch (method) {
             case 0: // write
+            {
                 checkOpen();
+
+                // Read the string's raw bytes, rather than decoding it to a String and encoding it again.
+                Object value = args.getTyped(0);
                 try {
-                    if (args.length > 0 && args[0] instanceof Number) {
-                        int number = ((Number) args[0]).intValue();
+                    if (value instanceof Number) {
+                        int number = ((Number) value).intValue();
                         single.clear();
                         single.put((byte) number);
                         single.flip();
 
                         m_writer.write(single);
-                    } else if (args.length > 0 && args[0] instanceof String value) {
-                        m_writer.write(ByteBuffer.wrap(StringUtil.encodeString(value)));
+                    } else if (value instanceof ByteBuffer) {
+                        m_writer.write(((ByteBuffer) value).duplicate());
                     } else {
-                        throw ArgumentHelper.badArgumentOf(0, "string or number", args.length > 0 ? args[0] : null);
+                        throw ArgumentHelper.badArgumentOf(0, "string or number", value);
                     }
                     return null;
                 } catch (IOException e) {
                     throw new LuaException(e.getMessage());
                 }
+            }
             case 1: // flush
                 checkOpen();
                 try {
@@ -82,7 +93,7 @@ public class BinaryWritableHandle extends HandleGeneric {
                 return null;
             case 3: // seek
                 checkOpen();
-                return handleSeek(m_seekable, args);
+                return handleSeek(m_seekable, args.getAll());
             default:
                 return null;
         }
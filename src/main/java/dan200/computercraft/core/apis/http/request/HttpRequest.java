@@ -31,7 +31,7 @@ import io.netty.handler.timeout.ReadTimeoutHandler;
 import java.net.InetSocketAddress;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.nio.charset.StandardCharsets;
+import java.nio.ByteBuffer;
 import java.util.Locale;
 import java.util.Map;
 import java.util.concurrent.Future;
@@ -61,17 +61,17 @@ public class HttpRequest extends Resource<HttpRequest> {
 
     final AtomicInteger redirects;
 
-    public HttpRequest(ResourceGroup<HttpRequest> limiter, IAPIEnvironment environment, String address, String postText,
+    public HttpRequest(ResourceGroup<HttpRequest> limiter, IAPIEnvironment environment, String address, ByteBuffer postBody,
                        HttpHeaders headers, boolean binary, boolean followRedirects) {
         super(limiter);
         this.environment = environment;
         this.address = address;
-        postBuffer = postText != null ? Unpooled.wrappedBuffer(postText.getBytes(StandardCharsets.UTF_8)) : Unpooled.buffer(0);
+        postBuffer = postBody != null ? Unpooled.wrappedBuffer(postBody) : Unpooled.buffer(0);
         this.headers = headers;
         this.binary = binary;
         redirects = new AtomicInteger(followRedirects ? MAX_REDIRECTS : 0);
 
-        if (postText != null) {
+        if (postBody != null) {
             if (!headers.contains(HttpHeaderNames.CONTENT_TYPE)) {
                 headers.set(HttpHeaderNames.CONTENT_TYPE, "application/x-www-form-urlencoded; charset=utf-8");
             }
@@ -8,11 +8,11 @@ package dan200.computercraft.core.apis.http.websocket;
 import com.google.common.base.Objects;
 import dan200.computercraft.ComputerCraft;
 import dan200.computercraft.api.lua.ArgumentHelper;
+import dan200.computercraft.api.lua.IArguments;
 import dan200.computercraft.api.lua.ILuaContext;
 import dan200.computercraft.api.lua.ILuaObject;
 import dan200.computercraft.api.lua.LuaException;
 import dan200.computercraft.core.tracking.TrackingField;
-import dan200.computercraft.shared.util.StringUtil;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.Channel;
 import io.netty.handler.codec.http.websocketx.BinaryWebSocketFrame;
@@ -21,6 +21,7 @@ import io.netty.handler.codec.http.websocketx.TextWebSocketFrame;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.io.Closeable;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 
 import static dan200.computercraft.api.lua.ArgumentHelper.optBoolean;
@@ -99,7 +100,7 @@ public class WebsocketHandle implements ILuaObject, Closeable {
 
                 Channel channel = this.channel;
                 if (channel != null) {
-                    channel.writeAndFlush(binary ? new BinaryWebSocketFrame(Unpooled.wrappedBuffer(StringUtil.encodeString(text))) :
+                    channel.writeAndFlush(binary ? new BinaryWebSocketFrame(Unpooled.wrappedBuffer(IArguments.encodeString(text))) :
                                           new TextWebSocketFrame(text));
                 }
 
@@ -115,6 +116,30 @@ public class WebsocketHandle implements ILuaObject, Closeable {
         }
     }
 
+    @Nullable
+    @Override
+    public Object[] callMethod(@Nonnull ILuaContext context, int method, @Nonnull IArguments arguments)
+        throws LuaException, InterruptedException {
+        // Binary messages can be sent straight from the Lua string's bytes. Everything else goes through the usual path.
+        Object message = method == 1 ? arguments.getTyped(0) : null;
+        if (!(message instanceof ByteBuffer) || !arguments.optBoolean(1, false)) {
+            return callMethod(context, method, arguments.getAll());
+        }
+
+        checkOpen();
+
+        ByteBuffer bytes = (ByteBuffer) message;
+        if (ComputerCraft.httpMaxWebsocketMessage != 0 && bytes.remaining() > ComputerCraft.httpMaxWebsocketMessage) {
+            throw new LuaException("Message is too large");
+        }
+
+        websocket.environment().addTrackingChange(TrackingField.WEBSOCKET_OUTGOING, bytes.remaining());
+
+        Channel channel = this.channel;
+        if (channel != null) channel.writeAndFlush(new BinaryWebSocketFrame(Unpooled.wrappedBuffer(bytes)));
+        return null;
+    }
+
     private void checkOpen() throws LuaException {
         if (closed) throw new LuaException("attempt to use a closed file");
     }
@@ -5,6 +5,7 @@
  */
 package dan200.computercraft.core.computer;
 
+import dan200.computercraft.api.lua.IArguments;
 import dan200.computercraft.api.lua.ILuaAPI;
 import dan200.computercraft.api.lua.ILuaContext;
 import dan200.computercraft.api.lua.LuaException;
@@ -58,4 +59,11 @@ final class ApiWrapper implements ILuaAPI {
         throws LuaException, InterruptedException {
         return delegate.callMethod(context, method, arguments);
     }
+
+    @Nullable
+    @Override
+    public Object[] callMethod(@Nonnull ILuaContext context, int method, @Nonnull IArguments arguments)
+        throws LuaException, InterruptedException {
+        return delegate.callMethod(context, method, arguments);
+    }
 }
@@ -102,6 +102,16 @@ public class Computer {
         executor.queueEvent(event, args);
     }
 
+    /**
+     * Queue an event which will be delivered before any other queued events, and is never dropped if the event queue is full.
+     *
+     * @param event The event's name
+     * @param args  The event's arguments
+     */
+    public void queuePriorityEvent(String event, Object[] args) {
+        executor.queuePriorityEvent(event, args);
+    }
+
     /**
      * Queue a task to be run on the main thread, using {@link MainThread}.
      *
@@ -112,6 +122,24 @@ public class Computer {
         return serverExecutor.enqueue(runnable);
     }
 
+    /**
+     * Queue several tasks to be run on the main thread. Either all of them are queued, or none are.
+     *
+     * @param runnables The tasks to run, in order.
+     * @return If the tasks were successfully queued (namely, whether there is space for all of them).
+     */
+    public boolean queueMainThread(Runnable[] runnables) {
+        return serverExecutor.enqueueAll(runnables);
+    }
+
+    /**
+     * Resume this computer's Lua machine if it is blocked waiting on an external task, such as one queued with
+     * {@link #queueMainThread(Runnable)}. Unlike {@link #queueEvent(String, Object[])}, this does not go through the event queue.
+     */
+    public void wake() {
+        executor.wake();
+    }
+
     public IWorkMonitor getMainThreadMonitor() {
         return serverExecutor;
     }
@@ -108,6 +108,13 @@ final class ComputerExecutor {
      */
     long vRuntimeStart;
 
+    /**
+     * The time at which this executor was last added to one of {@link ComputerThread}'s queues.
+     *
+     * @see ComputerThread
+     */
+    long queuedAt;
+
     /**
      * The command that {@link #work()} should execute on the computer thread.
      * One sets the command with {@link #queueStart()} and {@link #queueStop(boolean, boolean)}. Neither of these will queue a new event if
@@ -123,6 +130,15 @@ final class ComputerExecutor {
      */
     private final Queue<Event> eventQueue = new ArrayDeque<>(4);
 
+    /**
+     * Events which are delivered before anything in {@link #eventQueue}, and are never dropped when it is full. These are used to resume
+     * coroutines waiting on a main thread task, of which there is at most one per task in the {@link MainThreadExecutor}, so this is
+     * bounded by its task limit.
+     *
+     * @see #queuePriorityEvent(String, Object[])
+     */
+    private final Queue<Event> priorityQueue = new ArrayDeque<>(1);
+
     /**
      * Whether we interrupted an event and so should resume it instead of executing another task.
      *
@@ -131,6 +147,20 @@ final class ComputerExecutor {
      */
     private boolean interruptedEvent = false;
 
+    /**
+     * Whether the interrupted event is blocked on some external task (see {@link MachineResult#BLOCKED}), and so should not be resumed
+     * until we are woken with {@link #wake()}. This is only changed on the computer thread, while holding {@link #queueLock}.
+     */
+    private boolean blocked = false;
+
+    /**
+     * Whether {@link #wake()} has been called since the machine was last resumed.
+     *
+     * @see #queueLock
+     * @see #blocked
+     */
+    private boolean woken = false;
+
     /**
      * Whether this executor has been closed, and will no longer accept any incoming commands or events.
      *
@@ -262,6 +292,41 @@ final class ComputerExecutor {
         }
     }
 
+    /**
+     * Queue an event ahead of any others, ignoring the limit on the event queue's size. This should only be used for events which must
+     * never be lost, such as the wake-up for a coroutine waiting on a main thread task.
+     *
+     * @param event The event's name
+     * @param args  The event's arguments
+     */
+    void queuePriorityEvent(@Nonnull String event, @Nullable Object[] args) {
+        if (!isOn) return;
+
+        synchronized (queueLock) {
+            if (closed || command != null) return;
+
+            priorityQueue.offer(new Event(event, args));
+            enqueue();
+        }
+    }
+
+    /**
+     * Wake a machine which is {@link #blocked} waiting on an external task, resuming it as soon as possible.
+     *
+     * This bypasses the event queue entirely, so the machine will be resumed even if the queue is full. It is safe to call this before the
+     * machine has actually suspended, or if it was not blocked at all.
+     */
+    void wake() {
+        if (!isOn) return;
+
+        synchronized (queueLock) {
+            if (closed) return;
+
+            woken = true;
+            enqueue();
+        }
+    }
+
     /**
      * Add this executor to the {@link ComputerThread} if not already there.
      */
@@ -369,7 +434,9 @@ final class ComputerExecutor {
             computer.getTerminal().reset();
             interruptedEvent = false;
             synchronized (queueLock) {
+                blocked = woken = false;
                 eventQueue.clear();
+                priorityQueue.clear();
             }
 
             // Init filesystem
@@ -405,7 +472,9 @@ final class ComputerExecutor {
             isOn = false;
             interruptedEvent = false;
             synchronized (queueLock) {
+                blocked = woken = false;
                 eventQueue.clear();
+                priorityQueue.clear();
             }
 
             // Shutdown Lua machine
@@ -445,7 +514,9 @@ final class ComputerExecutor {
      * @return If we have more work to do.
      */
     boolean afterWork() {
-        if (interruptedEvent) {
+        // A machine blocked on an external task is treated as if it had yielded, so waiting on the main thread does not count towards
+        // the "too long without yielding" timeout.
+        if (interruptedEvent && !blocked) {
             timeout.pauseTimer();
         } else {
             timeout.stopTimer();
@@ -453,10 +524,16 @@ final class ComputerExecutor {
 
         Tracking.addTaskTiming(getComputer(), timeout.nanoCurrent());
 
-        if (interruptedEvent) return true;
+        if (interruptedEvent && !blocked) return true;
 
         synchronized (queueLock) {
-            if (eventQueue.isEmpty() && command == null) return onComputerQueue = false;
+            if (blocked) {
+                // We can't resume the machine until we've been woken, but should still process any commands (such as shutting down).
+                if (!woken && command == null) return onComputerQueue = false;
+                return true;
+            }
+
+            if (eventQueue.isEmpty() && priorityQueue.isEmpty() && command == null) return onComputerQueue = false;
             return true;
         }
     }
@@ -470,7 +547,13 @@ final class ComputerExecutor {
      * @see #eventQueue
      */
     void work() throws InterruptedException {
-        if (interruptedEvent) {
+        if (interruptedEvent && blocked) {
+            synchronized (queueLock) {
+                if (woken) blocked = woken = false;
+            }
+        }
+
+        if (interruptedEvent && !blocked) {
             interruptedEvent = false;
             if (machine != null) {
                 resumeMachine(null, null);
@@ -490,10 +573,15 @@ final class ComputerExecutor {
                     // We're not on and had no command, but we had work queued. This should never happen, so clear
                     // the event queue just in case.
                     eventQueue.clear();
+                    priorityQueue.clear();
                     return;
                 }
 
-                event = eventQueue.poll();
+                // Events must wait until a blocked machine has been resumed.
+                if (!blocked) {
+                    event = priorityQueue.poll();
+                    if (event == null) event = eventQueue.poll();
+                }
             }
         }
 
@@ -555,6 +643,11 @@ final class ComputerExecutor {
     private void resumeMachine(String event, Object[] args) throws InterruptedException {
         MachineResult result = machine.handleEvent(event, args);
         interruptedEvent = result.isPause();
+        if (result.isBlocked()) {
+            synchronized (queueLock) {
+                blocked = true;
+            }
+        }
         if (!result.isError()) return;
 
         displayFailure("Error running computer", result.getMessage());
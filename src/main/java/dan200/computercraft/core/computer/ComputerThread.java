@@ -10,10 +10,17 @@ import dan200.computercraft.shared.util.ThreadUtils;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
 import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.LockSupport;
@@ -37,6 +44,13 @@ import static dan200.computercraft.core.computer.TimeoutState.TIMEOUT;
  * how this is implemented.
  * In reality, it's unlikely that more than a few computers are waiting to execute at once, so this will not have much effect unless you
  * have a computer hogging execution time. However, it is pretty effective in those situations.
+ * By default, all runners share a single {@link RunQueue}. When {@link ComputerCraft#computerWorkStealing} is enabled, each runner is
+ * given its own queue instead: computers are placed onto the queue of an idle (or otherwise the least loaded) runner, and runners with no
+ * work will steal from their neighbours. All queues share the same {@link #minimumVirtualRuntime}, so a computer's priority is the same
+ * whichever queue it ends up on.
+ * The number of runners may be changed while running (see {@link #updateThreadCount()}). If {@link ComputerCraft#maxComputerThreads} is
+ * larger than {@link ComputerCraft#computer_threads}, the {@link Monitor} will also add runners when computers are waiting too long to be
+ * executed, and remove them again once they have been idle for a while.
  *
  * @see TimeoutState For how hard timeouts are handled.
  * @see ComputerExecutor For how computers actually do execution.
@@ -69,6 +83,22 @@ public final class ComputerThread {
      */
     private static final long LATENCY_MAX_TASKS = DEFAULT_LATENCY / DEFAULT_MIN_PERIOD;
 
+    /**
+     * How long an idle runner will wait on its own queue before trying to steal work from other runners again. This is only a fallback,
+     * as new work is preferentially given to idle runners.
+     */
+    private static final long STEAL_INTERVAL = TimeUnit.MILLISECONDS.toNanos(5);
+
+    /**
+     * How often the {@link Monitor} should consider adding or removing runners.
+     */
+    private static final long AUTOSCALE_INTERVAL = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * The number of consecutive {@link #AUTOSCALE_INTERVAL}s a runner must have been idle for before it is removed.
+     */
+    private static final int AUTOSCALE_IDLE_INTERVALS = 30;
+
     /**
      * Time difference between reporting crashed threads.
      *
@@ -94,32 +124,53 @@ public final class ComputerThread {
     /**
      * The array of current runners, and their owning threads.
      */
-    private static TaskRunner[] runners;
+    private static volatile TaskRunner[] runners;
+
+    /**
+     * The queues our runners pull from. This is either a single queue shared by every runner, or one queue per runner when work stealing
+     * is enabled.
+     */
+    private static volatile RunQueue[] queues;
+
+    /**
+     * Runners which have been removed from {@link #runners} but may still be finishing off their current task.
+     */
+    private static final List<TaskRunner> retiredRunners = new CopyOnWriteArrayList<>();
 
-    private static long latency;
-    private static long minPeriod;
+    private static volatile long latency;
+    private static volatile long minPeriod;
 
-    private static final ReentrantLock computerLock = new ReentrantLock();
+    private static final ReentrantLock monitorLock = new ReentrantLock();
+    private static final Condition monitorWakeup = monitorLock.newCondition();
 
-    private static final Condition hasWork = computerLock.newCondition();
+    /**
+     * The number of runners currently waiting for work, across all queues.
+     */
     private static final AtomicInteger idleWorkers = new AtomicInteger(0);
-    private static final Condition monitorWakeup = computerLock.newCondition();
 
     /**
-     * Active queues to execute.
+     * The number of executors waiting to run, across all queues.
      */
-    private static final TreeSet<ComputerExecutor> computerQueue = new TreeSet<>((a, b) -> {
+    private static final AtomicInteger queuedWork = new AtomicInteger(0);
+
+    private static final Comparator<ComputerExecutor> EXECUTOR_ORDER = (a, b) -> {
         if (a == b) return 0; // Should never happen, but let's be consistent here
 
         long at = a.virtualRuntime, bt = b.virtualRuntime;
         if (at == bt) return Integer.compare(a.hashCode(), b.hashCode());
         return at < bt ? -1 : 1;
-    });
+    };
+
+    /**
+     * The minimum {@link ComputerExecutor#virtualRuntime} time across all queues.
+     */
+    private static final AtomicLong minimumVirtualRuntime = new AtomicLong(0);
 
     /**
-     * The minimum {@link ComputerExecutor#virtualRuntime} time on the tree.
+     * The total time executors spent on a queue before being run, and the number of executors run, since the {@link Monitor} last checked.
      */
-    private static long minimumVirtualRuntime = 0;
+    private static final AtomicLong totalWaitTime = new AtomicLong(0);
+    private static final AtomicInteger totalWaitCount = new AtomicInteger(0);
 
     private static final ThreadFactory monitorFactory = ThreadUtils.factory("Computer-Monitor");
     private static final ThreadFactory runnerFactory = ThreadUtils.factory("Computer-Runner");
@@ -135,23 +186,24 @@ public final class ComputerThread {
             running = true;
 
             if (runners == null) {
-                // TODO: Update this on config reloads. Or possibly on world restarts?
-                runners = new TaskRunner[ComputerCraft.computer_threads];
-
-                // latency and minPeriod are scaled by 1 + floor(log2(threads)). We can afford to execute tasks for
-                // longer when executing on more than one thread.
-                long factor = 64 - Long.numberOfLeadingZeros(runners.length);
-                latency = DEFAULT_LATENCY * factor;
-                minPeriod = DEFAULT_MIN_PERIOD * factor;
+                TaskRunner[] newRunners = new TaskRunner[ComputerCraft.computer_threads];
+                RunQueue[] newQueues = new RunQueue[ComputerCraft.computerWorkStealing ? newRunners.length : 1];
+                for (int i = 0; i < newQueues.length; i++) newQueues[i] = new RunQueue();
+
+                updateLatency(newRunners.length);
+                queues = newQueues;
+                runners = newRunners;
             }
 
+            TaskRunner[] runners = ComputerThread.runners;
+            RunQueue[] queues = ComputerThread.queues;
             for (int i = 0; i < runners.length; i++) {
                 TaskRunner runner = runners[i];
                 if (runner == null || runner.owner == null || !runner.owner.isAlive()) {
                     // Mark the old runner as dead, just in case.
                     if (runner != null) runner.running = false;
                     // And start a new runner
-                    runnerFactory.newThread(runners[i] = new TaskRunner()).start();
+                    runnerFactory.newThread(runners[i] = new TaskRunner(queues[i % queues.length])).start();
                 }
             }
 
@@ -160,9 +212,104 @@ public final class ComputerThread {
     }
 
     /**
-     * Attempt to stop the computer thread. This interrupts each runner, and clears the task queue.
+     * Resize the thread pool to match the current config. This is called when the config is reloaded, and has no effect if the computer
+     * thread is not running.
+     * If autoscaling is enabled, we only clamp the current size within the configured bounds, otherwise we use
+     * {@link ComputerCraft#computer_threads} exactly.
+     */
+    public static void updateThreadCount() {
+        synchronized (threadLock) {
+            TaskRunner[] current = runners;
+            if (!running || current == null) return;
+
+            int min = ComputerCraft.computer_threads, max = Math.max(min, ComputerCraft.maxComputerThreads);
+            resize(Math.max(min, Math.min(max, current.length)));
+        }
+    }
+
+    /**
+     * Add or remove runners until we have exactly {@code count}. One must hold {@link #threadLock} when calling this.
+     * Removed runners are marked as no longer running, and will exit once they have finished their current task. When work stealing is
+     * enabled, their queues are retired and any computers on them are moved to the remaining queues.
+     *
+     * @param count The new number of runners.
+     */
+    private static void resize(int count) {
+        TaskRunner[] oldRunners = runners;
+        RunQueue[] oldQueues = queues;
+        if (oldRunners == null || oldQueues == null || count < 1 || count == oldRunners.length) return;
+
+        ComputerCraft.log.info("Changing number of computer threads from {} to {}", oldRunners.length, count);
+
+        TaskRunner[] newRunners = Arrays.copyOf(oldRunners, count);
+        RunQueue[] newQueues = oldQueues.length == 1 ? oldQueues : Arrays.copyOf(oldQueues, count);
+        for (int i = oldQueues.length; i < newQueues.length; i++) newQueues[i] = new RunQueue();
+
+        // Publish the new queues before starting any runners, so they can steal from (and be given work by) everyone else.
+        updateLatency(count);
+        queues = newQueues;
+        runners = newRunners;
+
+        for (int i = oldRunners.length; i < count; i++) {
+            runnerFactory.newThread(newRunners[i] = new TaskRunner(newQueues[i % newQueues.length])).start();
+        }
+
+        for (int i = count; i < oldRunners.length; i++) {
+            TaskRunner runner = oldRunners[i];
+            if (runner == null) continue;
+
+            runner.running = false;
+            retiredRunners.add(runner);
+        }
+
+        if (newQueues.length == 1) {
+            // Wake any waiting runners, so the retired ones notice they should stop.
+            RunQueue queue = newQueues[0];
+            queue.lock.lock();
+            try {
+                queue.hasWork.signalAll();
+            } finally {
+                queue.lock.unlock();
+            }
+        } else {
+            for (int i = count; i < oldQueues.length; i++) {
+                RunQueue queue = oldQueues[i];
+                List<ComputerExecutor> orphaned = new ArrayList<>();
+                queue.lock.lock();
+                try {
+                    queue.retired = true;
+                    ComputerExecutor executor;
+                    while ((executor = queue.poll()) != null) orphaned.add(executor);
+                    queue.minimumRuntime = Long.MAX_VALUE;
+                    queue.hasWork.signalAll();
+                } finally {
+                    queue.lock.unlock();
+                }
+
+                for (ComputerExecutor executor : orphaned) transfer(executor);
+            }
+        }
+    }
+
+    /**
+     * Scale {@link #latency} and {@link #minPeriod} for a given number of threads.
+     *
+     * @param threads The number of runners.
+     */
+    private static void updateLatency(int threads) {
+        // latency and minPeriod are scaled by 1 + floor(log2(threads)). We can afford to execute tasks for
+        // longer when executing on more than one thread.
+        long factor = 64 - Long.numberOfLeadingZeros(threads);
+        latency = DEFAULT_LATENCY * factor;
+        minPeriod = DEFAULT_MIN_PERIOD * factor;
+    }
+
+    /**
+     * Attempt to stop the computer thread. This interrupts each runner, and clears the task queue. The thread pool will be recreated
+     * (using the current config) the next time it is started.
      */
     public static void stop() {
+        RunQueue[] oldQueues;
         synchronized (threadLock) {
             running = false;
             if (runners != null) {
@@ -173,13 +320,14 @@ public final class ComputerThread {
                     if (runner.owner != null) runner.owner.interrupt();
                 }
             }
+
+            oldQueues = queues;
+            runners = null;
+            queues = null;
         }
 
-        computerLock.lock();
-        try {
-            computerQueue.clear();
-        } finally {
-            computerLock.unlock();
+        if (oldQueues != null) {
+            for (RunQueue queue : oldQueues) queue.clear();
         }
     }
 
@@ -191,16 +339,28 @@ public final class ComputerThread {
      * @param executor The computer to execute work on.
      */
     static void queue(@Nonnull ComputerExecutor executor) {
-        computerLock.lock();
+        RunQueue queue;
+        while (true) {
+            RunQueue[] queues = ComputerThread.queues;
+            if (queues == null) return;
+
+            queue = pickQueue(queues);
+            queue.lock.lock();
+
+            // If this queue was removed while we were picking it, try again.
+            if (!queue.retired) break;
+            queue.lock.unlock();
+        }
+
         try {
             if (executor.onComputerQueue) throw new IllegalStateException("Cannot queue already queued executor");
             executor.onComputerQueue = true;
 
-            updateRuntimes(null);
+            updateRuntimes(queue, null);
 
             // We're not currently on the queue, so update its current execution time to
             // ensure its at least as high as the minimum.
-            long newRuntime = minimumVirtualRuntime;
+            long newRuntime = minimumVirtualRuntime.get();
 
             if (executor.virtualRuntime == 0) {
                 // Slow down new computers a little bit.
@@ -214,38 +374,100 @@ public final class ComputerThread {
 
             boolean wasBusy = isBusy();
             // Add to the queue, and signal the workers.
-            computerQueue.add(executor);
-            hasWork.signal();
+            queue.add(executor);
 
             // If we've transitioned into a busy state, notify the monitor. This will cause it to sleep for scaledPeriod
             // instead of the longer wakeup duration.
-            if (!wasBusy && isBusy()) monitorWakeup.signal();
+            if (!wasBusy && isBusy()) signalMonitor();
         } finally {
-            computerLock.unlock();
+            queue.lock.unlock();
+        }
+    }
+
+    /**
+     * Move an executor which is already marked as being on the queue to another queue. This is used when the executor's existing queue
+     * has been retired, or another runner is able to execute it sooner.
+     *
+     * @param executor The executor to move.
+     */
+    private static void transfer(ComputerExecutor executor) {
+        while (true) {
+            RunQueue[] queues = ComputerThread.queues;
+            if (queues == null) return;
+
+            RunQueue queue = pickQueue(queues);
+            queue.lock.lock();
+            try {
+                if (queue.retired) continue;
+                queue.add(executor);
+                return;
+            } finally {
+                queue.lock.unlock();
+            }
         }
     }
 
+    /**
+     * Pick the queue a newly queued computer should be placed on.
+     * We prefer queues which have a runner waiting on them, as the computer can then be executed immediately. Otherwise we pick the shorter
+     * of two random queues, which is cheap and keeps queues roughly balanced.
+     *
+     * @param queues The current set of queues.
+     * @return The queue to add this computer to.
+     */
+    private static RunQueue pickQueue(RunQueue[] queues) {
+        if (queues.length == 1) return queues[0];
+
+        RunQueue idle = findIdleQueue(queues, null);
+        if (idle != null) return idle;
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        RunQueue first = queues[random.nextInt(queues.length)], second = queues[random.nextInt(queues.length)];
+        return first.size <= second.size ? first : second;
+    }
+
+    /**
+     * Find a queue which has a runner waiting on it.
+     *
+     * @param queues  The current set of queues.
+     * @param exclude A queue to skip, such as the current runner's own queue.
+     * @return A queue with an idle runner, or {@code null} if all runners are busy.
+     */
+    @Nullable
+    private static RunQueue findIdleQueue(RunQueue[] queues, @Nullable RunQueue exclude) {
+        if (queues.length == 1 || idleWorkers.get() == 0) return null;
+
+        int start = ThreadLocalRandom.current().nextInt(queues.length);
+        for (int i = 0; i < queues.length; i++) {
+            RunQueue queue = queues[(start + i) % queues.length];
+            if (queue != exclude && queue.idle.get() > 0) return queue;
+        }
+
+        return null;
+    }
 
     /**
-     * Update the {@link ComputerExecutor#virtualRuntime}s of all running tasks, and then update the {@link #minimumVirtualRuntime} based on
-     * the current tasks.
-     * This is called before queueing tasks, to ensure that {@link #minimumVirtualRuntime} is up-to-date.
+     * Update the {@link ComputerExecutor#virtualRuntime}s of all running tasks on a queue, and then update the
+     * {@link #minimumVirtualRuntime} based on the current tasks.
+     * This is called before queueing tasks, to ensure that {@link #minimumVirtualRuntime} is up-to-date. One must be holding the queue's
+     * lock when calling this.
      *
+     * @param queue   The queue whose tasks we are updating.
      * @param current The machine which we updating runtimes from.
      */
-    private static void updateRuntimes(@Nullable ComputerExecutor current) {
+    private static void updateRuntimes(@Nonnull RunQueue queue, @Nullable ComputerExecutor current) {
         long minRuntime = Long.MAX_VALUE;
 
         // If we've a task on the queue, use that as our base time.
-        if (!computerQueue.isEmpty()) minRuntime = computerQueue.first().virtualRuntime;
+        if (!queue.executors.isEmpty()) minRuntime = queue.executors.first().virtualRuntime;
 
         // Update all the currently executing tasks
         long now = System.nanoTime();
-        int tasks = 1 + computerQueue.size();
+        int tasks = 1 + queue.executors.size();
         TaskRunner[] currentRunners = runners;
         if (currentRunners != null) {
             for (TaskRunner runner : currentRunners) {
-                if (runner == null) continue;
+                if (runner == null || runner.queue != queue) continue;
                 ComputerExecutor executor = runner.currentExecutor.get();
                 if (executor == null) continue;
 
@@ -261,9 +483,15 @@ public final class ComputerThread {
             minRuntime = Math.min(minRuntime, current.virtualRuntime += (now - current.vRuntimeStart) / tasks);
         }
 
-        if (minRuntime > minimumVirtualRuntime && minRuntime < Long.MAX_VALUE) {
-            minimumVirtualRuntime = minRuntime;
+        queue.minimumRuntime = minRuntime;
+
+        // The global minimum is the smallest runtime of any queue which currently has work. We only ever move it forward.
+        RunQueue[] currentQueues = queues;
+        if (currentQueues != null && currentQueues.length > 1) {
+            for (RunQueue other : currentQueues) minRuntime = Math.min(minRuntime, other.minimumRuntime);
         }
+
+        if (minRuntime < Long.MAX_VALUE) minimumVirtualRuntime.accumulateAndGet(minRuntime, Math::max);
     }
 
     /**
@@ -281,19 +509,28 @@ public final class ComputerThread {
                 executor.getComputer().getID(), runner.owner.getName(), currentThread == null ? "nothing" : currentThread.getName());
         }
 
-        computerLock.lock();
+        RunQueue queue = runner.queue;
+        queue.lock.lock();
         try {
-            updateRuntimes(executor);
+            updateRuntimes(queue, executor);
 
             // If we've no more tasks, just return.
             if (!executor.afterWork()) return;
 
-            // Otherwise, add to the queue, and signal any waiting workers.
-            computerQueue.add(executor);
-            hasWork.signal();
+            // If we've other work to do and another runner is sat idle, hand the executor over to them. Otherwise, add to our
+            // queue, and signal any waiting workers.
+            if (!queue.retired) {
+                RunQueue[] queues = ComputerThread.queues;
+                if (queue.size == 0 || queues == null || findIdleQueue(queues, queue) == null) {
+                    queue.add(executor);
+                    return;
+                }
+            }
         } finally {
-            computerLock.unlock();
+            queue.lock.unlock();
         }
+
+        transfer(executor);
     }
 
     /**
@@ -306,7 +543,8 @@ public final class ComputerThread {
      */
     static long scaledPeriod() {
         // +1 to include the current task
-        int count = 1 + computerQueue.size();
+        RunQueue[] queues = ComputerThread.queues;
+        int count = 1 + queuedWork.get() / (queues == null ? 1 : queues.length);
         return count < LATENCY_MAX_TASKS ? latency / count : minPeriod;
     }
 
@@ -316,7 +554,7 @@ public final class ComputerThread {
      * @return If we have work queued up.
      */
     static boolean hasPendingWork() {
-        return !computerQueue.isEmpty();
+        return queuedWork.get() > 0;
     }
 
     /**
@@ -325,7 +563,83 @@ public final class ComputerThread {
      * @return If the computer threads are busy.
      */
     private static boolean isBusy() {
-        return computerQueue.size() > idleWorkers.get();
+        return queuedWork.get() > idleWorkers.get();
+    }
+
+    private static void signalMonitor() {
+        monitorLock.lock();
+        try {
+            monitorWakeup.signal();
+        } finally {
+            monitorLock.unlock();
+        }
+    }
+
+    /**
+     * A queue of executors, ordered by their {@link ComputerExecutor#virtualRuntime}.
+     */
+    private static final class RunQueue {
+
+        final ReentrantLock lock = new ReentrantLock();
+        final Condition hasWork = lock.newCondition();
+
+        /**
+         * The number of runners currently waiting on this queue.
+         */
+        final AtomicInteger idle = new AtomicInteger(0);
+
+        /**
+         * Active executors to execute.
+         */
+        final TreeSet<ComputerExecutor> executors = new TreeSet<>(EXECUTOR_ORDER);
+
+        /**
+         * The size of {@link #executors}, readable without holding the lock.
+         */
+        volatile int size;
+
+        /**
+         * The smallest virtual runtime of any queued or running executor on this queue, or {@link Long#MAX_VALUE} if it has no work.
+         */
+        volatile long minimumRuntime = Long.MAX_VALUE;
+
+        /**
+         * Whether this queue has been removed from {@link #queues}. Retired queues should not have any more work added to them.
+         */
+        volatile boolean retired;
+
+        void add(ComputerExecutor executor) {
+            executor.queuedAt = System.nanoTime();
+            executors.add(executor);
+            size = executors.size();
+            queuedWork.incrementAndGet();
+            hasWork.signal();
+        }
+
+        @Nullable
+        ComputerExecutor poll() {
+            ComputerExecutor executor = executors.pollFirst();
+            if (executor == null) return null;
+
+            size = executors.size();
+            queuedWork.decrementAndGet();
+
+            totalWaitTime.addAndGet(System.nanoTime() - executor.queuedAt);
+            totalWaitCount.incrementAndGet();
+            return executor;
+        }
+
+        void clear() {
+            lock.lock();
+            try {
+                queuedWork.addAndGet(-executors.size());
+                executors.clear();
+                size = 0;
+                minimumRuntime = Long.MAX_VALUE;
+            } finally {
+                lock.unlock();
+            }
+        }
     }
 
     /**
@@ -335,10 +649,14 @@ public final class ComputerThread {
      */
     private static final class Monitor implements Runnable {
 
+        private long lastAutoscale = System.nanoTime();
+        private int minIdle = Integer.MAX_VALUE;
+        private int idleIntervals = 0;
+
         @Override
         public void run() {
             while (true) {
-                computerLock.lock();
+                monitorLock.lock();
                 try {
                     // If we've got more work than we have capacity for it, then we'll need to pause a task soon, so
                     // sleep for a single pause duration. Otherwise we only need to wake up to set the soft/hard abort
@@ -348,14 +666,19 @@ public final class ComputerThread {
                     ComputerCraft.log.error("Monitor thread interrupted. Computers may behave very badly!", e);
                     break;
                 } finally {
-                    computerLock.unlock();
+                    monitorLock.unlock();
                 }
 
                 checkRunners();
+                autoscale();
             }
         }
 
         private static void checkRunners() {
+            for (TaskRunner runner : retiredRunners) {
+                if (runner.owner == null || !runner.owner.isAlive() || checkRunner(runner)) retiredRunners.remove(runner);
+            }
+
             TaskRunner[] currentRunners = ComputerThread.runners;
             if (currentRunners == null) return;
 
@@ -369,64 +692,127 @@ public final class ComputerThread {
                     ComputerCraft.log.warn("Previous runner ({}) has crashed, restarting!",
                                            runner != null && runner.owner != null ? runner.owner.getName() : runner);
                     if (runner != null) runner.running = false;
-                    runnerFactory.newThread(runners[i] = new TaskRunner()).start();
+                    synchronized (threadLock) {
+                        RunQueue[] queues = ComputerThread.queues;
+                        if (running && runners == currentRunners && queues != null) {
+                            runnerFactory.newThread(currentRunners[i] = new TaskRunner(queues[i % queues.length])).start();
+                        }
+                    }
                 }
 
-                // If the runner has no work, skip
-                ComputerExecutor executor = runner.currentExecutor.get();
-                if (executor == null) continue;
+                if (runner == null || !checkRunner(runner)) continue;
 
-                // Refresh the timeout state. Will set the pause/soft timeout flags as appropriate.
-                executor.timeout.refresh();
+                synchronized (threadLock) {
+                    RunQueue[] queues = ComputerThread.queues;
+                    if (running && runners == currentRunners && currentRunners[i] == runner && queues != null) {
+                        runnerFactory.newThread(currentRunners[i] = new TaskRunner(runner.queue)).start();
+                    }
+                }
+            }
+        }
 
-                // If we're still within normal execution times (TIMEOUT) or soft abort (ABORT_TIMEOUT),
-                // then we can let the Lua machine do its work.
-                long afterStart = executor.timeout.nanoCumulative();
-                long afterHardAbort = afterStart - TIMEOUT - ABORT_TIMEOUT;
-                if (afterHardAbort < 0) continue;
+        /**
+         * Check whether a runner's current task has exceeded its time limits, aborting it if so.
+         *
+         * @param runner The runner to check.
+         * @return If the runner has been killed, and so should be replaced.
+         */
+        private static boolean checkRunner(TaskRunner runner) {
+            // If the runner has no work, skip
+            ComputerExecutor executor = runner.currentExecutor.get();
+            if (executor == null) return false;
+
+            // Refresh the timeout state. Will set the pause/soft timeout flags as appropriate.
+            executor.timeout.refresh();
+
+            // If we're still within normal execution times (TIMEOUT) or soft abort (ABORT_TIMEOUT),
+            // then we can let the Lua machine do its work.
+            long afterStart = executor.timeout.nanoCumulative();
+            long afterHardAbort = afterStart - TIMEOUT - ABORT_TIMEOUT;
+            if (afterHardAbort < 0) return false;
+
+            // Set the hard abort flag.
+            executor.timeout.hardAbort();
+            executor.abort();
+
+            if (afterHardAbort >= ABORT_TIMEOUT * 2) {
+                // If we've hard aborted and interrupted, and we're still not dead, then mark the runner
+                // as dead, finish off the task, and spawn a new runner.
+                runner.reportTimeout(executor, afterStart);
+                runner.running = false;
+                runner.owner.interrupt();
+
+                ComputerExecutor thisExecutor = runner.currentExecutor.getAndSet(null);
+                if (thisExecutor != null) afterWork(runner, executor);
+                return true;
+            } else if (afterHardAbort >= ABORT_TIMEOUT) {
+                // If we've hard aborted but we're still not dead, dump the stack trace and interrupt
+                // the task.
+                runner.reportTimeout(executor, afterStart);
+                runner.owner.interrupt();
+            }
 
-                // Set the hard abort flag.
-                executor.timeout.hardAbort();
-                executor.abort();
+            return false;
+        }
 
-                if (afterHardAbort >= ABORT_TIMEOUT * 2) {
-                    // If we've hard aborted and interrupted, and we're still not dead, then mark the runner
-                    // as dead, finish off the task, and spawn a new runner.
-                    runner.reportTimeout(executor, afterStart);
-                    runner.running = false;
-                    runner.owner.interrupt();
+        /**
+         * Grow or shrink the thread pool, if {@link ComputerCraft#maxComputerThreads} allows it.
+         * Every {@link #AUTOSCALE_INTERVAL}, we add a runner if executors waited longer than the target {@link #latency} on average to be
+         * run. If at least one runner has been idle every time we've checked for {@link #AUTOSCALE_IDLE_INTERVALS}, we remove one instead.
+         */
+        private void autoscale() {
+            int min = ComputerCraft.computer_threads, max = ComputerCraft.maxComputerThreads;
+            if (max <= min) return;
 
-                    ComputerExecutor thisExecutor = runner.currentExecutor.getAndSet(null);
-                    if (thisExecutor != null) afterWork(runner, executor);
+            minIdle = Math.min(minIdle, idleWorkers.get());
 
-                    synchronized (threadLock) {
-                        if (running && runners.length > i && runners[i] == runner) {
-                            runnerFactory.newThread(currentRunners[i] = new TaskRunner()).start();
-                        }
+            long now = System.nanoTime();
+            if (now - lastAutoscale < AUTOSCALE_INTERVAL) return;
+            lastAutoscale = now;
+
+            int waitCount = totalWaitCount.getAndSet(0);
+            long waitTime = totalWaitTime.getAndSet(0);
+            long averageWait = waitCount == 0 ? 0 : waitTime / waitCount;
+            boolean idle = minIdle > 0;
+            minIdle = Integer.MAX_VALUE;
+
+            synchronized (threadLock) {
+                TaskRunner[] current = runners;
+                if (!running || current == null) return;
+
+                if (averageWait > latency && current.length < max) {
+                    idleIntervals = 0;
+                    resize(current.length + 1);
+                } else if (idle && current.length > min) {
+                    if (++idleIntervals >= AUTOSCALE_IDLE_INTERVALS) {
+                        idleIntervals = 0;
+                        resize(current.length - 1);
                     }
-                } else if (afterHardAbort >= ABORT_TIMEOUT) {
-                    // If we've hard aborted but we're still not dead, dump the stack trace and interrupt
-                    // the task.
-                    runner.reportTimeout(executor, afterStart);
-                    runner.owner.interrupt();
+                } else {
+                    idleIntervals = 0;
                 }
             }
         }
     }
 
     /**
-     * Pulls tasks from the {@link #computerQueue} queue and runs them.
+     * Pulls tasks from its {@link RunQueue} (or steals them from another runner's queue) and runs them.
      * This is responsible for running the {@link ComputerExecutor#work()}, {@link ComputerExecutor#beforeWork()} and
      * {@link ComputerExecutor#afterWork()} functions. Everything else is either handled by the executor, timeout state or monitor.
      */
     private static final class TaskRunner implements Runnable {
 
+        final RunQueue queue;
         Thread owner;
         long lastReport = Long.MIN_VALUE;
         volatile boolean running = true;
 
         final AtomicReference<ComputerExecutor> currentExecutor = new AtomicReference<>();
 
+        TaskRunner(RunQueue queue) {
+            this.queue = queue;
+        }
+
         @Override
         public void run() {
             owner = Thread.currentThread();
@@ -436,22 +822,16 @@ public final class ComputerThread {
                 // Wait for an active queue to execute
                 ComputerExecutor executor;
                 try {
-                    computerLock.lockInterruptibly();
-                    try {
-                        idleWorkers.incrementAndGet();
-                        while (computerQueue.isEmpty()) hasWork.await();
-                        executor = computerQueue.pollFirst();
-                        assert executor != null : "hasWork should ensure we never receive null work";
-                    } finally {
-                        computerLock.unlock();
-                        idleWorkers.decrementAndGet();
-                    }
+                    executor = take();
                 } catch (InterruptedException ignored) {
                     // If we've been interrupted, our running flag has probably been reset, so we'll
                     // just jump into the next iteration.
                     continue;
                 }
 
+                // We've been removed from the pool.
+                if (executor == null) continue;
+
                 // If we're trying to executing some task on this computer while someone else is doing work, something
                 // is seriously wrong.
                 while (!executor.executingThread.compareAndSet(null, owner)) {
@@ -483,6 +863,82 @@ public final class ComputerThread {
             }
         }
 
+        /**
+         * Wait for an executor to become available, either on our own queue or by stealing one from another runner.
+         *
+         * @return The executor to run, or {@code null} if this runner is no longer running.
+         * @throws InterruptedException If this runner was interrupted while waiting.
+         */
+        @Nullable
+        private ComputerExecutor take() throws InterruptedException {
+            RunQueue queue = this.queue;
+            while (true) {
+                if (!running || queue.retired) return null;
+
+                queue.lock.lockInterruptibly();
+                try {
+                    ComputerExecutor executor = queue.poll();
+                    if (executor != null) return executor;
+
+                    // Mark ourselves as idle before looking elsewhere, so any new work is sent our way.
+                    queue.idle.incrementAndGet();
+                    idleWorkers.incrementAndGet();
+                    if (queue.executors.isEmpty() && queue.idle.get() == 1) queue.minimumRuntime = Long.MAX_VALUE;
+                } finally {
+                    queue.lock.unlock();
+                }
+
+                try {
+                    ComputerExecutor stolen = steal();
+                    if (stolen != null) return stolen;
+
+                    queue.lock.lockInterruptibly();
+                    try {
+                        if (queue.executors.isEmpty() && running) {
+                            RunQueue[] queues = ComputerThread.queues;
+                            if (queues == null || queues.length == 1) {
+                                queue.hasWork.await();
+                            } else {
+                                queue.hasWork.awaitNanos(STEAL_INTERVAL);
+                            }
+                        }
+                    } finally {
+                        queue.lock.unlock();
+                    }
+                } finally {
+                    queue.idle.decrementAndGet();
+                    idleWorkers.decrementAndGet();
+                }
+            }
+        }
+
+        /**
+         * Attempt to take the highest priority executor from another runner's queue. We never block on another queue's lock, instead
+         * skipping it if it is contended.
+         *
+         * @return The stolen executor, or {@code null} if there was nothing to steal.
+         */
+        @Nullable
+        private ComputerExecutor steal() {
+            RunQueue[] queues = ComputerThread.queues;
+            if (queues == null || queues.length == 1) return null;
+
+            int start = ThreadLocalRandom.current().nextInt(queues.length);
+            for (int i = 0; i < queues.length; i++) {
+                RunQueue victim = queues[(start + i) % queues.length];
+                if (victim == queue || victim.size == 0 || !victim.lock.tryLock()) continue;
+
+                try {
+                    ComputerExecutor executor = victim.poll();
+                    if (executor != null) return executor;
+                } finally {
+                    victim.lock.unlock();
+                }
+            }
+
+            return null;
+        }
+
         private void reportTimeout(ComputerExecutor executor, long time) {
             if (!ComputerCraft.logPeripheralErrors) return;
 
@@ -13,6 +13,7 @@ import net.minecraft.tileentity.TileEntity;
 
 import javax.annotation.Nonnull;
 import java.util.ArrayDeque;
+import java.util.Collections;
 import java.util.Queue;
 import java.util.concurrent.TimeUnit;
 
@@ -117,6 +118,21 @@ final class MainThreadExecutor implements IWorkMonitor {
         }
     }
 
+    /**
+     * Push several tasks onto this executor's queue. Either every task is enqueued, or (if there is not space for all of them) none are.
+     *
+     * @param runnables The tasks to run on the main thread, in order.
+     * @return Whether the tasks were enqueued.
+     */
+    boolean enqueueAll(Runnable[] runnables) {
+        synchronized (queueLock) {
+            if (tasks.size() + runnables.length > MAX_TASKS) return false;
+            Collections.addAll(tasks, runnables);
+            if (!onQueue && state == State.COOL) MainThread.queue(this, true);
+            return true;
+        }
+    }
+
     void execute() {
         if (state != State.COOL) return;
 
@@ -5,25 +5,53 @@
  */
 package dan200.computercraft.core.filesystem;
 
+import com.google.common.collect.MapMaker;
 import com.google.common.collect.Sets;
 import dan200.computercraft.ComputerCraft;
 import dan200.computercraft.api.filesystem.FileOperationException;
 import dan200.computercraft.api.filesystem.IWritableMount;
+import dan200.computercraft.shared.util.ThreadUtils;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.io.*;
 import java.nio.ByteBuffer;
 import java.nio.channels.*;
 import java.nio.file.*;
 import java.nio.file.attribute.BasicFileAttributes;
-import java.util.Collections;
-import java.util.List;
-import java.util.OptionalLong;
-import java.util.Set;
-
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * A mount backed by a directory on disk.
+ *
+ * Writable mounts keep track of how much space they use. Measuring this requires walking the whole directory, so instead we persist it
+ * in a "usage ledger" next to the mount's directory (see {@link #saveLedgers()}), and only walk the directory again when the ledger is
+ * missing, or the mount was modified after the ledger was last saved.
+ *
+ * The same directory may be mounted several times (for instance, when a floppy disk is ejected and inserted again), so the used space
+ * and ledger state are shared between every mount of a directory (see {@link Usage}).
+ */
 public class FileMount implements IWritableMount {
 
     private static final int MINIMUM_FILE_SIZE = 500;
+
+    private static final int LEDGER_VERSION = 1;
+    private static final ExecutorService measureExecutor = Executors.newSingleThreadExecutor(ThreadUtils.factory("FileMount-Measure"));
+
+    /**
+     * The usage of every writable directory which is currently mounted, keyed by its canonical path.
+     */
+    private static final Map<File, Usage> usages = new MapMaker().weakValues().makeMap();
+
+    /**
+     * Directories whose usage has changed since their ledger was last saved.
+     */
+    private static final Set<Usage> unsavedUsages = new HashSet<>();
+
     private static final Set<OpenOption> READ_OPTIONS = Collections.singleton(StandardOpenOption.READ);
     private static final Set<OpenOption> WRITE_OPTIONS = Sets.newHashSet(StandardOpenOption.WRITE, StandardOpenOption.CREATE,
                                                                          StandardOpenOption.TRUNCATE_EXISTING);
@@ -52,9 +80,12 @@ public class FileMount implements IWritableMount {
                 long newBytes = -m_ignoredBytesLeft;
                 m_ignoredBytesLeft = 0;
 
-                long bytesLeft = m_capacity - m_usedSpace;
-                if (newBytes > bytesLeft) throw new IOException("Out of space");
-                m_usedSpace += newBytes;
+                synchronized (m_usage) {
+                    m_usage.beginChange();
+                    long bytesLeft = m_capacity - m_usage.used;
+                    if (newBytes > bytesLeft) throw new IOException("Out of space");
+                    m_usage.used += newBytes;
+                }
             }
         }
 
@@ -119,12 +150,14 @@ public class FileMount implements IWritableMount {
 
     private final File m_rootPath;
     private final long m_capacity;
-    private long m_usedSpace;
+    private final Usage m_usage;
 
     public FileMount(File rootPath, long capacity) {
         m_rootPath = rootPath;
         m_capacity = capacity + MINIMUM_FILE_SIZE;
-        m_usedSpace = created() ? measureUsedSpace(m_rootPath) : MINIMUM_FILE_SIZE;
+
+        // Read-only mounts never need to know their size, so only writable ones have a ledger.
+        m_usage = capacity > 0 ? Usage.get(rootPath) : new Usage(rootPath, null);
     }
 
     // IMount implementation
@@ -225,14 +258,17 @@ public class FileMount implements IWritableMount {
             parent = parent.getParentFile();
         }
 
-        if (getRemainingSpace() < (long) dirsToCreate * MINIMUM_FILE_SIZE) {
-            throw new FileOperationException(path, "Out of space");
-        }
+        synchronized (m_usage) {
+            m_usage.beginChange();
+            if (getRemainingSpace() < (long) dirsToCreate * MINIMUM_FILE_SIZE) {
+                throw new FileOperationException(path, "Out of space");
+            }
 
-        if (file.mkdirs()) {
-            m_usedSpace += (long) dirsToCreate * MINIMUM_FILE_SIZE;
-        } else {
-            throw new FileOperationException(path, "Access denied");
+            if (file.mkdirs()) {
+                m_usage.used += (long) dirsToCreate * MINIMUM_FILE_SIZE;
+            } else {
+                throw new FileOperationException(path, "Access denied");
+            }
         }
     }
 
@@ -242,7 +278,12 @@ public class FileMount implements IWritableMount {
 
         if (created()) {
             File file = getRealPath(path);
-            if (file.exists()) deleteRecursively(file);
+            if (file.exists()) {
+                synchronized (m_usage) {
+                    m_usage.beginChange();
+                    deleteRecursively(file);
+                }
+            }
         }
     }
 
@@ -259,7 +300,7 @@ public class FileMount implements IWritableMount {
         long fileSize = file.isDirectory() ? 0 : file.length();
         boolean success = file.delete();
         if (success) {
-            m_usedSpace -= Math.max(MINIMUM_FILE_SIZE, fileSize);
+            m_usage.used -= Math.max(MINIMUM_FILE_SIZE, fileSize);
         } else {
             throw new IOException("Access denied");
         }
@@ -286,12 +327,15 @@ public class FileMount implements IWritableMount {
         File file = getRealPath(path);
         if (file.exists() && file.isDirectory()) throw new FileOperationException(path, "Cannot write to directory");
 
-        if (file.exists()) {
-            m_usedSpace -= Math.max(file.length(), MINIMUM_FILE_SIZE);
-        } else if (getRemainingSpace() < MINIMUM_FILE_SIZE) {
-            throw new FileOperationException(path, "Out of space");
+        synchronized (m_usage) {
+            m_usage.beginChange();
+            if (file.exists()) {
+                m_usage.used -= Math.max(file.length(), MINIMUM_FILE_SIZE);
+            } else if (getRemainingSpace() < MINIMUM_FILE_SIZE) {
+                throw new FileOperationException(path, "Out of space");
+            }
+            m_usage.used += MINIMUM_FILE_SIZE;
         }
-        m_usedSpace += MINIMUM_FILE_SIZE;
 
         return new SeekableCountingChannel(Files.newByteChannel(file.toPath(), WRITE_OPTIONS), MINIMUM_FILE_SIZE);
     }
@@ -314,7 +358,10 @@ public class FileMount implements IWritableMount {
 
     @Override
     public long getRemainingSpace() {
-        return Math.max(m_capacity - m_usedSpace, 0);
+        synchronized (m_usage) {
+            m_usage.ensureKnown();
+            return Math.max(m_capacity - m_usage.used, 0);
+        }
     }
 
     @Nonnull
@@ -340,6 +387,201 @@ public class FileMount implements IWritableMount {
         }
     }
 
+    /**
+     * Save the usage ledger of every directory which has changed since it was last saved. This should be called periodically (such as
+     * when the world is saved) and when the server stops.
+     */
+    public static void saveLedgers() {
+        List<Usage> unsaved;
+        synchronized (unsavedUsages) {
+            unsaved = new ArrayList<>(unsavedUsages);
+            unsavedUsages.clear();
+        }
+
+        for (Usage usage : unsaved) {
+            if (!usage.save()) usage.markUnsaved();
+        }
+    }
+
+    /**
+     * Save every usage ledger, and forget the usage of any directories which are still mounted. This should be called when the
+     * server stops, so the ledgers are read again should the world be loaded a second time.
+     */
+    public static void reset() {
+        saveLedgers();
+        usages.clear();
+    }
+
+    /**
+     * Read a usage ledger.
+     *
+     * @param path The ledger to read.
+     * @return The used space, or {@code -1} if the ledger is missing, invalid or dirty.
+     */
+    private static long readLedger(File path) {
+        if (!path.isFile()) return -1;
+
+        try (DataInputStream stream = new DataInputStream(new BufferedInputStream(new FileInputStream(path)))) {
+            if (stream.readInt() != LEDGER_VERSION) return -1;
+            return stream.readLong();
+        } catch (IOException e) {
+            ComputerCraft.log.warn("Cannot read disk usage from {}", path, e);
+            return -1;
+        }
+    }
+
+    /**
+     * Write a usage ledger.
+     *
+     * @param path The ledger to write.
+     * @param used The used space, or {@code -1} to mark the ledger as dirty.
+     * @return Whether the ledger was written.
+     */
+    private static boolean writeLedger(File path, long used) {
+        File temp = new File(path.getParentFile(), path.getName() + ".tmp");
+        try {
+            try (DataOutputStream stream = new DataOutputStream(new FileOutputStream(temp))) {
+                stream.writeInt(LEDGER_VERSION);
+                stream.writeLong(used);
+            }
+            Files.move(temp.toPath(), path.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            return true;
+        } catch (IOException e) {
+            ComputerCraft.log.error("Cannot write disk usage to {}", path, e);
+
+            // A stale ledger is worse than none at all.
+            if (used < 0 && path.exists() && !path.delete()) {
+                ComputerCraft.log.error("Cannot delete stale disk usage {}", path);
+            }
+            return false;
+        }
+    }
+
+    /**
+     * The space used by a directory, and the state of its usage ledger. This is shared between every mount of the directory, so that
+     * one mount cannot save a ledger which is missing another's changes.
+     */
+    private static final class Usage {
+
+        private final File root;
+        @Nullable
+        private final File ledger;
+
+        long used;
+        private boolean known;
+        private Future<Long> measurement;
+
+        /**
+         * Whether the ledger on disk may claim to be up-to-date. If so, the ledger must be marked as dirty before the directory is
+         * modified.
+         */
+        private boolean ledgerClean;
+
+        Usage(File root, @Nullable File ledger) {
+            this.root = root;
+            this.ledger = ledger;
+
+            if (!root.exists()) {
+                used = MINIMUM_FILE_SIZE;
+                known = true;
+
+                // The directory may have been deleted, leaving an old ledger behind.
+                ledgerClean = ledger != null && ledger.exists();
+            } else if (ledger != null) {
+                long saved = readLedger(ledger);
+                if (saved >= 0) {
+                    used = saved;
+                    known = ledgerClean = true;
+                } else {
+                    // Measure in the background, and save the result at the next opportunity.
+                    measurement = measureExecutor.submit(() -> measureUsedSpace(root));
+                    markUnsaved();
+                }
+            }
+        }
+
+        /**
+         * Get the shared usage of a writable directory, reading its ledger if it is not already mounted.
+         *
+         * @param rootPath The directory to get the usage of.
+         * @return The directory's usage.
+         */
+        static Usage get(File rootPath) {
+            File root;
+            try {
+                root = rootPath.getCanonicalFile();
+            } catch (IOException e) {
+                root = rootPath.getAbsoluteFile();
+            }
+
+            synchronized (usages) {
+                Usage usage = usages.get(root);
+                if (usage == null) {
+                    usage = new Usage(root, new File(root.getParentFile(), root.getName() + ".usage"));
+                    usages.put(root, usage);
+                }
+                return usage;
+            }
+        }
+
+        /**
+         * Ensure {@link #used} is known, waiting for the background measurement if needed.
+         */
+        synchronized void ensureKnown() {
+            if (known) return;
+
+            Future<Long> measurement = this.measurement;
+            this.measurement = null;
+
+            long used = -1;
+            if (measurement != null) {
+                try {
+                    used = measurement.get();
+                } catch (ExecutionException e) {
+                    ComputerCraft.log.error("Error computing file size for {}", root, e.getCause());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            this.used = used >= 0 ? used : measureUsedSpace(root);
+            known = true;
+        }
+
+        /**
+         * Prepare for the used space to change. This must be called before the directory is modified.
+         *
+         * If the ledger is up-to-date, we mark it as dirty first. That way, should the server stop before the ledger is saved again, the
+         * directory will be measured again on the next start.
+         */
+        synchronized void beginChange() {
+            ensureKnown();
+            if (ledger == null) return;
+
+            if (ledgerClean) {
+                ledgerClean = false;
+                writeLedger(ledger, -1);
+            }
+            markUnsaved();
+        }
+
+        void markUnsaved() {
+            synchronized (unsavedUsages) {
+                unsavedUsages.add(this);
+            }
+        }
+
+        synchronized boolean save() {
+            if (ledgerClean || ledger == null) return true;
+
+            // Don't block waiting for the measurement to finish, we'll just save it next time.
+            if (!known && measurement != null && !measurement.isDone()) return false;
+
+            ensureKnown();
+            return ledgerClean = writeLedger(ledger, used);
+        }
+    }
+
     private static class Visitor extends SimpleFileVisitor<Path> {
 
         long size;
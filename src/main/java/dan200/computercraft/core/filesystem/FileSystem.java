@@ -24,9 +24,17 @@ import java.nio.channels.WritableByteChannel;
 import java.nio.file.AccessDeniedException;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.*;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.Function;
 import java.util.regex.Pattern;
 
+/**
+ * A virtual file system, made up of several mounts.
+ *
+ * Operations which only read from the file system may run concurrently with each other, while those which modify it (including mounting
+ * and unmounting) have exclusive access.
+ */
 public class FileSystem {
 
     /**
@@ -39,6 +47,16 @@ public class FileSystem {
     private final FileSystemWrapperMount m_wrapper = new FileSystemWrapperMount(this);
     private final Map<String, MountWrapper> mounts = new HashMap<>();
 
+    /**
+     * A trie of mounts, keyed by each (lower case) segment of their location. This allows finding the mount for a path without
+     * checking every mount.
+     */
+    private final MountNode mountRoot = new MountNode();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Lock readLock = lock.readLock();
+    private final Lock writeLock = lock.writeLock();
+
     private final HashMap<WeakReference<FileSystemWrapper<?>>, ChannelWrapper<?>> m_openFiles = new HashMap<>();
     private final ReferenceQueue<FileSystemWrapper<?>> m_openFileQueue = new ReferenceQueue<>();
 
@@ -59,14 +77,14 @@ public class FileSystem {
         }
     }
 
-    public synchronized void mount(String label, String location, IMount mount) throws FileSystemException {
+    public void mount(String label, String location, IMount mount) throws FileSystemException {
         if (mount == null) throw new NullPointerException();
         location = sanitizePath(location);
         if (location.contains("..")) throw new FileSystemException("Cannot mount below the root");
         mount(new MountWrapper(label, location, mount));
     }
 
-    public synchronized void mountWritable(String label, String location, IWritableMount mount) throws FileSystemException {
+    public void mountWritable(String label, String location, IWritableMount mount) throws FileSystemException {
         if (mount == null) {
             throw new NullPointerException();
         }
@@ -77,17 +95,84 @@ public class FileSystem {
         mount(new MountWrapper(label, location, mount));
     }
 
-    private synchronized void mount(MountWrapper wrapper) {
-        String location = wrapper.getLocation();
-        mounts.remove(location);
-        mounts.put(location, wrapper);
+    /**
+     * Mount a read-only mount, unless something already exists at its location. The check and the mount happen while holding the
+     * same lock, so two peripherals cannot both claim a location.
+     *
+     * @param label    The label of the mount.
+     * @param location The location to mount at.
+     * @param mount    The mount to add.
+     * @return Whether the mount was added.
+     * @throws FileSystemException If the location is invalid.
+     */
+    public boolean mountIfFree(String label, String location, IMount mount) throws FileSystemException {
+        writeLock.lock();
+        try {
+            if (exists(location)) return false;
+            mount(label, location, mount);
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
     }
 
-    public synchronized void unmount(String path) {
-        mounts.remove(sanitizePath(path));
+    /**
+     * Mount a writable mount, unless something already exists at its location.
+     *
+     * @param label    The label of the mount.
+     * @param location The location to mount at.
+     * @param mount    The mount to add.
+     * @return Whether the mount was added.
+     * @throws FileSystemException If the location is invalid.
+     * @see #mountIfFree(String, String, IMount)
+     */
+    public boolean mountWritableIfFree(String label, String location, IWritableMount mount) throws FileSystemException {
+        writeLock.lock();
+        try {
+            if (exists(location)) return false;
+            mountWritable(label, location, mount);
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void mount(MountWrapper wrapper) {
+        writeLock.lock();
+        try {
+            String location = wrapper.getLocation();
+            mounts.remove(location);
+            mounts.put(location, wrapper);
+            mountRoot.getOrCreate(location).mount = wrapper;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public void unmount(String path) {
+        writeLock.lock();
+        try {
+            path = sanitizePath(path);
+            MountWrapper removed = mounts.remove(path);
+            if (removed == null) return;
+
+            MountNode node = mountRoot.get(path);
+            if (node != null && node.mount == removed) {
+                // Locations are case-insensitive, so another mount may now be visible at this location.
+                node.mount = null;
+                for (MountWrapper other : mounts.values()) {
+                    if (other.getLocation().equalsIgnoreCase(path)) node.mount = other;
+                }
+
+                // Otherwise remove any nodes which no longer lead to a mount, so the trie does not grow forever.
+                if (node.mount == null) mountRoot.prune(path, 0);
+            }
+        } finally {
+            writeLock.unlock();
+        }
     }
 
-    public synchronized String combine(String path, String childPath) {
+    public String combine(String path, String childPath) {
         path = sanitizePath(path, true);
         childPath = sanitizePath(childPath, true);
 
@@ -122,34 +207,53 @@ public class FileSystem {
         return lastSlash >= 0 ? path.substring(lastSlash + 1) : path;
     }
 
-    public synchronized long getSize(String path) throws FileSystemException {
-        return getMount(sanitizePath(path)).getSize(sanitizePath(path));
+    public long getSize(String path) throws FileSystemException {
+        readLock.lock();
+        try {
+            return getMount(sanitizePath(path)).getSize(sanitizePath(path));
+        } finally {
+            readLock.unlock();
+        }
     }
 
-    public synchronized BasicFileAttributes getAttributes(String path) throws FileSystemException {
-        return getMount(sanitizePath(path)).getAttributes(sanitizePath(path));
+    public BasicFileAttributes getAttributes(String path) throws FileSystemException {
+        readLock.lock();
+        try {
+            return getMount(sanitizePath(path)).getAttributes(sanitizePath(path));
+        } finally {
+            readLock.unlock();
+        }
     }
 
-    public synchronized String[] list(String path) throws FileSystemException {
-        path = sanitizePath(path);
-        MountWrapper mount = getMount(path);
+    public String[] list(String path) throws FileSystemException {
+        readLock.lock();
+        try {
+            path = sanitizePath(path);
+            MountWrapper mount = getMount(path);
 
-        // Gets a list of the files in the mount
-        List<String> list = new ArrayList<>();
-        mount.list(path, list);
+            // Gets a list of the files in the mount
+            List<String> list = new ArrayList<>();
+            mount.list(path, list);
 
-        // Add any mounts that are mounted at this location
-        for (MountWrapper otherMount : mounts.values()) {
-            if (getDirectory(otherMount.getLocation()).equals(path)) {
-                list.add(getName(otherMount.getLocation()));
+            // Add any mounts that are mounted at this location
+            MountNode node = mountRoot.get(path);
+            if (node != null) {
+                for (MountNode child : node.children.values()) {
+                    MountWrapper otherMount = child.mount;
+                    if (otherMount != null && getDirectory(otherMount.getLocation()).equals(path)) {
+                        list.add(getName(otherMount.getLocation()));
+                    }
+                }
             }
-        }
 
-        // Return list
-        String[] array = new String[list.size()];
-        list.toArray(array);
-        Arrays.sort(array);
-        return array;
+            // Return list
+            String[] array = new String[list.size()];
+            list.toArray(array);
+            Arrays.sort(array);
+            return array;
+        } finally {
+            readLock.unlock();
+        }
     }
 
     private void findIn(String dir, List<String> matches, Pattern wildPattern) throws FileSystemException {
@@ -165,109 +269,154 @@ public class FileSystem {
         }
     }
 
-    public synchronized String[] find(String wildPath) throws FileSystemException {
-        // Match all the files on the system
-        wildPath = sanitizePath(wildPath, true);
+    public String[] find(String wildPath) throws FileSystemException {
+        readLock.lock();
+        try {
+            // Match all the files on the system
+            wildPath = sanitizePath(wildPath, true);
 
-        // If we don't have a wildcard at all just check the file exists
-        int starIndex = wildPath.indexOf('*');
-        if (starIndex == -1) {
-            return exists(wildPath) ? new String[]{wildPath} : new String[0];
-        }
+            // If we don't have a wildcard at all just check the file exists
+            int starIndex = wildPath.indexOf('*');
+            if (starIndex == -1) {
+                return exists(wildPath) ? new String[]{wildPath} : new String[0];
+            }
 
-        // Find the all non-wildcarded directories. For instance foo/bar/baz* -> foo/bar
-        int prevDir = wildPath.substring(0, starIndex).lastIndexOf('/');
-        String startDir = prevDir == -1 ? "" : wildPath.substring(0, prevDir);
+            // Find the all non-wildcarded directories. For instance foo/bar/baz* -> foo/bar
+            int prevDir = wildPath.substring(0, starIndex).lastIndexOf('/');
+            String startDir = prevDir == -1 ? "" : wildPath.substring(0, prevDir);
 
-        // If this isn't a directory then just abort
-        if (!isDir(startDir)) return new String[0];
+            // If this isn't a directory then just abort
+            if (!isDir(startDir)) return new String[0];
 
-        // Scan as normal, starting from this directory
-        Pattern wildPattern = Pattern.compile("^\\Q" + wildPath.replaceAll("\\*", "\\\\E[^\\\\/]*\\\\Q") + "\\E$");
-        List<String> matches = new ArrayList<>();
-        findIn(startDir, matches, wildPattern);
+            // Scan as normal, starting from this directory
+            Pattern wildPattern = Pattern.compile("^\\Q" + wildPath.replaceAll("\\*", "\\\\E[^\\\\/]*\\\\Q") + "\\E$");
+            List<String> matches = new ArrayList<>();
+            findIn(startDir, matches, wildPattern);
 
-        // Return matches
-        String[] array = new String[matches.size()];
-        matches.toArray(array);
-        return array;
+            // Return matches
+            String[] array = new String[matches.size()];
+            matches.toArray(array);
+            return array;
+        } finally {
+            readLock.unlock();
+        }
     }
 
-    public synchronized boolean exists(String path) throws FileSystemException {
-        path = sanitizePath(path);
-        MountWrapper mount = getMount(path);
-        return mount.exists(path);
+    public boolean exists(String path) throws FileSystemException {
+        readLock.lock();
+        try {
+            path = sanitizePath(path);
+            MountWrapper mount = getMount(path);
+            return mount.exists(path);
+        } finally {
+            readLock.unlock();
+        }
     }
 
-    public synchronized boolean isDir(String path) throws FileSystemException {
-        path = sanitizePath(path);
-        MountWrapper mount = getMount(path);
-        return mount.isDirectory(path);
+    public boolean isDir(String path) throws FileSystemException {
+        readLock.lock();
+        try {
+            path = sanitizePath(path);
+            MountWrapper mount = getMount(path);
+            return mount.isDirectory(path);
+        } finally {
+            readLock.unlock();
+        }
     }
 
-    public synchronized boolean isReadOnly(String path) throws FileSystemException {
-        path = sanitizePath(path);
-        MountWrapper mount = getMount(path);
-        return mount.isReadOnly(path);
+    public boolean isReadOnly(String path) throws FileSystemException {
+        readLock.lock();
+        try {
+            path = sanitizePath(path);
+            MountWrapper mount = getMount(path);
+            return mount.isReadOnly(path);
+        } finally {
+            readLock.unlock();
+        }
     }
 
-    public synchronized String getMountLabel(String path) throws FileSystemException {
-        path = sanitizePath(path);
-        MountWrapper mount = getMount(path);
-        return mount.getLabel();
+    public String getMountLabel(String path) throws FileSystemException {
+        readLock.lock();
+        try {
+            path = sanitizePath(path);
+            MountWrapper mount = getMount(path);
+            return mount.getLabel();
+        } finally {
+            readLock.unlock();
+        }
     }
 
-    public synchronized void makeDir(String path) throws FileSystemException {
-        path = sanitizePath(path);
-        MountWrapper mount = getMount(path);
-        mount.makeDirectory(path);
+    public void makeDir(String path) throws FileSystemException {
+        writeLock.lock();
+        try {
+            path = sanitizePath(path);
+            MountWrapper mount = getMount(path);
+            mount.makeDirectory(path);
+        } finally {
+            writeLock.unlock();
+        }
     }
 
-    public synchronized void delete(String path) throws FileSystemException {
-        path = sanitizePath(path);
-        MountWrapper mount = getMount(path);
-        mount.delete(path);
+    public void delete(String path) throws FileSystemException {
+        writeLock.lock();
+        try {
+            path = sanitizePath(path);
+            MountWrapper mount = getMount(path);
+            mount.delete(path);
+        } finally {
+            writeLock.unlock();
+        }
     }
 
-    public synchronized void move(String sourcePath, String destPath) throws FileSystemException {
-        sourcePath = sanitizePath(sourcePath);
-        destPath = sanitizePath(destPath);
-        if (isReadOnly(sourcePath) || isReadOnly(destPath)) {
-            throw new FileSystemException("Access denied");
-        }
-        if (!exists(sourcePath)) {
-            throw new FileSystemException("No such file");
-        }
-        if (exists(destPath)) {
-            throw new FileSystemException("File exists");
-        }
-        if (contains(sourcePath, destPath)) {
-            throw new FileSystemException("Can't move a directory inside itself");
+    public void move(String sourcePath, String destPath) throws FileSystemException {
+        writeLock.lock();
+        try {
+            sourcePath = sanitizePath(sourcePath);
+            destPath = sanitizePath(destPath);
+            if (isReadOnly(sourcePath) || isReadOnly(destPath)) {
+                throw new FileSystemException("Access denied");
+            }
+            if (!exists(sourcePath)) {
+                throw new FileSystemException("No such file");
+            }
+            if (exists(destPath)) {
+                throw new FileSystemException("File exists");
+            }
+            if (contains(sourcePath, destPath)) {
+                throw new FileSystemException("Can't move a directory inside itself");
+            }
+            copy(sourcePath, destPath);
+            delete(sourcePath);
+        } finally {
+            writeLock.unlock();
         }
-        copy(sourcePath, destPath);
-        delete(sourcePath);
     }
 
-    public synchronized void copy(String sourcePath, String destPath) throws FileSystemException {
-        sourcePath = sanitizePath(sourcePath);
-        destPath = sanitizePath(destPath);
-        if (isReadOnly(destPath)) {
-            throw new FileSystemException("/" + destPath + ": Access denied");
-        }
-        if (!exists(sourcePath)) {
-            throw new FileSystemException("/" + sourcePath + ": No such file");
-        }
-        if (exists(destPath)) {
-            throw new FileSystemException("/" + destPath + ": File exists");
-        }
-        if (contains(sourcePath, destPath)) {
-            throw new FileSystemException("/" + sourcePath + ": Can't copy a directory inside itself");
+    public void copy(String sourcePath, String destPath) throws FileSystemException {
+        writeLock.lock();
+        try {
+            sourcePath = sanitizePath(sourcePath);
+            destPath = sanitizePath(destPath);
+            if (isReadOnly(destPath)) {
+                throw new FileSystemException("/" + destPath + ": Access denied");
+            }
+            if (!exists(sourcePath)) {
+                throw new FileSystemException("/" + sourcePath + ": No such file");
+            }
+            if (exists(destPath)) {
+                throw new FileSystemException("/" + destPath + ": File exists");
+            }
+            if (contains(sourcePath, destPath)) {
+                throw new FileSystemException("/" + sourcePath + ": Can't copy a directory inside itself");
+            }
+            copyRecursive(sourcePath, getMount(sourcePath), destPath, getMount(destPath), 0);
+        } finally {
+            writeLock.unlock();
         }
-        copyRecursive(sourcePath, getMount(sourcePath), destPath, getMount(destPath), 0);
     }
 
-    private synchronized void copyRecursive(String sourcePath, MountWrapper sourceMount, String destinationPath,
-                                            MountWrapper destinationMount, int depth) throws FileSystemException {
+    private void copyRecursive(String sourcePath, MountWrapper sourceMount, String destinationPath, MountWrapper destinationMount,
+                               int depth) throws FileSystemException {
         if (!sourceMount.exists(sourcePath)) return;
         if (depth >= MAX_COPY_DEPTH) throw new FileSystemException("Too many directories to copy");
 
@@ -305,7 +454,7 @@ public class FileSystem {
         }
     }
 
-    private synchronized <T extends Closeable> FileSystemWrapper<T> openFile(@Nonnull Channel channel, @Nonnull T file)
+    private <T extends Closeable> FileSystemWrapper<T> openFile(@Nonnull Channel channel, @Nonnull T file)
         throws FileSystemException {
         synchronized (m_openFiles) {
             if (ComputerCraft.maximumFilesOpen > 0 && m_openFiles.size() >= ComputerCraft.maximumFilesOpen) {
@@ -321,67 +470,75 @@ public class FileSystem {
         }
     }
 
-    synchronized void removeFile(FileSystemWrapper<?> handle) {
+    void removeFile(FileSystemWrapper<?> handle) {
         synchronized (m_openFiles) {
             m_openFiles.remove(handle.self);
         }
     }
 
-    public synchronized <T extends Closeable> FileSystemWrapper<T> openForRead(String path, Function<ReadableByteChannel, T> open)
+    public <T extends Closeable> FileSystemWrapper<T> openForRead(String path, Function<ReadableByteChannel, T> open)
         throws FileSystemException {
-        cleanup();
-
-        path = sanitizePath(path);
-        MountWrapper mount = getMount(path);
-        ReadableByteChannel channel = mount.openForRead(path);
-        if (channel != null) {
-            return openFile(channel, open.apply(channel));
+        readLock.lock();
+        try {
+            cleanup();
+
+            path = sanitizePath(path);
+            MountWrapper mount = getMount(path);
+            ReadableByteChannel channel = mount.openForRead(path);
+            if (channel != null) {
+                return openFile(channel, open.apply(channel));
+            }
+            return null;
+        } finally {
+            readLock.unlock();
         }
-        return null;
     }
 
-    public synchronized <T extends Closeable> FileSystemWrapper<T> openForWrite(String path, boolean append,
-                                                                                Function<WritableByteChannel, T> open)
+    public <T extends Closeable> FileSystemWrapper<T> openForWrite(String path, boolean append,
+                                                                   Function<WritableByteChannel, T> open)
         throws FileSystemException {
-        cleanup();
-
-        path = sanitizePath(path);
-        MountWrapper mount = getMount(path);
-        WritableByteChannel channel = append ? mount.openForAppend(path) : mount.openForWrite(path);
-        if (channel != null) {
-            return openFile(channel, open.apply(channel));
+        writeLock.lock();
+        try {
+            cleanup();
+
+            path = sanitizePath(path);
+            MountWrapper mount = getMount(path);
+            WritableByteChannel channel = append ? mount.openForAppend(path) : mount.openForWrite(path);
+            if (channel != null) {
+                return openFile(channel, open.apply(channel));
+            }
+            return null;
+        } finally {
+            writeLock.unlock();
         }
-        return null;
     }
 
-    public synchronized long getFreeSpace(String path) throws FileSystemException {
-        path = sanitizePath(path);
-        MountWrapper mount = getMount(path);
-        return mount.getFreeSpace();
+    public long getFreeSpace(String path) throws FileSystemException {
+        readLock.lock();
+        try {
+            path = sanitizePath(path);
+            MountWrapper mount = getMount(path);
+            return mount.getFreeSpace();
+        } finally {
+            readLock.unlock();
+        }
     }
 
     @Nonnull
-    public synchronized OptionalLong getCapacity(String path) throws FileSystemException {
-        path = sanitizePath(path);
-        MountWrapper mount = getMount(path);
-        return mount.getCapacity();
+    public OptionalLong getCapacity(String path) throws FileSystemException {
+        readLock.lock();
+        try {
+            path = sanitizePath(path);
+            MountWrapper mount = getMount(path);
+            return mount.getCapacity();
+        } finally {
+            readLock.unlock();
+        }
     }
 
-    private synchronized MountWrapper getMount(String path) throws FileSystemException {
+    private MountWrapper getMount(String path) throws FileSystemException {
         // Return the deepest mount that contains a given path
-        Iterator<MountWrapper> it = mounts.values().iterator();
-        MountWrapper match = null;
-        int matchLength = 999;
-        while (it.hasNext()) {
-            MountWrapper mount = it.next();
-            if (contains(mount.getLocation(), path)) {
-                int len = toLocal(path, mount.getLocation()).length();
-                if (match == null || len < matchLength) {
-                    match = mount;
-                    matchLength = len;
-                }
-            }
-        }
+        MountWrapper match = path.equals("..") || path.startsWith("../") ? null : mountRoot.find(path);
         if (match == null) {
             throw new FileSystemException("/" + path + ": Invalid Path");
         }
@@ -489,4 +646,75 @@ public class FileSystem {
             return local;
         }
     }
+
+    private static final class MountNode {
+
+        final Map<String, MountNode> children = new HashMap<>();
+        MountWrapper mount;
+
+        MountNode get(String location) {
+            MountNode node = this;
+            int start = 0;
+            while (node != null && start < location.length()) {
+                int end = segmentEnd(location, start);
+                node = node.children.get(location.substring(start, end).toLowerCase(Locale.ROOT));
+                start = end + 1;
+            }
+            return node;
+        }
+
+        MountNode getOrCreate(String location) {
+            MountNode node = this;
+            int start = 0;
+            while (start < location.length()) {
+                int end = segmentEnd(location, start);
+                node = node.children.computeIfAbsent(location.substring(start, end).toLowerCase(Locale.ROOT), x -> new MountNode());
+                start = end + 1;
+            }
+            return node;
+        }
+
+        /**
+         * Remove any nodes along a location which no longer contain (or lead to) a mount.
+         *
+         * @param location The location to prune, which must be sanitised.
+         * @param start    The start of this node's child segment within {@code location}.
+         * @return Whether this node is now empty, and so may be removed by its parent.
+         */
+        boolean prune(String location, int start) {
+            if (start < location.length()) {
+                int end = segmentEnd(location, start);
+                String segment = location.substring(start, end).toLowerCase(Locale.ROOT);
+                MountNode child = children.get(segment);
+                if (child != null && child.prune(location, end + 1)) children.remove(segment);
+            }
+
+            return mount == null && children.isEmpty();
+        }
+
+        /**
+         * Find the deepest mount containing a path.
+         *
+         * @param path The path to find, which must be sanitised.
+         * @return The mount containing this path, or {@code null} if there is none.
+         */
+        MountWrapper find(String path) {
+            MountNode node = this;
+            MountWrapper match = mount;
+            int start = 0;
+            while (start < path.length()) {
+                int end = segmentEnd(path, start);
+                node = node.children.get(path.substring(start, end).toLowerCase(Locale.ROOT));
+                if (node == null) break;
+                if (node.mount != null) match = node.mount;
+                start = end + 1;
+            }
+            return match;
+        }
+
+        private static int segmentEnd(String path, int start) {
+            int end = path.indexOf('/', start);
+            return end < 0 ? path.length() : end;
+        }
+    }
 }
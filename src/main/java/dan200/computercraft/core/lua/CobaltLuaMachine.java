@@ -5,6 +5,7 @@
  */
 package dan200.computercraft.core.lua;
 
+import com.google.common.io.ByteStreams;
 import dan200.computercraft.ComputerCraft;
 import dan200.computercraft.api.lua.*;
 import dan200.computercraft.core.computer.Computer;
@@ -12,7 +13,6 @@ import dan200.computercraft.core.computer.MainThread;
 import dan200.computercraft.core.computer.TimeoutState;
 import dan200.computercraft.core.tracking.Tracking;
 import dan200.computercraft.core.tracking.TrackingField;
-import dan200.computercraft.shared.util.ThreadUtils;
 import org.squiddev.cobalt.*;
 import org.squiddev.cobalt.compiler.CompileException;
 import org.squiddev.cobalt.compiler.LoadState;
@@ -20,17 +20,19 @@ import org.squiddev.cobalt.debug.DebugFrame;
 import org.squiddev.cobalt.debug.DebugHandler;
 import org.squiddev.cobalt.debug.DebugState;
 import org.squiddev.cobalt.function.LuaFunction;
+import org.squiddev.cobalt.function.LuaInterpretedFunction;
 import org.squiddev.cobalt.function.VarArgFunction;
 import org.squiddev.cobalt.lib.*;
 import org.squiddev.cobalt.lib.platform.VoidResourceManipulator;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.io.ByteArrayInputStream;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.util.*;
-import java.util.concurrent.SynchronousQueue;
-import java.util.concurrent.ThreadPoolExecutor;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.squiddev.cobalt.ValueFactory.valueOf;
 import static org.squiddev.cobalt.ValueFactory.varargsOf;
@@ -39,8 +41,7 @@ import static org.squiddev.cobalt.debug.DebugFrame.FLAG_HOOKYIELD;
 
 public class CobaltLuaMachine implements ILuaMachine {
 
-    private static final ThreadPoolExecutor COROUTINES = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 5L, TimeUnit.MINUTES,
-                                                                                new SynchronousQueue<>(), ThreadUtils.factory("Coroutine"));
+    private static final LuaString BIOS_NAME = valueOf("@bios.lua");
 
     private final Computer m_computer;
     private final TimeoutState timeout;
@@ -53,22 +54,34 @@ public class CobaltLuaMachine implements ILuaMachine {
     private LuaThread m_mainRoutine = null;
     private String m_eventFilter = null;
 
+    /**
+     * Whether the machine is suspended waiting for a main thread task to complete. This is only used when
+     * {@link ComputerCraft#suspendOnMainThreadTask} is enabled.
+     *
+     * @see CobaltLuaContext#executeMainThreadTask(ILuaTask)
+     */
+    private volatile boolean blockedOnTask = false;
+
     public CobaltLuaMachine(Computer computer, TimeoutState timeout) {
         m_computer = computer;
         this.timeout = timeout;
         debug = new TimeoutDebugHandler();
 
         // Create an environment to run in
+        Executor coroutines = CoroutineExecutor.current();
         LuaState state = m_state = LuaState.builder().resourceManipulator(new VoidResourceManipulator()).debug(debug).coroutineExecutor(
             command -> {
-                Tracking.addValue(m_computer, TrackingField.COROUTINES_CREATED, 1);
-                COROUTINES.execute(() -> {
+                coroutines.execute(() -> {
                     try {
                         command.run();
                     } finally {
                         Tracking.addValue(m_computer, TrackingField.COROUTINES_DISPOSED, 1);
                     }
                 });
+
+                // Only count the coroutine once it has actually been scheduled, so a rejected task is not counted as created but never
+                // disposed.
+                Tracking.addValue(m_computer, TrackingField.COROUTINES_CREATED, 1);
             }).build();
 
         m_globals = new LuaTable();
@@ -84,6 +97,12 @@ public class CobaltLuaMachine implements ILuaMachine {
         m_globals.load(state, new Utf8Lib());
         if (ComputerCraft.debug_enable) m_globals.load(state, new DebugLib());
 
+        // Share compiled ROM programs with other computers, rather than compiling them again on every boot.
+        LuaValue loadstring = m_globals.rawget("loadstring");
+        if (loadstring instanceof LuaFunction) {
+            m_globals.rawset("loadstring", new PrototypeCache.LoadStringFunction((LuaFunction) loadstring));
+        }
+
         // Remove globals we don't want to expose
         m_globals.rawset("collectgarbage", Constants.NIL);
         m_globals.rawset("dofile", Constants.NIL);
@@ -115,7 +134,18 @@ public class CobaltLuaMachine implements ILuaMachine {
         if (m_mainRoutine != null) return MachineResult.OK;
 
         try {
-            LuaFunction value = LoadState.load(m_state, bios, "@bios.lua", m_globals);
+            byte[] bytes = ByteStreams.toByteArray(bios);
+            LuaString contents = valueOf(bytes);
+            Prototype prototype = PrototypeCache.get(BIOS_NAME, contents);
+
+            LuaFunction value;
+            if (prototype != null) {
+                value = new LuaInterpretedFunction(prototype, m_globals);
+            } else {
+                value = LoadState.load(m_state, new ByteArrayInputStream(bytes), "@bios.lua", m_globals);
+                PrototypeCache.put(BIOS_NAME, contents, value);
+            }
+
             m_mainRoutine = new LuaThread(m_state, value, m_globals);
             return MachineResult.OK;
         } catch (CompileException e) {
@@ -152,7 +182,7 @@ public class CobaltLuaMachine implements ILuaMachine {
 
             Varargs results = LuaThread.run(thread, resumeArgs);
             if (timeout.isHardAborted()) throw HardAbortError.INSTANCE;
-            if (results == null) return MachineResult.PAUSE;
+            if (results == null) return blockedOnTask ? MachineResult.BLOCKED : MachineResult.PAUSE;
 
             LuaValue filter = results.first();
             m_eventFilter = filter.isString() ? filter.toString() : null;
@@ -184,49 +214,93 @@ public class CobaltLuaMachine implements ILuaMachine {
         m_globals = null;
     }
 
+    /**
+     * Convert an {@link ILuaObject} to a table of functions.
+     *
+     * The method names are shared between all objects of the same class (see {@link MethodTable}), but each wrap still allocates a
+     * table and one {@link WrappedMethod} per method. Methods are called with a dot ({@code handle.read()}) rather than a colon, so a
+     * function shared between objects would have no way to find its receiver.
+     *
+     * @param object The object to wrap.
+     * @return The wrapped object.
+     */
     private LuaTable wrapLuaObject(ILuaObject object) {
-        LuaTable table = new LuaTable();
-        String[] methods = object.getMethodNames();
-        for (int i = 0; i < methods.length; i++) {
-            if (methods[i] != null) {
-                final int method = i;
-                final ILuaObject apiObject = object;
-                final String methodName = methods[i];
-                table.rawset(methodName, new VarArgFunction() {
-
-                    @Override
-                    public Varargs invoke(final LuaState state, Varargs args) throws LuaError {
-                        Object[] arguments = toObjects(args, 1);
-                        Object[] results;
-                        try {
-                            results = apiObject.callMethod(context, method, arguments);
-                        } catch (InterruptedException e) {
-                            throw new InterruptedError(e);
-                        } catch (LuaException e) {
-                            throw new LuaError(e.getMessage(), e.getLevel());
-                        } catch (Throwable t) {
-                            if (ComputerCraft.logPeripheralErrors) {
-                                ComputerCraft.log.error("Error calling " + methodName + " on " + apiObject, t);
-                            }
-                            throw new LuaError("Java Exception Thrown: " + t, 0);
-                        }
-                        return toValues(results);
-                    }
-                });
-            }
+        MethodTable methods = MethodTable.of(object);
+        LuaTable table = new LuaTable(0, methods.size());
+        for (int i = 0; i < methods.length(); i++) {
+            LuaString key = methods.key(i);
+            if (key != null) table.rawset(key, new WrappedMethod(object, i));
         }
         return table;
     }
 
-    @Nonnull
-    private LuaValue toValue(@Nullable Object object, @Nonnull Map<Object, LuaValue> values) {
-        if (object == null) return Constants.NIL;
+    /**
+     * A function which calls a single method on an {@link ILuaObject}. This only holds the receiver and method index, as one is allocated
+     * for every method of every wrapped object. The method's name is only needed for error reporting, so is looked up when needed.
+     */
+    private final class WrappedMethod extends VarArgFunction {
+
+        private final ILuaObject object;
+        private final int method;
+
+        WrappedMethod(ILuaObject object, int method) {
+            this.object = object;
+            this.method = method;
+        }
+
+        @Override
+        public Varargs invoke(final LuaState state, Varargs args) throws LuaError {
+            Object[] results;
+            try {
+                results = object.callMethod(context, method, new VarargArguments(args));
+            } catch (InterruptedException e) {
+                throw new InterruptedError(e);
+            } catch (LuaException e) {
+                throw new LuaError(e.getMessage(), e.getLevel());
+            } catch (Throwable t) {
+                if (ComputerCraft.logPeripheralErrors) {
+                    ComputerCraft.log.error("Error calling " + MethodTable.of(object).name(method) + " on " + object, t);
+                }
+                throw new LuaError("Java Exception Thrown: " + t, 0);
+            }
+            return toValues(results);
+        }
+    }
+
+    /**
+     * Convert a Java object with no identity (such as a number or string) to a Lua value.
+     *
+     * @param object The object to convert.
+     * @return The converted value, or {@code null} if this is not a simple value.
+     */
+    @Nullable
+    static LuaValue toSimpleValue(@Nonnull Object object) {
+        if (object instanceof Integer || object instanceof Short || object instanceof Byte) {
+            return valueOf(((Number) object).intValue());
+        }
+        if (object instanceof Long l && l == l.intValue()) return valueOf(l.intValue());
         if (object instanceof Number) return valueOf(((Number) object).doubleValue());
         if (object instanceof Boolean) return valueOf((Boolean) object);
         if (object instanceof String) return valueOf(object.toString());
         if (object instanceof byte[] b) {
             return valueOf(Arrays.copyOf(b, b.length));
         }
+        if (object instanceof ByteBuffer buffer) {
+            byte[] bytes = new byte[buffer.remaining()];
+            buffer.duplicate().get(bytes);
+            return valueOf(bytes);
+        }
+        return null;
+    }
+
+    @Nonnull
+    private LuaValue toValue(@Nullable Object object, @Nonnull Map<Object, LuaValue> values) {
+        if (object == null) return Constants.NIL;
+
+        LuaValue simple = toSimpleValue(object);
+        if (simple != null) return simple;
+
+        if (object instanceof FrozenTable frozen) return frozen.toLua(values);
 
         LuaValue result = values.get(object);
         if (result != null) return result;
@@ -270,7 +344,7 @@ public class CobaltLuaMachine implements ILuaMachine {
         return Constants.NIL;
     }
 
-    private Varargs toValues(Object[] objects) {
+    Varargs toValues(Object[] objects) {
         if (objects == null || objects.length == 0) return Constants.NONE;
 
         Map<Object, LuaValue> result = new IdentityHashMap<>(0);
@@ -282,18 +356,33 @@ public class CobaltLuaMachine implements ILuaMachine {
         return varargsOf(values);
     }
 
-    private static Object toObject(LuaValue value, Map<LuaValue, Object> objects) {
+    static Object toObject(LuaValue value, Map<LuaValue, Object> objects) {
+        return toObject(value, objects, false);
+    }
+
+    /**
+     * Convert a Lua value to a Java object.
+     *
+     * @param value   The value to convert.
+     * @param objects The tables which have already been converted, or {@code null}.
+     * @param typed   Whether to preserve integers as {@link Long}s and strings as their raw bytes.
+     * @return The converted value.
+     * @see dan200.computercraft.api.lua.IArguments#getTyped(int)
+     */
+    static Object toObject(LuaValue value, Map<LuaValue, Object> objects, boolean typed) {
         switch (value.type()) {
             case Constants.TNIL:
             case Constants.TNONE:
                 return null;
             case Constants.TINT:
+                if (typed) return (long) value.toInteger();
+                return value.toDouble();
             case Constants.TNUMBER:
                 return value.toDouble();
             case Constants.TBOOLEAN:
                 return value.toBoolean();
             case Constants.TSTRING:
-                return value.toString();
+                return typed ? toBytes((LuaString) value) : value.toString();
             case Constants.TTABLE: {
                 // Table:
                 // Start remembering stuff
@@ -322,8 +411,8 @@ public class CobaltLuaMachine implements ILuaMachine {
                     }
 
                     LuaValue v = keyValue.arg(2);
-                    Object keyObject = toObject(k, objects);
-                    Object valueObject = toObject(v, objects);
+                    Object keyObject = toObject(k, objects, typed);
+                    Object valueObject = toObject(v, objects, typed);
                     if (keyObject != null && valueObject != null) {
                         table.put(keyObject, valueObject);
                     }
@@ -335,7 +424,17 @@ public class CobaltLuaMachine implements ILuaMachine {
         }
     }
 
-    private static Object[] toObjects(Varargs values, int startIdx) {
+    /**
+     * Get a read-only view of a Lua string's bytes. Lua strings are immutable, so this may be kept around indefinitely.
+     *
+     * @param string The string to view.
+     * @return The string's bytes.
+     */
+    static ByteBuffer toBytes(LuaString string) {
+        return ByteBuffer.wrap(string.bytes, string.offset, string.length).slice().asReadOnlyBuffer();
+    }
+
+    static Object[] toObjects(Varargs values, int startIdx) {
         int count = values.count();
         Object[] objects = new Object[count - startIdx + 1];
         for (int n = startIdx; n <= count; n++) {
@@ -462,31 +561,116 @@ public class CobaltLuaMachine implements ILuaMachine {
 
         @Override
         public Object[] executeMainThreadTask(@Nonnull final ILuaTask task) throws LuaException, InterruptedException {
-            // Issue task
-            final long taskID = issueMainThreadTask(task);
-
-            // Wait for response
-            while (true) {
-                Object[] response = pullEvent("task_complete");
-                if (response.length >= 3 && response[1] instanceof Number && response[2] instanceof Boolean) {
-                    if (((Number) response[1]).intValue() == taskID) {
-                        Object[] returnValues = new Object[response.length - 3];
-                        if ((Boolean) response[2]) {
-                            // Extract the return values from the event and return them
-                            System.arraycopy(response, 3, returnValues, 0, returnValues.length);
-                            return returnValues;
-                        } else {
-                            // Extract the error message from the event and raise it
-                            if (response.length >= 4 && response[3] instanceof String) {
-                                throw new LuaException((String) response[3]);
-                            } else {
-                                throw new LuaException();
-                            }
-                        }
-                    }
+            return executeMainThreadTasks(new ILuaTask[]{task})[0];
+        }
+
+        @Nonnull
+        @Override
+        public Object[][] executeMainThreadTasks(@Nonnull final ILuaTask[] tasks) throws LuaException, InterruptedException {
+            if (tasks.length == 0) return new Object[0][];
+
+            // Each task is queued separately, rather than as one large task. The main thread executor then runs as many as fit within
+            // this computer's budget each tick, so a large batch is spread over several ticks rather than holding up the server. They
+            // are all queued at once though, so a batch is never left partly queued (and completing with nobody waiting on it).
+            final TaskBatch batch = new TaskBatch(tasks);
+            Runnable[] runnables = new Runnable[tasks.length];
+            for (int i = 0; i < tasks.length; i++) {
+                final int index = i;
+                runnables[i] = () -> batch.run(index);
+            }
+            if (!m_computer.queueMainThread(runnables)) throw new LuaException("Task limit exceeded");
+
+            // We may be woken by another task's event (or spuriously), so check whether we're done each time.
+            while (!batch.done) {
+                if (batch.suspend) {
+                    suspendUntilWoken();
+                } else {
+                    // Only yield the current coroutine, so any others (such as those in parallel.waitForAll) keep running.
+                    pullEvent("task_complete");
                 }
             }
 
+            if (!batch.failed) return batch.results;
+            throw batch.error == null ? new LuaException() : new LuaException(batch.error);
+        }
+
+        /**
+         * Suspend the whole machine (rather than just the current coroutine) until {@link Computer#wake()} is called.
+         *
+         * @throws InterruptedException If the machine has been shut down.
+         * @see ComputerCraft#suspendOnMainThreadTask
+         */
+        private void suspendUntilWoken() throws InterruptedException {
+            LuaState state = m_state;
+            if (state == null) throw new InterruptedException();
+
+            blockedOnTask = true;
+            try {
+                LuaThread.suspendBlocking(state);
+            } catch (LuaError e) {
+                throw new IllegalStateException(e.getMessage());
+            } finally {
+                blockedOnTask = false;
+            }
+        }
+    }
+
+    /**
+     * A group of tasks queued with {@link CobaltLuaContext#executeMainThreadTasks(ILuaTask[])}. Rather than sending results back in a
+     * {@code task_complete} event, each task hands them straight back to the waiting coroutine, avoiding converting them to and from Lua
+     * values. Once every task has finished, the coroutine is woken up: either by resuming the suspended machine with
+     * {@link Computer#wake()}, or with a small {@code task_complete} event sent through {@link Computer#queuePriorityEvent(String, Object[])}.
+     * Neither goes through the normal event queue, so the wake-up is never delayed behind other events or dropped when the queue is full.
+     */
+    private final class TaskBatch {
+
+        private final ILuaTask[] tasks;
+        private final long taskID = MainThread.getUniqueTaskID();
+        final boolean suspend = ComputerCraft.suspendOnMainThreadTask;
+
+        /**
+         * The results of each task. These are written on the main thread before {@link #remaining} is decremented.
+         */
+        final Object[][] results;
+        private final AtomicInteger remaining;
+
+        volatile boolean done;
+        volatile boolean failed;
+        volatile String error;
+
+        TaskBatch(ILuaTask[] tasks) {
+            this.tasks = tasks;
+            results = new Object[tasks.length][];
+            remaining = new AtomicInteger(tasks.length);
+        }
+
+        void run(int index) {
+            // Once one task has failed, the remaining ones are skipped.
+            if (!failed) {
+                try {
+                    results[index] = tasks[index].execute();
+                } catch (LuaException e) {
+                    fail(e.getMessage());
+                } catch (Throwable t) {
+                    if (ComputerCraft.logPeripheralErrors) ComputerCraft.log.error("Error running task", t);
+                    fail("Java Exception Thrown: " + t);
+                }
+            }
+
+            if (remaining.decrementAndGet() > 0) return;
+
+            done = true;
+            if (suspend) {
+                m_computer.wake();
+            } else {
+                m_computer.queuePriorityEvent("task_complete", new Object[]{taskID, !failed});
+            }
+        }
+
+        void fail(String message) {
+            if (failed) return;
+            error = message;
+            failed = true;
         }
     }
 
@@ -0,0 +1,148 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2020. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.core.lua;
+
+import dan200.computercraft.ComputerCraft;
+import dan200.computercraft.shared.util.ThreadUtils;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.lang.reflect.Method;
+import java.util.Locale;
+import java.util.concurrent.*;
+
+/**
+ * The executor which Cobalt runs Lua coroutines on.
+ * Each live coroutine occupies a thread for its entire lifetime (even while suspended), so programs which create many coroutines can
+ * consume a large number of threads. On Java 21 and later, we can run coroutines on virtual threads instead, which are far cheaper to
+ * create and park.
+ *
+ * @see CobaltLuaMachine
+ */
+public enum CoroutineExecutor {
+    /**
+     * Use virtual threads if supported, otherwise platform threads.
+     */
+    BEST,
+
+    /**
+     * Run each coroutine on a platform thread, from an unbounded pool.
+     */
+    PLATFORM,
+
+    /**
+     * Run each coroutine on a virtual thread. The number of carrier threads may be bounded with
+     * {@link ComputerCraft#coroutineCarrierThreads}.
+     */
+    VIRTUAL;
+
+    private static final CoroutineExecutor[] VALUES = values();
+    public static final String[] NAMES;
+
+    private final String displayName = "gui.computercraft:config.execution.coroutine_executor." + name().toLowerCase(Locale.ROOT);
+
+    static {
+        NAMES = new String[VALUES.length];
+        for (int i = 0; i < VALUES.length; i++) NAMES[i] = VALUES[i].displayName();
+    }
+
+    public String displayName() {
+        return displayName;
+    }
+
+    @Nonnull
+    public static CoroutineExecutor ofString(String name) {
+        for (CoroutineExecutor backend : VALUES) {
+            if (backend.displayName.equalsIgnoreCase(name) || backend.name().equalsIgnoreCase(name)) {
+                return backend;
+            }
+        }
+
+        ComputerCraft.log.warn("Unknown coroutine executor {}. Falling back to default.", name);
+        return PLATFORM;
+    }
+
+    private static final Object lock = new Object();
+    private static Executor platform;
+    private static Executor virtual;
+    private static boolean virtualChecked;
+    private static boolean virtualWarned;
+
+    /**
+     * Get the executor to run new coroutines on. This is queried whenever a Lua machine is created, so changes to the config only apply to
+     * computers started afterwards.
+     *
+     * @return The current executor.
+     */
+    @Nonnull
+    public static Executor current() {
+        switch (ComputerCraft.coroutineExecutor) {
+            case VIRTUAL: {
+                Executor executor = virtual();
+                if (executor != null) return executor;
+
+                // Leave the config as it is, so virtual threads are used should the server be started on a newer version of Java.
+                synchronized (lock) {
+                    if (!virtualWarned) {
+                        virtualWarned = true;
+                        ComputerCraft.log.warn("Virtual threads are not supported on this version of Java. Using platform threads instead.");
+                    }
+                }
+                return platform();
+            }
+            case PLATFORM:
+                return platform();
+            case BEST:
+            default: {
+                Executor executor = virtual();
+                return executor != null ? executor : platform();
+            }
+        }
+    }
+
+    @Nonnull
+    private static Executor platform() {
+        synchronized (lock) {
+            if (platform == null) {
+                platform = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 5L, TimeUnit.MINUTES,
+                                                  new SynchronousQueue<>(), ThreadUtils.factory("Coroutine"));
+            }
+            return platform;
+        }
+    }
+
+    /**
+     * Construct an executor which spawns a new virtual thread for each task. As we target Java 8, this is done reflectively.
+     *
+     * @return The virtual thread executor, or {@code null} if not supported.
+     */
+    @Nullable
+    private static Executor virtual() {
+        synchronized (lock) {
+            if (virtualChecked) return virtual;
+            virtualChecked = true;
+
+            // The carrier pool is configured with system properties, which must be set before the first virtual thread is created.
+            int carriers = ComputerCraft.coroutineCarrierThreads;
+            if (carriers > 0 && System.getProperty("jdk.virtualThreadScheduler.parallelism") == null) {
+                System.setProperty("jdk.virtualThreadScheduler.parallelism", Integer.toString(carriers));
+                System.setProperty("jdk.virtualThreadScheduler.maxPoolSize", Integer.toString(carriers));
+            }
+
+            try {
+                Class<?> builder = Class.forName("java.lang.Thread$Builder");
+                Object ofVirtual = Thread.class.getMethod("ofVirtual").invoke(null);
+                ofVirtual = builder.getMethod("name", String.class, long.class).invoke(ofVirtual, "ComputerCraft-Coroutine-", 0L);
+                ThreadFactory factory = (ThreadFactory) builder.getMethod("factory").invoke(ofVirtual);
+
+                Method perTask = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+                return virtual = (Executor) perTask.invoke(null, factory);
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2020. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.core.lua;
+
+import org.squiddev.cobalt.LuaTable;
+import org.squiddev.cobalt.LuaValue;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An immutable table, whose contents have already been converted to Lua values.
+ *
+ * Values which are sent to many computers at once (such as modem messages) would otherwise be converted from Java objects
+ * separately for each computer. Instead, they may be frozen once: each computer then only needs to allocate its own tables,
+ * sharing the (immutable) strings and numbers with every other computer.
+ *
+ * This is also a read-only {@link Map} of the original keys and values (with nested tables also frozen), so it may be used
+ * anywhere a normal table would be.
+ */
+public final class FrozenTable extends AbstractMap<Object, Object> {
+
+    private final Map<Object, Object> contents;
+
+    /**
+     * The keys and values of this table, either as a {@link LuaValue} or a nested {@link FrozenTable}. These are only assigned
+     * while freezing (nested tables may refer back to their parent, so cannot be built in one go), and never modified after.
+     */
+    private Object[] keys;
+    private Object[] values;
+
+    /**
+     * The number of keys which are likely to be in the array part of the table.
+     */
+    private int arraySize;
+
+    private FrozenTable(int size) {
+        contents = new HashMap<>(size);
+    }
+
+    /**
+     * Freeze a value, if it is a table.
+     *
+     * @param value The value to freeze, such as one converted from Lua.
+     * @return The frozen table, or the original value if it is not a table or contains values which cannot be frozen.
+     */
+    @Nullable
+    public static Object freeze(@Nullable Object value) {
+        if (!(value instanceof Map<?, ?> map) || value instanceof FrozenTable) return value;
+
+        FrozenTable table = freeze(map, new IdentityHashMap<>());
+        return table == null ? value : table;
+    }
+
+    @Nullable
+    private static FrozenTable freeze(@Nonnull Map<?, ?> map, @Nonnull Map<Object, FrozenTable> frozen) {
+        FrozenTable existing = frozen.get(map);
+        if (existing != null) return existing;
+
+        int size = map.size();
+        FrozenTable table = new FrozenTable(size);
+        frozen.put(map, table);
+
+        Object[] keys = new Object[size];
+        Object[] values = new Object[size];
+        int count = 0, arraySize = 0;
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            Object key = entry.getKey(), value = entry.getValue();
+            if (key == null || value == null) continue;
+
+            Object luaKey = freezeValue(key, frozen), luaValue = freezeValue(value, frozen);
+            if (luaKey == null || luaValue == null) return null;
+
+            table.contents.put(luaKey instanceof FrozenTable ? luaKey : key, luaValue instanceof FrozenTable ? luaValue : value);
+            keys[count] = luaKey;
+            values[count] = luaValue;
+            count++;
+
+            if (key instanceof Number number) {
+                double index = number.doubleValue();
+                if (index >= 1 && index <= size && index == Math.floor(index)) arraySize++;
+            }
+        }
+
+        table.keys = count == size ? keys : Arrays.copyOf(keys, count);
+        table.values = count == size ? values : Arrays.copyOf(values, count);
+        table.arraySize = arraySize;
+        return table;
+    }
+
+    @Nullable
+    private static Object freezeValue(@Nonnull Object value, @Nonnull Map<Object, FrozenTable> frozen) {
+        if (value instanceof Map<?, ?> map) return freeze(map, frozen);
+        return CobaltLuaMachine.toSimpleValue(value);
+    }
+
+    /**
+     * Create a new Lua table with this table's contents. The returned table is owned by the caller, and so may be modified.
+     *
+     * @param converted The Java objects which have already been converted to Lua.
+     * @return The new Lua table.
+     */
+    @Nonnull
+    LuaTable toLua(@Nonnull Map<Object, LuaValue> converted) {
+        LuaValue existing = converted.get(this);
+        if (existing != null) return (LuaTable) existing;
+
+        LuaTable table = new LuaTable(arraySize, keys.length - arraySize);
+        converted.put(this, table);
+        for (int i = 0; i < keys.length; i++) table.rawset(toLua(keys[i], converted), toLua(values[i], converted));
+        return table;
+    }
+
+    @Nonnull
+    private static LuaValue toLua(@Nonnull Object value, @Nonnull Map<Object, LuaValue> converted) {
+        return value instanceof FrozenTable table ? table.toLua(converted) : (LuaValue) value;
+    }
+
+    @Nonnull
+    @Override
+    public Set<Entry<Object, Object>> entrySet() {
+        return Collections.unmodifiableMap(contents).entrySet();
+    }
+
+    @Override
+    public int size() {
+        return contents.size();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return contents.containsKey(key);
+    }
+
+    @Override
+    public Object get(Object key) {
+        return contents.get(key);
+    }
+}
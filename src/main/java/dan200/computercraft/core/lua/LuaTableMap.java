@@ -0,0 +1,83 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2020. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.core.lua;
+
+import org.squiddev.cobalt.*;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.*;
+
+import static org.squiddev.cobalt.ValueFactory.valueOf;
+
+/**
+ * A read-only {@link Map} view of a {@link LuaTable}. Entries are only converted to Java objects when they are accessed, and nested tables
+ * are wrapped as further views rather than copied.
+ *
+ * As this reads directly from the table, it must only be used on the computer thread while the function it was passed to is running.
+ *
+ * @see VarargArguments#getTable(int)
+ */
+final class LuaTableMap extends AbstractMap<Object, Object> {
+
+    private final LuaTable table;
+    private Set<Entry<Object, Object>> entries;
+
+    LuaTableMap(LuaTable table) {
+        this.table = table;
+    }
+
+    @Nullable
+    private static LuaValue toKey(@Nullable Object key) {
+        if (key instanceof String) return valueOf((String) key);
+        if (key instanceof Number) return valueOf(((Number) key).doubleValue());
+        if (key instanceof Boolean) return valueOf((Boolean) key);
+        return null;
+    }
+
+    @Nullable
+    private static Object toObject(LuaValue value) {
+        return value.type() == Constants.TTABLE ? new LuaTableMap((LuaTable) value) : CobaltLuaMachine.toObject(value, null);
+    }
+
+    @Override
+    public Object get(Object key) {
+        LuaValue luaKey = toKey(key);
+        return luaKey == null ? null : toObject(table.rawget(luaKey));
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        LuaValue luaKey = toKey(key);
+        return luaKey != null && !table.rawget(luaKey).isNil();
+    }
+
+    @Nonnull
+    @Override
+    public Set<Entry<Object, Object>> entrySet() {
+        if (entries != null) return entries;
+
+        // Iterating the table requires converting every key anyway, so build the full set of entries the first time it's requested.
+        Map<Object, Object> result = new HashMap<>();
+        LuaValue k = Constants.NIL;
+        while (true) {
+            Varargs keyValue;
+            try {
+                keyValue = table.next(k);
+            } catch (LuaError e) {
+                break;
+            }
+            k = keyValue.first();
+            if (k.isNil()) break;
+
+            Object key = toObject(k);
+            Object value = toObject(keyValue.arg(2));
+            if (key != null && value != null) result.put(key, value);
+        }
+
+        return entries = Collections.unmodifiableMap(result).entrySet();
+    }
+}
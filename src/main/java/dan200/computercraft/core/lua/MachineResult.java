@@ -23,39 +23,47 @@ public final class MachineResult {
     /**
      * A successful complete execution.
      */
-    public static final MachineResult OK = new MachineResult(false, false, null);
+    public static final MachineResult OK = new MachineResult(false, false, false, null);
 
     /**
      * A successful paused execution.
      */
-    public static final MachineResult PAUSE = new MachineResult(false, true, null);
+    public static final MachineResult PAUSE = new MachineResult(false, true, false, null);
+
+    /**
+     * A paused execution which is waiting on some external task (such as one on the main thread), and so should not be resumed until the
+     * computer is woken.
+     */
+    public static final MachineResult BLOCKED = new MachineResult(false, true, true, null);
 
     /**
      * An execution which timed out.
      */
-    public static final MachineResult TIMEOUT = new MachineResult(true, false, TimeoutState.ABORT_MESSAGE);
+    public static final MachineResult TIMEOUT = new MachineResult(true, false, false, TimeoutState.ABORT_MESSAGE);
 
     /**
      * An error with no user-friendly error message.
      */
-    public static final MachineResult GENERIC_ERROR = new MachineResult(true, false, null);
+    public static final MachineResult GENERIC_ERROR = new MachineResult(true, false, false, null);
 
     private final boolean error;
     private final boolean pause;
+    private final boolean blocked;
     private final String message;
 
-    private MachineResult(boolean error, boolean pause, String message) {
+    private MachineResult(boolean error, boolean pause, boolean blocked, String message) {
         this.pause = pause;
+        this.blocked = blocked;
         this.message = message;
         this.error = error;
     }
 
     public static MachineResult error(@Nonnull String error) {
-        return new MachineResult(true, false, error);
+        return new MachineResult(true, false, false, error);
     }
 
     public static MachineResult error(@Nonnull Exception error) {
-        return new MachineResult(true, false, error.getMessage());
+        return new MachineResult(true, false, false, error.getMessage());
     }
 
     public boolean isError() {
@@ -66,6 +74,10 @@ public final class MachineResult {
         return pause;
     }
 
+    public boolean isBlocked() {
+        return blocked;
+    }
+
     @Nullable
     public String getMessage() {
         return message;
@@ -0,0 +1,117 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2020. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.core.lua;
+
+import dan200.computercraft.api.lua.ILuaObject;
+import org.squiddev.cobalt.LuaString;
+import org.squiddev.cobalt.ValueFactory;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Arrays;
+
+/**
+ * The method names of an {@link ILuaObject}, already converted to Lua strings.
+ *
+ * These are cached per class, so wrapping an object (such as a file handle) does not need to re-encode every name. This only saves the
+ * key encoding: each wrap still allocates its own table and a function for each method, as those must hold on to the receiver. As some
+ * classes return different methods depending on their state, we keep a small number of variants for each class.
+ *
+ * @see CobaltLuaMachine
+ */
+final class MethodTable {
+
+    private static final int MAX_VARIANTS = 4;
+
+    private static final ClassValue<Variants> CACHE = new ClassValue<Variants>() {
+        @Override
+        protected Variants computeValue(Class<?> type) {
+            return new Variants();
+        }
+    };
+
+    private final String[] names;
+    private final LuaString[] keys;
+    private final int size;
+
+    private MethodTable(String[] names) {
+        this.names = names;
+        keys = new LuaString[names.length];
+
+        int size = 0;
+        for (int i = 0; i < names.length; i++) {
+            if (names[i] == null) continue;
+            keys[i] = ValueFactory.valueOf(names[i]);
+            size++;
+        }
+        this.size = size;
+    }
+
+    /**
+     * Get the method table for an object, reusing a cached one if possible.
+     *
+     * @param object The object to get the methods of.
+     * @return This object's method table.
+     */
+    @Nonnull
+    static MethodTable of(@Nonnull ILuaObject object) {
+        String[] names = object.getMethodNames();
+        Variants variants = CACHE.get(object.getClass());
+
+        // Most objects return a constant array, so check for that before comparing the contents.
+        MethodTable[] tables = variants.tables;
+        for (MethodTable table : tables) {
+            if (table.names == names) return table;
+        }
+        for (MethodTable table : tables) {
+            if (Arrays.equals(table.names, names)) return table;
+        }
+
+        MethodTable table = new MethodTable(names);
+        synchronized (variants) {
+            tables = variants.tables;
+            if (tables.length < MAX_VARIANTS) {
+                tables = Arrays.copyOf(tables, tables.length + 1);
+                tables[tables.length - 1] = table;
+                variants.tables = tables;
+            }
+        }
+        return table;
+    }
+
+    /**
+     * The number of method slots in this table, including any {@code null} ones.
+     *
+     * @return The length of the method array.
+     */
+    int length() {
+        return keys.length;
+    }
+
+    /**
+     * The number of non-{@code null} methods in this table.
+     *
+     * @return The number of methods.
+     */
+    int size() {
+        return size;
+    }
+
+    @Nullable
+    LuaString key(int method) {
+        return keys[method];
+    }
+
+    @Nullable
+    String name(int method) {
+        return names[method];
+    }
+
+    private static final class Variants {
+
+        volatile MethodTable[] tables = new MethodTable[0];
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2020. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.core.lua;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.squiddev.cobalt.*;
+import org.squiddev.cobalt.function.LuaFunction;
+import org.squiddev.cobalt.function.LuaInterpretedFunction;
+import org.squiddev.cobalt.function.VarArgFunction;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A process-wide cache of compiled Lua chunks, shared between every computer.
+ *
+ * Every computer loads the same bios and ROM programs, and so would otherwise compile them again on each boot. Compiled
+ * {@link Prototype}s are immutable, so we instead compile each chunk once and create a new closure from it for every computer which loads
+ * it.
+ *
+ * Chunks are keyed on their name and contents, so an edited file (or a different resource pack) simply results in a new entry. We only
+ * cache chunks loaded from files (those whose name starts with {@code @}), rather than every string passed to {@code loadstring}.
+ *
+ * @see LoadStringFunction
+ */
+final class PrototypeCache {
+
+    /**
+     * Only cache chunks smaller than 1MiB.
+     */
+    private static final int MAX_CACHED_SIZE = 1 << 20;
+
+    /**
+     * Limit the memory held by the cache (both the source code and our estimate of the compiled prototypes) to 32MiB. The ROM is a small
+     * fraction of this.
+     */
+    private static final int MAX_CACHE_SIZE = 32 << 20;
+
+    private static final Cache<Key, Prototype> CACHE = CacheBuilder.newBuilder()
+        .concurrencyLevel(4)
+        .expireAfterAccess(5, TimeUnit.MINUTES)
+        .maximumWeight(MAX_CACHE_SIZE)
+        .<Key, Prototype>weigher((k, v) -> (int) Math.min(Integer.MAX_VALUE, k.contents.length() + estimateSize(v)))
+        .build();
+
+    private PrototypeCache() {
+    }
+
+    @Nullable
+    static Prototype get(@Nonnull LuaString name, @Nonnull LuaString contents) {
+        return isCacheable(name, contents) ? CACHE.getIfPresent(new Key(name, contents)) : null;
+    }
+
+    static void put(@Nonnull LuaString name, @Nonnull LuaString contents, @Nonnull LuaValue function) {
+        if (isCacheable(name, contents) && function instanceof LuaInterpretedFunction) {
+            CACHE.put(new Key(name, contents), ((LuaInterpretedFunction) function).getPrototype());
+        }
+    }
+
+    /**
+     * Estimate how much memory a compiled prototype uses. This does not need to be exact, but should grow with the amount of code and
+     * constants, rather than just the length of the source (a short chunk may contain many large string constants, for instance).
+     *
+     * @param prototype The prototype to measure.
+     * @return The approximate size of this prototype and any nested ones, in bytes.
+     */
+    static long estimateSize(@Nonnull Prototype prototype) {
+        long size = 64 + 4L * prototype.code.length;
+        if (prototype.lineinfo != null) size += 4L * prototype.lineinfo.length;
+        if (prototype.locvars != null) size += 32L * prototype.locvars.length;
+        if (prototype.upvalues != null) size += 8L * prototype.upvalues.length;
+
+        for (LuaValue constant : prototype.k) {
+            size += constant instanceof LuaString ? 32 + ((LuaString) constant).length() : 16;
+        }
+        for (Prototype child : prototype.p) size += estimateSize(child);
+        return size;
+    }
+
+    private static boolean isCacheable(LuaString name, LuaString contents) {
+        return name.length() > 0 && name.bytes[name.offset] == '@'
+            && contents.length() > 0 && contents.length() <= MAX_CACHED_SIZE
+            && contents.bytes[contents.offset] != 27; // Precompiled chunks are already cheap to load.
+    }
+
+    /**
+     * A replacement for the global {@code loadstring} function, which uses the cache when loading a named chunk. The bios's {@code load}
+     * (and so {@code loadfile}, {@code os.run} and {@code require}) is built on top of this. Every other call is passed through to the
+     * original function.
+     */
+    static final class LoadStringFunction extends VarArgFunction {
+
+        private final LuaFunction loadstring;
+
+        LoadStringFunction(LuaFunction loadstring) {
+            this.loadstring = loadstring;
+        }
+
+        @Override
+        public Varargs invoke(LuaState state, Varargs args) throws LuaError {
+            LuaValue chunk = args.first(), name = args.arg(2);
+            if (!(chunk instanceof LuaString) || !(name instanceof LuaString)) return loadstring.invoke(state, args);
+
+            LuaString contents = (LuaString) chunk, chunkName = (LuaString) name;
+            Prototype prototype = get(chunkName, contents);
+            if (prototype != null) return new LuaInterpretedFunction(prototype, state.getCurrentThread().getfenv());
+
+            Varargs result = loadstring.invoke(state, args);
+            put(chunkName, contents, result.first());
+            return result;
+        }
+    }
+
+    private static final class Key {
+
+        final LuaString name;
+        final LuaString contents;
+
+        Key(LuaString name, LuaString contents) {
+            this.name = name;
+            this.contents = contents;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return name.equals(other.name) && contents.equals(other.contents);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * name.hashCode() + contents.hashCode();
+        }
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2020. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.core.lua;
+
+import dan200.computercraft.api.lua.IArguments;
+import dan200.computercraft.api.lua.LuaException;
+import org.squiddev.cobalt.Constants;
+import org.squiddev.cobalt.LuaString;
+import org.squiddev.cobalt.LuaTable;
+import org.squiddev.cobalt.LuaValue;
+import org.squiddev.cobalt.Varargs;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+import static dan200.computercraft.api.lua.ArgumentHelper.badArgument;
+import static dan200.computercraft.api.lua.ArgumentHelper.getNumericType;
+
+/**
+ * An implementation of {@link IArguments} which reads directly from the Lua values passed to a function. Values are only converted to
+ * Java objects when they are requested.
+ *
+ * @see CobaltLuaMachine
+ */
+final class VarargArguments implements IArguments {
+
+    private final Varargs varargs;
+    private final int offset;
+    private final int count;
+
+    VarargArguments(Varargs varargs) {
+        this(varargs, 0);
+    }
+
+    private VarargArguments(Varargs varargs, int offset) {
+        this.varargs = varargs;
+        this.offset = offset;
+        count = Math.max(0, varargs.count() - offset);
+    }
+
+    private LuaValue arg(int index) {
+        return index >= 0 && index < count ? varargs.arg(offset + index + 1) : Constants.NIL;
+    }
+
+    private static boolean isNil(LuaValue value) {
+        return value.type() == Constants.TNIL || value.type() == Constants.TNONE;
+    }
+
+    private static boolean isNumber(LuaValue value) {
+        return value.type() == Constants.TNUMBER || value.type() == Constants.TINT;
+    }
+
+    private static LuaException badArgumentOf(int index, String expected, LuaValue actual) {
+        return badArgument(index, expected, isNil(actual) ? "nil" : actual.typeName());
+    }
+
+    private static double checkFinite(int index, double value) throws LuaException {
+        if (!Double.isFinite(value)) throw badArgument(index, "number", getNumericType(value));
+        return value;
+    }
+
+    @Override
+    public int count() {
+        return count;
+    }
+
+    @Nullable
+    @Override
+    public Object get(int index) {
+        return CobaltLuaMachine.toObject(arg(index), null);
+    }
+
+    @Nullable
+    @Override
+    public Object getTyped(int index) {
+        return CobaltLuaMachine.toObject(arg(index), null, true);
+    }
+
+    @Nonnull
+    @Override
+    public IArguments drop(int count) {
+        if (count < 0) throw new IllegalStateException("count cannot be negative");
+        return count == 0 ? this : new VarargArguments(varargs, offset + count);
+    }
+
+    @Nonnull
+    @Override
+    public Object[] getAll() {
+        return CobaltLuaMachine.toObjects(varargs, offset + 1);
+    }
+
+    @Override
+    public double getDouble(int index) throws LuaException {
+        LuaValue value = arg(index);
+        if (!isNumber(value)) throw badArgumentOf(index, "number", value);
+        return value.toDouble();
+    }
+
+    @Override
+    public long getLong(int index) throws LuaException {
+        LuaValue value = arg(index);
+        if (!isNumber(value)) throw badArgumentOf(index, "number", value);
+        return (long) checkFinite(index, value.toDouble());
+    }
+
+    @Override
+    public double getFiniteDouble(int index) throws LuaException {
+        return checkFinite(index, getDouble(index));
+    }
+
+    @Override
+    public boolean getBoolean(int index) throws LuaException {
+        LuaValue value = arg(index);
+        if (value.type() != Constants.TBOOLEAN) throw badArgumentOf(index, "boolean", value);
+        return value.toBoolean();
+    }
+
+    @Nonnull
+    @Override
+    public String getString(int index) throws LuaException {
+        LuaValue value = arg(index);
+        if (value.type() != Constants.TSTRING) throw badArgumentOf(index, "string", value);
+        return value.toString();
+    }
+
+    @Nonnull
+    @Override
+    public ByteBuffer getBytes(int index) throws LuaException {
+        LuaValue value = arg(index);
+        if (value.type() != Constants.TSTRING) throw badArgumentOf(index, "string", value);
+        return CobaltLuaMachine.toBytes((LuaString) value);
+    }
+
+    @Nonnull
+    @Override
+    public Map<?, ?> getTable(int index) throws LuaException {
+        LuaValue value = arg(index);
+        if (value.type() != Constants.TTABLE) throw badArgumentOf(index, "table", value);
+        return new LuaTableMap((LuaTable) value);
+    }
+
+    @Override
+    public double optDouble(int index, double def) throws LuaException {
+        LuaValue value = arg(index);
+        if (isNil(value)) return def;
+        if (!isNumber(value)) throw badArgumentOf(index, "number", value);
+        return value.toDouble();
+    }
+
+    @Override
+    public long optLong(int index, long def) throws LuaException {
+        LuaValue value = arg(index);
+        if (isNil(value)) return def;
+        if (!isNumber(value)) throw badArgumentOf(index, "number", value);
+        return (long) checkFinite(index, value.toDouble());
+    }
+
+    @Override
+    public boolean optBoolean(int index, boolean def) throws LuaException {
+        LuaValue value = arg(index);
+        if (isNil(value)) return def;
+        if (value.type() != Constants.TBOOLEAN) throw badArgumentOf(index, "boolean", value);
+        return value.toBoolean();
+    }
+
+    @Override
+    public String optString(int index, String def) throws LuaException {
+        LuaValue value = arg(index);
+        if (isNil(value)) return def;
+        if (value.type() != Constants.TSTRING) throw badArgumentOf(index, "string", value);
+        return value.toString();
+    }
+
+    @Override
+    public ByteBuffer optBytes(int index, ByteBuffer def) throws LuaException {
+        LuaValue value = arg(index);
+        if (isNil(value)) return def;
+        if (value.type() != Constants.TSTRING) throw badArgumentOf(index, "string", value);
+        return CobaltLuaMachine.toBytes((LuaString) value);
+    }
+
+    @Override
+    public Map<?, ?> optTable(int index, Map<Object, Object> def) throws LuaException {
+        LuaValue value = arg(index);
+        if (isNil(value)) return def;
+        if (value.type() != Constants.TTABLE) throw badArgumentOf(index, "table", value);
+        return new LuaTableMap((LuaTable) value);
+    }
+}
@@ -7,13 +7,35 @@ package dan200.computercraft.core.terminal;
 
 import dan200.computercraft.shared.util.Colour;
 import dan200.computercraft.shared.util.Palette;
+import io.netty.buffer.Unpooled;
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.network.PacketBuffer;
 
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * A terminal, storing text and colours along with the cursor and palette.
+ *
+ * Each cell is stored as two bytes: the character, and its background and text colour packed into one byte (in the same
+ * {@code background << 4 | text} form as is sent over the network). Rows are held in a ring buffer, starting at {@link #m_firstRow},
+ * so scrolling only needs to clear the rows which come into view.
+ *
+ * The {@link TextBuffer}s returned by {@link #getLine(int)} and friends are live views over this storage, rather than copies. Each view is
+ * tied to a physical row, so follows its contents when the terminal scrolls. Views are only valid until the terminal is next
+ * {@link #resize(int, int) resized}: after that they are detached and read as empty, so callers should fetch lines again rather than
+ * holding on to them.
+ */
 public class Terminal {
 
     private static final String base16 = "0123456789abcdef";
 
+    private static final int PALETTE_BYTES = 16 * 3;
+
+    private static final int TEXT = 0;
+    private static final int TEXT_COLOUR = 1;
+    private static final int BACKGROUND_COLOUR = 2;
+
     private int m_cursorX = 0;
     private int m_cursorY = 0;
     private boolean m_cursorBlink = false;
@@ -23,13 +45,25 @@ public class Terminal {
     private int m_width;
     private int m_height;
 
-    private TextBuffer[] m_text;
-    private TextBuffer[] m_textColour;
-    private TextBuffer[] m_backgroundColour;
+    private byte[] m_text;
+    private byte[] m_colours;
+    private int m_firstRow;
+
+    private Line[] m_textLines;
+    private Line[] m_textColourLines;
+    private Line[] m_backgroundColourLines;
 
     private final Palette m_palette = new Palette();
 
+    /**
+     * The rows which have changed since the last call to {@link #writeDelta(PacketBuffer)}, and the palette which was sent with it.
+     */
+    private final BitSet m_dirtyRows = new BitSet();
+    private final byte[] m_deltaPalette = new byte[PALETTE_BYTES];
+    private boolean m_deltaPaletteSent = false;
+
     private boolean m_changed = false;
+    private int m_version = 0;
     private final Runnable onChanged;
 
     public Terminal(int width, int height) {
@@ -37,18 +71,8 @@ public class Terminal {
     }
 
     public Terminal(int width, int height, Runnable changedCallback) {
-        m_width = width;
-        m_height = height;
         onChanged = changedCallback;
-
-        m_text = new TextBuffer[m_height];
-        m_textColour = new TextBuffer[m_height];
-        m_backgroundColour = new TextBuffer[m_height];
-        for (int i = 0; i < m_height; i++) {
-            m_text[i] = new TextBuffer(' ', m_width);
-            m_textColour[i] = new TextBuffer(base16.charAt(m_cursorColour), m_width);
-            m_backgroundColour[i] = new TextBuffer(base16.charAt(m_cursorBackgroundColour), m_width);
-        }
+        allocate(width, height);
     }
 
     public synchronized void reset() {
@@ -75,39 +99,52 @@ public class Terminal {
             return;
         }
 
-        int oldHeight = m_height;
         int oldWidth = m_width;
-        TextBuffer[] oldText = m_text;
-        TextBuffer[] oldTextColour = m_textColour;
-        TextBuffer[] oldBackgroundColour = m_backgroundColour;
+        int oldHeight = m_height;
+        int oldFirstRow = m_firstRow;
+        byte[] oldText = m_text;
+        byte[] oldColours = m_colours;
 
-        m_width = width;
-        m_height = height;
+        allocate(width, height);
 
-        m_text = new TextBuffer[m_height];
-        m_textColour = new TextBuffer[m_height];
-        m_backgroundColour = new TextBuffer[m_height];
-        for (int i = 0; i < m_height; i++) {
-            if (i >= oldHeight) {
-                m_text[i] = new TextBuffer(' ', m_width);
-                m_textColour[i] = new TextBuffer(base16.charAt(m_cursorColour), m_width);
-                m_backgroundColour[i] = new TextBuffer(base16.charAt(m_cursorBackgroundColour), m_width);
-            } else if (m_width == oldWidth) {
-                m_text[i] = oldText[i];
-                m_textColour[i] = oldTextColour[i];
-                m_backgroundColour[i] = oldBackgroundColour[i];
-            } else {
-                m_text[i] = new TextBuffer(' ', m_width);
-                m_textColour[i] = new TextBuffer(base16.charAt(m_cursorColour), m_width);
-                m_backgroundColour[i] = new TextBuffer(base16.charAt(m_cursorBackgroundColour), m_width);
-                m_text[i].write(oldText[i]);
-                m_textColour[i].write(oldTextColour[i]);
-                m_backgroundColour[i].write(oldBackgroundColour[i]);
-            }
+        int copyWidth = Math.min(oldWidth, width);
+        for (int y = 0, rows = Math.min(oldHeight, height); y < rows; y++) {
+            int oldOffset = ((oldFirstRow + y) % oldHeight) * oldWidth;
+            System.arraycopy(oldText, oldOffset, m_text, y * width, copyWidth);
+            System.arraycopy(oldColours, oldOffset, m_colours, y * width, copyWidth);
         }
         setChanged();
     }
 
+    private void allocate(int width, int height) {
+        m_width = width;
+        m_height = height;
+        m_firstRow = 0;
+
+        m_text = new byte[width * height];
+        m_colours = new byte[width * height];
+        Arrays.fill(m_text, (byte) ' ');
+        Arrays.fill(m_colours, cursorColours());
+
+        // Detach any existing views, so they do not read rows of the new storage.
+        detach(m_textLines);
+        detach(m_textColourLines);
+        detach(m_backgroundColourLines);
+
+        m_textLines = new Line[height];
+        m_textColourLines = new Line[height];
+        m_backgroundColourLines = new Line[height];
+        for (int i = 0; i < height; i++) {
+            m_textLines[i] = new Line(i, TEXT);
+            m_textColourLines[i] = new Line(i, TEXT_COLOUR);
+            m_backgroundColourLines[i] = new Line(i, BACKGROUND_COLOUR);
+        }
+
+        // Rows from the old size may no longer exist, so start afresh.
+        m_dirtyRows.clear();
+        m_dirtyRows.set(0, height);
+    }
+
     public void setCursorPos(int x, int y) {
         if (m_cursorX != x || m_cursorY != y) {
             m_cursorX = x;
@@ -165,9 +202,17 @@ public class Terminal {
         int x = m_cursorX;
         int y = m_cursorY;
         if (y >= 0 && y < m_height) {
-            m_text[y].write(text, x);
-            m_textColour[y].write(textColour, x);
-            m_backgroundColour[y].write(backgroundColour, x);
+            int row = rowOffset(y);
+            for (int i = Math.max(x, 0), end = Math.min(x + text.length(), m_width); i < end; i++) {
+                m_text[row + i] = (byte) text.charAt(i - x);
+            }
+            for (int i = Math.max(x, 0), end = Math.min(x + textColour.length(), m_width); i < end; i++) {
+                setColour(row + i, TEXT_COLOUR, textColour.charAt(i - x));
+            }
+            for (int i = Math.max(x, 0), end = Math.min(x + backgroundColour.length(), m_width); i < end; i++) {
+                setColour(row + i, BACKGROUND_COLOUR, backgroundColour.charAt(i - x));
+            }
+            m_dirtyRows.set(y);
             setChanged();
         }
     }
@@ -176,84 +221,116 @@ public class Terminal {
         int x = m_cursorX;
         int y = m_cursorY;
         if (y >= 0 && y < m_height) {
-            m_text[y].write(text, x);
-            m_textColour[y].fill(base16.charAt(m_cursorColour), x, x + text.length());
-            m_backgroundColour[y].fill(base16.charAt(m_cursorBackgroundColour), x, x + text.length());
+            int row = rowOffset(y);
+            int start = Math.max(x, 0), end = Math.min(x + text.length(), m_width);
+            for (int i = start; i < end; i++) m_text[row + i] = (byte) text.charAt(i - x);
+            if (start < end) Arrays.fill(m_colours, row + start, row + end, cursorColours());
+            m_dirtyRows.set(y);
             setChanged();
         }
     }
 
     public synchronized void scroll(int yDiff) {
         if (yDiff != 0) {
-            TextBuffer[] newText = new TextBuffer[m_height];
-            TextBuffer[] newTextColour = new TextBuffer[m_height];
-            TextBuffer[] newBackgroundColour = new TextBuffer[m_height];
-            for (int y = 0; y < m_height; y++) {
-                int oldY = y + yDiff;
-                if (oldY >= 0 && oldY < m_height) {
-                    newText[y] = m_text[oldY];
-                    newTextColour[y] = m_textColour[oldY];
-                    newBackgroundColour[y] = m_backgroundColour[oldY];
+            if (yDiff >= m_height || -yDiff >= m_height) {
+                for (int y = 0; y < m_height; y++) clearRow(y);
+            } else {
+                m_firstRow = Math.floorMod(m_firstRow + yDiff, m_height);
+                if (yDiff > 0) {
+                    for (int y = m_height - yDiff; y < m_height; y++) clearRow(y);
                 } else {
-                    newText[y] = new TextBuffer(' ', m_width);
-                    newTextColour[y] = new TextBuffer(base16.charAt(m_cursorColour), m_width);
-                    newBackgroundColour[y] = new TextBuffer(base16.charAt(m_cursorBackgroundColour), m_width);
+                    for (int y = 0; y < -yDiff; y++) clearRow(y);
                 }
             }
-            m_text = newText;
-            m_textColour = newTextColour;
-            m_backgroundColour = newBackgroundColour;
+            m_dirtyRows.set(0, m_height);
             setChanged();
         }
     }
 
     public synchronized void clear() {
-        for (int y = 0; y < m_height; y++) {
-            m_text[y].fill(' ');
-            m_textColour[y].fill(base16.charAt(m_cursorColour));
-            m_backgroundColour[y].fill(base16.charAt(m_cursorBackgroundColour));
-        }
+        Arrays.fill(m_text, (byte) ' ');
+        Arrays.fill(m_colours, cursorColours());
+        m_dirtyRows.set(0, m_height);
         setChanged();
     }
 
     public synchronized void clearLine() {
         int y = m_cursorY;
         if (y >= 0 && y < m_height) {
-            m_text[y].fill(' ');
-            m_textColour[y].fill(base16.charAt(m_cursorColour));
-            m_backgroundColour[y].fill(base16.charAt(m_cursorBackgroundColour));
+            clearRow(y);
+            m_dirtyRows.set(y);
             setChanged();
         }
     }
 
+    private static void detach(Line[] lines) {
+        if (lines == null) return;
+        for (Line line : lines) line.detached = true;
+    }
+
+    /**
+     * Get a view of a line's text. This remains valid (and follows the line's contents when scrolling) until the terminal is resized.
+     *
+     * @param y The line to get.
+     * @return The line's text, or {@code null} if it is out of bounds.
+     */
     public synchronized TextBuffer getLine(int y) {
         if (y >= 0 && y < m_height) {
-            return m_text[y];
+            return m_textLines[physicalRow(y)];
         }
         return null;
     }
 
     public synchronized void setLine(int y, String text, String textColour, String backgroundColour) {
-        m_text[y].write(text);
-        m_textColour[y].write(textColour);
-        m_backgroundColour[y].write(backgroundColour);
+        int row = physicalRow(y);
+        m_textLines[row].write(text);
+        m_textColourLines[row].write(textColour);
+        m_backgroundColourLines[row].write(backgroundColour);
+        m_dirtyRows.set(y);
         setChanged();
     }
 
     public synchronized TextBuffer getTextColourLine(int y) {
         if (y >= 0 && y < m_height) {
-            return m_textColour[y];
+            return m_textColourLines[physicalRow(y)];
         }
         return null;
     }
 
     public synchronized TextBuffer getBackgroundColourLine(int y) {
         if (y >= 0 && y < m_height) {
-            return m_backgroundColour[y];
+            return m_backgroundColourLines[physicalRow(y)];
         }
         return null;
     }
 
+    private int physicalRow(int y) {
+        if (y < 0 || y >= m_height) throw new IndexOutOfBoundsException("Row " + y + " is out of bounds");
+        int row = m_firstRow + y;
+        return row >= m_height ? row - m_height : row;
+    }
+
+    private int rowOffset(int y) {
+        return physicalRow(y) * m_width;
+    }
+
+    private byte cursorColours() {
+        return (byte) ((m_cursorBackgroundColour & 0xF) << 4 | (m_cursorColour & 0xF));
+    }
+
+    private void clearRow(int y) {
+        int row = rowOffset(y);
+        Arrays.fill(m_text, row, row + m_width, (byte) ' ');
+        Arrays.fill(m_colours, row, row + m_width, cursorColours());
+    }
+
+    private void setColour(int cell, int kind, char colour) {
+        byte packed = m_colours[cell];
+        m_colours[cell] = kind == TEXT_COLOUR
+            ? (byte) (packed & 0xF0 | getColour(colour, Colour.White))
+            : (byte) (packed & 0x0F | getColour(colour, Colour.Black) << 4);
+    }
+
     /**
      * Determine whether this terminal has changed.
      *
@@ -267,6 +344,7 @@ public class Terminal {
 
     public final void setChanged() {
         m_changed = true;
+        m_version++;
         if (onChanged != null) onChanged.run();
     }
 
@@ -274,27 +352,98 @@ public class Terminal {
         m_changed = false;
     }
 
+    /**
+     * Get a counter which is incremented every time this terminal changes. Unlike {@link #getChanged()}, this may be observed by
+     * several consumers independently.
+     *
+     * @return The terminal's current version.
+     */
+    public final int getVersion() {
+        return m_version;
+    }
+
     public synchronized void write(PacketBuffer buffer) {
-        buffer.writeInt(m_cursorX);
-        buffer.writeInt(m_cursorY);
-        buffer.writeBoolean(m_cursorBlink);
-        buffer.writeByte(m_cursorBackgroundColour << 4 | m_cursorColour);
+        writeCursor(buffer);
+        for (int y = 0; y < m_height; y++) writeRow(buffer, y);
+        m_palette.write(buffer);
 
-        for (int y = 0; y < m_height; y++) {
-            TextBuffer text = m_text[y];
-            TextBuffer textColour = m_textColour[y];
-            TextBuffer backColour = m_backgroundColour[y];
+        // This may be sent to a client which then receives deltas, and whose palette may not match the one last sent in a delta.
+        m_deltaPaletteSent = false;
+    }
 
-            for (int x = 0; x < m_width; x++) {
-                buffer.writeByte(text.charAt(x) & 0xFF);
-                buffer.writeByte(getColour(backColour.charAt(x), Colour.Black) << 4 | getColour(textColour.charAt(x), Colour.White));
-            }
+    public synchronized void read(PacketBuffer buffer) {
+        readCursor(buffer);
+        for (int y = 0; y < m_height; y++) readRow(buffer, y);
+        m_palette.read(buffer);
+        m_dirtyRows.set(0, m_height);
+        setChanged();
+    }
+
+    /**
+     * Write the parts of this terminal which have changed since the last call to this method: the cursor, every row which has been
+     * modified and the palette if it is different. This is read with {@link #readDelta(PacketBuffer)}, and should be applied to a
+     * terminal of the same size.
+     *
+     * Rows are written in full, so a delta may also be applied to a terminal which is newer than the one the previous delta was taken
+     * from, such as one which has just received a full {@link #write(PacketBuffer)}.
+     *
+     * @param buffer The buffer to write to.
+     */
+    public synchronized void writeDelta(PacketBuffer buffer) {
+        writeCursor(buffer);
+
+        buffer.writeVarInt(m_dirtyRows.cardinality());
+        for (int y = m_dirtyRows.nextSetBit(0); y >= 0; y = m_dirtyRows.nextSetBit(y + 1)) {
+            buffer.writeVarInt(y);
+            writeRow(buffer, y);
+        }
+        m_dirtyRows.clear();
+
+        byte[] palette = new byte[PALETTE_BYTES];
+        m_palette.write(new PacketBuffer(Unpooled.wrappedBuffer(palette).writerIndex(0)));
+        if (m_deltaPaletteSent && Arrays.equals(palette, m_deltaPalette)) {
+            buffer.writeBoolean(false);
+        } else {
+            buffer.writeBoolean(true);
+            buffer.writeBytes(palette);
+            System.arraycopy(palette, 0, m_deltaPalette, 0, PALETTE_BYTES);
+            m_deltaPaletteSent = true;
         }
+    }
 
-        m_palette.write(buffer);
+    /**
+     * Discard the changes which would be written by {@link #writeDelta(PacketBuffer)}, such as when nobody needs to be sent them.
+     */
+    public synchronized void clearDelta() {
+        m_dirtyRows.clear();
+
+        // Whoever next receives a delta may have missed palette changes made in the meantime.
+        m_deltaPaletteSent = false;
     }
 
-    public synchronized void read(PacketBuffer buffer) {
+    public synchronized void readDelta(PacketBuffer buffer) {
+        readCursor(buffer);
+
+        int rows = buffer.readVarInt();
+        for (int i = 0; i < rows; i++) {
+            int y = buffer.readVarInt();
+            if (y < 0 || y >= m_height) throw new IndexOutOfBoundsException("Row " + y + " is out of bounds");
+            readRow(buffer, y);
+            m_dirtyRows.set(y);
+        }
+
+        if (buffer.readBoolean()) m_palette.read(buffer);
+        setChanged();
+    }
+
+    private void writeCursor(PacketBuffer buffer) {
+        buffer.writeInt(m_cursorX);
+        buffer.writeInt(m_cursorY);
+        buffer.writeBoolean(m_cursorBlink);
+        buffer.writeByte(m_cursorBackgroundColour << 4 | m_cursorColour);
+    }
+
+    private void readCursor(PacketBuffer buffer) {
         m_cursorX = buffer.readInt();
         m_cursorY = buffer.readInt();
         m_cursorBlink = buffer.readBoolean();
@@ -302,23 +451,24 @@ public class Terminal {
         byte cursorColour = buffer.readByte();
         m_cursorBackgroundColour = (cursorColour >> 4) & 0xF;
         m_cursorColour = cursorColour & 0xF;
+    }
 
-        for (int y = 0; y < m_height; y++) {
-            TextBuffer text = m_text[y];
-            TextBuffer textColour = m_textColour[y];
-            TextBuffer backColour = m_backgroundColour[y];
-
-            for (int x = 0; x < m_width; x++) {
-                text.setChar(x, (char) (buffer.readByte() & 0xFF));
-
-                byte colour = buffer.readByte();
-                backColour.setChar(x, base16.charAt((colour >> 4) & 0xF));
-                textColour.setChar(x, base16.charAt(colour & 0xF));
-            }
-        }
+    /**
+     * Write a single row: its characters followed by its packed colours. As these are stored in the same form, this is just a copy.
+     *
+     * @param buffer The buffer to write to.
+     * @param y      The row to write.
+     */
+    private void writeRow(PacketBuffer buffer, int y) {
+        int row = rowOffset(y);
+        buffer.writeBytes(m_text, row, m_width);
+        buffer.writeBytes(m_colours, row, m_width);
+    }
 
-        m_palette.read(buffer);
-        setChanged();
+    private void readRow(PacketBuffer buffer, int y) {
+        int row = rowOffset(y);
+        buffer.readBytes(m_text, row, m_width);
+        buffer.readBytes(m_colours, row, m_width);
     }
 
     public synchronized NBTTagCompound writeToNBT(NBTTagCompound nbt) {
@@ -328,9 +478,10 @@ public class Terminal {
         nbt.setInteger("term_textColour", m_cursorColour);
         nbt.setInteger("term_bgColour", m_cursorBackgroundColour);
         for (int n = 0; n < m_height; n++) {
-            nbt.setString("term_text_" + n, m_text[n].toString());
-            nbt.setString("term_textColour_" + n, m_textColour[n].toString());
-            nbt.setString("term_textBgColour_" + n, m_backgroundColour[n].toString());
+            int row = physicalRow(n);
+            nbt.setString("term_text_" + n, m_textLines[row].toString());
+            nbt.setString("term_textColour_" + n, m_textColourLines[row].toString());
+            nbt.setString("term_textBgColour_" + n, m_backgroundColourLines[row].toString());
         }
 
         m_palette.writeToNBT(nbt);
@@ -344,22 +495,22 @@ public class Terminal {
         m_cursorColour = nbt.getInteger("term_textColour");
         m_cursorBackgroundColour = nbt.getInteger("term_bgColour");
 
+        clear();
         for (int n = 0; n < m_height; n++) {
-            m_text[n].fill(' ');
+            int row = physicalRow(n);
             if (nbt.hasKey("term_text_" + n)) {
-                m_text[n].write(nbt.getString("term_text_" + n));
+                m_textLines[row].write(nbt.getString("term_text_" + n));
             }
-            m_textColour[n].fill(base16.charAt(m_cursorColour));
             if (nbt.hasKey("term_textColour_" + n)) {
-                m_textColour[n].write(nbt.getString("term_textColour_" + n));
+                m_textColourLines[row].write(nbt.getString("term_textColour_" + n));
             }
-            m_backgroundColour[n].fill(base16.charAt(m_cursorBackgroundColour));
             if (nbt.hasKey("term_textBgColour_" + n)) {
-                m_backgroundColour[n].write(nbt.getString("term_textBgColour_" + n));
+                m_backgroundColourLines[row].write(nbt.getString("term_textBgColour_" + n));
             }
         }
 
         m_palette.readFromNBT(nbt);
+        m_dirtyRows.set(0, m_height);
         setChanged();
     }
 
@@ -368,4 +519,53 @@ public class Terminal {
         if (c >= 'a' && c <= 'f') return c - 'a' + 10;
         return 15 - def.ordinal();
     }
+
+    /**
+     * A view over one row of this terminal's text or colours. This is tied to a physical row rather than a line number, so moves along
+     * with its contents when the terminal is scrolled.
+     *
+     * Once the terminal is resized, the view is {@link #detached} and has no contents, rather than reading whichever row now has the
+     * same index.
+     */
+    private final class Line extends TextBuffer {
+
+        private final int row;
+        private final int kind;
+        boolean detached;
+
+        Line(int row, int kind) {
+            this.row = row;
+            this.kind = kind;
+        }
+
+        @Override
+        public int length() {
+            return detached ? 0 : m_width;
+        }
+
+        @Override
+        public char charAt(int i) {
+            if (i < 0 || i >= length()) throw new IndexOutOfBoundsException(Integer.toString(i));
+            int cell = row * m_width + i;
+            switch (kind) {
+                case TEXT:
+                    return (char) (m_text[cell] & 0xFF);
+                case TEXT_COLOUR:
+                    return base16.charAt(m_colours[cell] & 0xF);
+                default:
+                    return base16.charAt((m_colours[cell] >> 4) & 0xF);
+            }
+        }
+
+        @Override
+        void set(int i, char c) {
+            if (detached) return;
+            int cell = row * m_width + i;
+            if (kind == TEXT) {
+                m_text[cell] = (byte) c;
+            } else {
+                setColour(cell, kind, c);
+            }
+        }
+    }
 }
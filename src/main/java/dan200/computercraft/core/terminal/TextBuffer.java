@@ -5,10 +5,24 @@
  */
 package dan200.computercraft.core.terminal;
 
+/**
+ * A line of text, or of colours.
+ *
+ * Lines returned by a {@link Terminal} do not own their characters, but are instead views over the terminal's packed cell storage. They
+ * override {@link #length()}, {@link #charAt(int)} and {@link #set(int, char)}, which every other method is built on.
+ */
 public class TextBuffer {
 
     private final char[] m_text;
 
+    /**
+     * Create a buffer with no storage of its own. Subclasses must override {@link #length()}, {@link #charAt(int)} and
+     * {@link #set(int, char)}.
+     */
+    TextBuffer() {
+        m_text = null;
+    }
+
     public TextBuffer(char c, int length) {
         m_text = new char[length];
         for (int i = 0; i < length; i++) {
@@ -49,18 +63,22 @@ public class TextBuffer {
     }
 
     public String read() {
-        return read(0, m_text.length);
+        return read(0, length());
     }
 
     public String read(int start) {
-        return read(start, m_text.length);
+        return read(start, length());
     }
 
     public String read(int start, int end) {
         start = Math.max(start, 0);
-        end = Math.min(end, m_text.length);
+        end = Math.min(end, length());
         int textLength = Math.max(end - start, 0);
-        return new String(m_text, start, textLength);
+        if (m_text != null) return new String(m_text, start, textLength);
+
+        char[] chars = new char[textLength];
+        for (int i = 0; i < textLength; i++) chars[i] = charAt(start + i);
+        return new String(chars);
     }
 
     public void write(String text) {
@@ -75,9 +93,9 @@ public class TextBuffer {
         int pos = start;
         start = Math.max(start, 0);
         end = Math.min(end, pos + text.length());
-        end = Math.min(end, m_text.length);
+        end = Math.min(end, length());
         for (int i = start; i < end; i++) {
-            m_text[i] = text.charAt(i - pos);
+            set(i, text.charAt(i - pos));
         }
     }
 
@@ -93,63 +111,63 @@ public class TextBuffer {
         int pos = start;
         start = Math.max(start, 0);
         end = Math.min(end, pos + text.length());
-        end = Math.min(end, m_text.length);
+        end = Math.min(end, length());
         for (int i = start; i < end; i++) {
-            m_text[i] = text.charAt(i - pos);
+            set(i, text.charAt(i - pos));
         }
     }
 
     public void fill(char c) {
-        fill(c, 0, m_text.length);
+        fill(c, 0, length());
     }
 
     public void fill(char c, int start) {
-        fill(c, start, m_text.length);
+        fill(c, start, length());
     }
 
     public void fill(char c, int start, int end) {
         start = Math.max(start, 0);
-        end = Math.min(end, m_text.length);
+        end = Math.min(end, length());
         for (int i = start; i < end; i++) {
-            m_text[i] = c;
+            set(i, c);
         }
     }
 
     public void fill(String text) {
-        fill(text, 0, m_text.length);
+        fill(text, 0, length());
     }
 
     public void fill(String text, int start) {
-        fill(text, start, m_text.length);
+        fill(text, start, length());
     }
 
     public void fill(String text, int start, int end) {
         int pos = start;
         start = Math.max(start, 0);
-        end = Math.min(end, m_text.length);
+        end = Math.min(end, length());
 
         int textLength = text.length();
         for (int i = start; i < end; i++) {
-            m_text[i] = text.charAt((i - pos) % textLength);
+            set(i, text.charAt((i - pos) % textLength));
         }
     }
 
     public void fill(TextBuffer text) {
-        fill(text, 0, m_text.length);
+        fill(text, 0, length());
     }
 
     public void fill(TextBuffer text, int start) {
-        fill(text, start, m_text.length);
+        fill(text, start, length());
     }
 
     public void fill(TextBuffer text, int start, int end) {
         int pos = start;
         start = Math.max(start, 0);
-        end = Math.min(end, m_text.length);
+        end = Math.min(end, length());
 
         int textLength = text.length();
         for (int i = start; i < end; i++) {
-            m_text[i] = text.charAt((i - pos) % textLength);
+            set(i, text.charAt((i - pos) % textLength));
         }
     }
 
@@ -158,12 +176,22 @@ public class TextBuffer {
     }
 
     public void setChar(int i, char c) {
-        if (i >= 0 && i < m_text.length) {
-            m_text[i] = c;
+        if (i >= 0 && i < length()) {
+            set(i, c);
         }
     }
 
+    /**
+     * Set a character, without checking it is in bounds.
+     *
+     * @param i The index to set.
+     * @param c The character to set it to.
+     */
+    void set(int i, char c) {
+        m_text[i] = c;
+    }
+
     public String toString() {
-        return new String(m_text);
+        return read();
     }
 }
@@ -11,6 +11,9 @@ import dan200.computercraft.ComputerCraft;
 import dan200.computercraft.api.turtle.event.TurtleAction;
 import dan200.computercraft.core.apis.AddressPredicate;
 import dan200.computercraft.core.apis.http.websocket.Websocket;
+import dan200.computercraft.core.computer.ComputerThread;
+import dan200.computercraft.core.lua.CoroutineExecutor;
+import dan200.computercraft.shared.network.client.TerminalCodec;
 import dan200.computercraft.shared.peripheral.monitor.MonitorRenderer;
 import net.minecraftforge.common.config.ConfigCategory;
 import net.minecraftforge.common.config.ConfigElement;
@@ -50,8 +53,13 @@ public final class Config {
     private static Property commandRequireCreative;
 
     private static Property computerThreads;
+    private static Property maxComputerThreads;
+    private static Property computerWorkStealing;
+    private static Property coroutineExecutor;
+    private static Property coroutineCarrierThreads;
     private static Property maxMainGlobalTime;
     private static Property maxMainComputerTime;
+    private static Property suspendOnMainThreadTask;
 
     private static Property httpEnable;
     private static Property httpWebsocketEnable;
@@ -72,7 +80,10 @@ public final class Config {
     private static Property modemHighAltitudeRangeDuringStorm;
     private static Property maxNotesPerTick;
     private static Property monitorRenderer;
+    private static Property monitorDistance;
     private static Property monitorBandwidth;
+    private static Property monitorPlayerBandwidth;
+    private static Property terminalCodec;
 
     private static Property turtlesNeedFuel;
     private static Property turtleFuelLimit;
@@ -139,11 +150,33 @@ public final class Config {
                     "servers, and generally shouldn't need to be touched");
 
             computerThreads = config.get(CATEGORY_EXECUTION, "computer_threads", ComputerCraft.computer_threads);
-            computerThreads.setMinValue(1).setRequiresMcRestart(true).setComment(
+            computerThreads.setMinValue(1).setComment(
                 "Set the number of threads computers can run on. A higher number means more computers can " +
                     "run at once, but may induce lag.\n" +
                     "Please note that some mods may not work with a thread count higher than 1. Use with caution.");
 
+            maxComputerThreads = config.get(CATEGORY_EXECUTION, "max_computer_threads", ComputerCraft.maxComputerThreads);
+            maxComputerThreads.setMinValue(0).setComment(
+                "The maximum number of threads computers can run on. If this is larger than computer_threads, threads will be " +
+                    "added while computers are waiting to run, and removed again once they are idle. Set to 0 to disable.");
+
+            computerWorkStealing = config.get(CATEGORY_EXECUTION, "work_stealing", ComputerCraft.computerWorkStealing);
+            computerWorkStealing.setRequiresMcRestart(true).setComment(
+                "Give each computer thread its own queue of computers to run, with idle threads taking work from busy ones.\n" +
+                    "This reduces contention between threads when running many computers on several threads, but has no " +
+                    "benefit when computer_threads is 1.");
+
+            coroutineExecutor = config.get(CATEGORY_EXECUTION, "coroutine_executor", ComputerCraft.coroutineExecutor.displayName());
+            coroutineExecutor.setComment("The threads to run Lua coroutines on. \"platform\" gives each coroutine a normal thread. " +
+                                             "\"virtual\" uses virtual threads, which are much cheaper but require Java 21 or later. " +
+                                             "\"best\" uses virtual threads when they are supported, and normal threads otherwise.");
+            coroutineExecutor.setValidValues(CoroutineExecutor.NAMES);
+
+            coroutineCarrierThreads = config.get(CATEGORY_EXECUTION, "coroutine_carrier_threads", ComputerCraft.coroutineCarrierThreads);
+            coroutineCarrierThreads.setMinValue(0).setRequiresMcRestart(true).setComment(
+                "The number of threads virtual threads are run on. This has no effect if virtual threads are not used, or if the " +
+                    "limit has already been set with -Djdk.virtualThreadScheduler.parallelism. Set to 0 to use Java's default.");
+
             maxMainGlobalTime = config.get(CATEGORY_EXECUTION, "max_main_global_time",
                                            (int) TimeUnit.NANOSECONDS.toMillis(ComputerCraft.maxMainGlobalTime));
             maxMainGlobalTime.setMinValue(1).setComment(
@@ -158,7 +191,14 @@ public final class Config {
                     "Note, we will quite possibly go over this limit, as there's no way to tell how long a will take - this aims " +
                     "to be the upper bound of the average time.");
 
-            setOrder(CATEGORY_EXECUTION, computerThreads, maxMainGlobalTime, maxMainComputerTime);
+            suspendOnMainThreadTask = config.get(CATEGORY_EXECUTION, "suspend_on_main_thread_task", ComputerCraft.suspendOnMainThreadTask);
+            suspendOnMainThreadTask.setComment(
+                "Suspend the whole computer while it waits for a peripheral call to run on the server thread, rather than just the " +
+                    "coroutine which made the call. This frees up the computer thread sooner, but means several peripheral calls made " +
+                    "in parallel (such as with parallel.waitForAll) will take a tick each, rather than all completing in the same tick.");
+
+            setOrder(CATEGORY_EXECUTION, computerThreads, maxComputerThreads, computerWorkStealing, coroutineExecutor,
+                     coroutineCarrierThreads, maxMainGlobalTime, maxMainComputerTime, suspendOnMainThreadTask);
         }
 
         { // HTTP
@@ -268,6 +308,12 @@ public final class Config {
                                            "monitors have performance issues, you may wish to experiment with alternative renderers.");
             monitorRenderer.setValidValues(MonitorRenderer.NAMES);
 
+            monitorDistance = config.get(CATEGORY_PERIPHERAL, "monitor_distance", ComputerCraft.monitorDistance);
+            monitorDistance.setComment("The distance (in blocks) beyond which monitors are drawn blank rather than showing their " +
+                                           "text. This can help performance when there are many large monitors in view.\n" +
+                                           "Set to 0 to always draw text.");
+            monitorDistance.setMinValue(0);
+
             monitorBandwidth = config.get(CATEGORY_PERIPHERAL, "monitor_bandwidth", (int) ComputerCraft.monitorBandwidth);
             monitorBandwidth.setComment("The limit to how much monitor data can be sent *per tick*. Note:\n" +
                                             " - Bandwidth is measured before compression, so the data sent to the client is smaller.\n" +
@@ -279,8 +325,23 @@ public final class Config {
             monitorBandwidth.setValidValues(MonitorRenderer.NAMES);
             monitorBandwidth.setMinValue(0);
 
+            monitorPlayerBandwidth = config.get(CATEGORY_PERIPHERAL, "monitor_player_bandwidth",
+                                                (int) ComputerCraft.monitorPlayerBandwidth);
+            monitorPlayerBandwidth.setComment("The limit to how much monitor data can be sent to each player *per tick*. Monitors " +
+                                                  "closest to the player are sent first, and any which do not fit are sent (at their " +
+                                                  "latest state) on a later tick. This is measured in the same way as " +
+                                                  "monitor_bandwidth.\nSet to 0 to disable.");
+            monitorPlayerBandwidth.setMinValue(0);
+
+            terminalCodec = config.get(CATEGORY_PERIPHERAL, "terminal_codec", ComputerCraft.terminalCodec.displayName());
+            terminalCodec.setComment("How to compress computer and monitor terminals before sending them to players. \"deflate\" " +
+                                         "sends the least data, \"fast\" uses much less CPU time for slightly larger packets, and " +
+                                         "\"none\" disables compression entirely.");
+            terminalCodec.setValidValues(TerminalCodec.NAMES);
+
             setOrder(CATEGORY_PERIPHERAL, commandBlockEnabled, modemRange, modemHighAltitudeRange, modemRangeDuringStorm,
-                     modemHighAltitudeRangeDuringStorm, maxNotesPerTick, monitorRenderer, monitorBandwidth);
+                     modemHighAltitudeRangeDuringStorm, maxNotesPerTick, monitorRenderer, monitorDistance, monitorBandwidth,
+                     monitorPlayerBandwidth, terminalCodec);
         }
 
         { // Turtles
@@ -421,8 +482,13 @@ public final class Config {
 
         // Execution
         ComputerCraft.computer_threads = computerThreads.getInt();
+        ComputerCraft.maxComputerThreads = Math.max(0, maxComputerThreads.getInt());
+        ComputerCraft.computerWorkStealing = computerWorkStealing.getBoolean();
+        ComputerCraft.coroutineExecutor = CoroutineExecutor.ofString(coroutineExecutor.getString());
+        ComputerCraft.coroutineCarrierThreads = Math.max(0, coroutineCarrierThreads.getInt());
         ComputerCraft.maxMainGlobalTime = TimeUnit.MILLISECONDS.toNanos(Math.max(1, maxMainGlobalTime.getLong()));
         ComputerCraft.maxMainComputerTime = TimeUnit.MILLISECONDS.toNanos(Math.max(1, maxMainComputerTime.getLong()));
+        ComputerCraft.suspendOnMainThreadTask = suspendOnMainThreadTask.getBoolean();
 
         // HTTP
         ComputerCraft.http_enable = httpEnable.getBoolean();
@@ -445,7 +511,10 @@ public final class Config {
         ComputerCraft.modem_rangeDuringStorm = Math.min(modemRangeDuringStorm.getInt(), MODEM_MAX_RANGE);
         ComputerCraft.modem_highAltitudeRangeDuringStorm = Math.min(modemHighAltitudeRangeDuringStorm.getInt(), MODEM_MAX_RANGE);
         ComputerCraft.monitorRenderer = MonitorRenderer.ofString(monitorRenderer.getString());
+        ComputerCraft.monitorDistance = Math.max(0, monitorDistance.getInt());
         ComputerCraft.monitorBandwidth = Math.max(0, monitorBandwidth.getLong());
+        ComputerCraft.monitorPlayerBandwidth = Math.max(0, monitorPlayerBandwidth.getLong());
+        ComputerCraft.terminalCodec = TerminalCodec.ofString(terminalCodec.getString());
 
         // Turtles
         ComputerCraft.turtlesNeedFuel = turtlesNeedFuel.getBoolean();
@@ -465,6 +534,8 @@ public final class Config {
         }
 
         config.save();
+
+        ComputerThread.updateThreadCount();
     }
 
     public static List<IConfigElement> getConfigElements() {
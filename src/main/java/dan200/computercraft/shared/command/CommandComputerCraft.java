@@ -20,6 +20,7 @@ import dan200.computercraft.shared.command.text.TableBuilder;
 import dan200.computercraft.shared.computer.core.ComputerFamily;
 import dan200.computercraft.shared.computer.core.ServerComputer;
 import dan200.computercraft.shared.network.Containers;
+import dan200.computercraft.shared.peripheral.monitor.MonitorWatcher;
 import net.minecraft.command.CommandBase;
 import net.minecraft.command.CommandException;
 import net.minecraft.command.ICommandSender;
@@ -271,6 +272,16 @@ public final class CommandComputerCraft extends CommandDelegate {
                     return super.getCompletion(context, arguments);
                 }
             }
+        }).register(new SubCommandBase("monitors", UserLevel.OWNER_OP) {
+
+            @Override
+            public void execute(@Nonnull CommandContext context, @Nonnull List<String> arguments) {
+                ICommandSender sender = context.getSender();
+                sender.sendMessage(translate("commands.computercraft.track.monitors.sent", MonitorWatcher.getSentUpdates(),
+                                             MonitorWatcher.getSentBytes()));
+                sender.sendMessage(translate("commands.computercraft.track.monitors.deferred", MonitorWatcher.getDeferredUpdates(),
+                                             MonitorWatcher.getDeferredBytes()));
+            }
         }));
 
         root.register(new SubCommandBase("reload", UserLevel.OWNER_OP) {
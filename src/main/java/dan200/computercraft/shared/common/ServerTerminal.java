@@ -71,4 +71,21 @@ public class ServerTerminal implements ITerminal {
     public TerminalState write() {
         return new TerminalState(m_colour, m_terminal);
     }
+
+    /**
+     * Take a snapshot of what has changed since the last call to this method.
+     *
+     * @return The changes to this terminal.
+     * @see TerminalState#isDelta()
+     */
+    public TerminalState writeDelta() {
+        return new TerminalState(m_colour, m_terminal, true, true);
+    }
+
+    /**
+     * Discard what has changed since the last call to {@link #writeDelta()}, without taking a snapshot of it.
+     */
+    public void clearDelta() {
+        if (m_terminal != null) m_terminal.clearDelta();
+    }
 }
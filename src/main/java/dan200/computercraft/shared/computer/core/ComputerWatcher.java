@@ -0,0 +1,64 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2020. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+
+package dan200.computercraft.shared.computer.core;
+
+import dan200.computercraft.ComputerCraft;
+import dan200.computercraft.shared.computer.blocks.TileComputerBase;
+import dan200.computercraft.shared.pocket.items.ItemPocketComputer;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.EntityLivingBase;
+import net.minecraft.entity.player.EntityPlayerMP;
+import net.minecraft.item.ItemStack;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraftforge.event.entity.player.PlayerEvent;
+import net.minecraftforge.event.world.ChunkWatchEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+
+/**
+ * Resends a computer's state to players when they start observing it.
+ *
+ * Computer state is only broadcast to players who can observe the computer (see {@link ServerComputer#isObserving(EntityPlayerMP)}), so
+ * a player who leaves and then returns may have missed several updates.
+ */
+@Mod.EventBusSubscriber(modid = ComputerCraft.MOD_ID)
+public final class ComputerWatcher {
+
+    private ComputerWatcher() {
+    }
+
+    @SubscribeEvent
+    public static void onWatch(ChunkWatchEvent.Watch event) {
+        Chunk chunk = event.getChunkInstance();
+        if (chunk == null) return;
+
+        for (TileEntity te : chunk.getTileEntityMap().values()) {
+            if (!(te instanceof TileComputerBase computerTile) || te.isInvalid()) continue;
+
+            ServerComputer computer = computerTile.getServerComputer();
+            if (computer != null) computer.sendComputerState(event.getPlayer());
+        }
+    }
+
+    @SubscribeEvent
+    public static void onStartTracking(PlayerEvent.StartTracking event) {
+        // Other players can see the pocket computers an entity is holding.
+        Entity target = event.getTarget();
+        if (!(target instanceof EntityLivingBase living) || !(event.getEntityPlayer() instanceof EntityPlayerMP player)) return;
+
+        sendPocketState(living.getHeldItemMainhand(), player);
+        sendPocketState(living.getHeldItemOffhand(), player);
+    }
+
+    private static void sendPocketState(ItemStack stack, EntityPlayerMP player) {
+        if (stack.isEmpty() || !(stack.getItem() instanceof ItemPocketComputer)) return;
+
+        ServerComputer computer = ItemPocketComputer.getServerComputer(stack);
+        if (computer != null) computer.sendComputerState(player);
+    }
+}
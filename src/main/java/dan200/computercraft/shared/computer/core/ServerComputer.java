@@ -20,6 +20,8 @@ import dan200.computercraft.shared.network.NetworkHandler;
 import dan200.computercraft.shared.network.client.ComputerDataClientMessage;
 import dan200.computercraft.shared.network.client.ComputerDeletedClientMessage;
 import dan200.computercraft.shared.network.client.ComputerTerminalClientMessage;
+import dan200.computercraft.shared.network.client.TerminalEncoder;
+import dan200.computercraft.shared.network.client.TerminalState;
 import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.entity.player.EntityPlayerMP;
 import net.minecraft.inventory.Container;
@@ -27,12 +29,18 @@ import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.World;
+import net.minecraft.world.WorldServer;
 import net.minecraftforge.fml.common.FMLCommonHandler;
 import net.minecraftforge.fml.common.Loader;
 import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
 
 import javax.annotation.Nullable;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.WeakHashMap;
 
 public class ServerComputer extends ServerTerminal implements IComputer, IComputerEnvironment {
 
@@ -49,6 +57,11 @@ public class ServerComputer extends ServerTerminal implements IComputer, IComput
     private boolean m_changedLastFrame;
     private int m_ticksSincePing;
 
+    /**
+     * The players who have been sent every terminal update since the last broadcast, and so only need to receive the changes since then.
+     */
+    private Set<EntityPlayer> m_terminalViewers = Collections.newSetFromMap(new WeakHashMap<>());
+
     public ServerComputer(World world, int computerID, String label, int instanceID, ComputerFamily family, int terminalWidth,
                           int terminalHeight) {
         super(family != ComputerFamily.Normal, terminalWidth, terminalHeight);
@@ -137,29 +150,44 @@ public class ServerComputer extends ServerTerminal implements IComputer, IComput
         return new ComputerDataClientMessage(this);
     }
 
-    protected IMessage createTerminalPacket() {
-        return new ComputerTerminalClientMessage(getInstanceID(), write());
-    }
-
     public void broadcastState(boolean force) {
-        if (hasOutputChanged() || force) {
-            // Send computer state to all clients
-            NetworkHandler.sendToAllPlayers(createComputerPacket());
+        FMLCommonHandler handler = FMLCommonHandler.instance();
+        MinecraftServer server = handler == null ? null : handler.getMinecraftServerInstance();
+
+        if ((hasOutputChanged() || force) && server != null) {
+            // Send computer state to clients who can observe the computer. Anyone else will request it (or be sent it when they start
+            // tracking the computer) if they need it.
+            IMessage packet = createComputerPacket();
+            for (EntityPlayerMP player : server.getPlayerList().getPlayers()) {
+                if (isObserving(player)) NetworkHandler.sendToPlayer(player, packet);
+            }
         }
 
         if (hasTerminalChanged() || force) {
-            // Send terminal state to clients who are currently interacting with the computer.
-            FMLCommonHandler handler = FMLCommonHandler.instance();
-            if (handler != null) {
-                IMessage packet = null;
-                MinecraftServer server = handler.getMinecraftServerInstance();
+            Set<EntityPlayer> viewers = Collections.newSetFromMap(new WeakHashMap<>());
+
+            // Send terminal state to clients who are currently viewing the computer. Those who received the previous broadcast only need
+            // the rows which have changed since then, everyone else gets the full terminal.
+            List<EntityPlayerMP> deltaPlayers = new ArrayList<>(), fullPlayers = new ArrayList<>();
+            if (server != null) {
                 for (EntityPlayerMP player : server.getPlayerList().getPlayers()) {
-                    if (isInteracting(player)) {
-                        if (packet == null) packet = createTerminalPacket();
-                        NetworkHandler.sendToPlayer(player, packet);
-                    }
+                    if (!isViewing(player)) continue;
+
+                    (!force && m_terminalViewers.contains(player) ? deltaPlayers : fullPlayers).add(player);
+                    viewers.add(player);
                 }
             }
+
+            // Always consume the delta, even if we don't send it, so the next one is relative to this broadcast. There's no point
+            // serialising it when nobody will receive it though.
+            if (deltaPlayers.isEmpty()) {
+                clearDelta();
+            } else {
+                sendTerminal(writeDelta(), deltaPlayers);
+            }
+            if (!fullPlayers.isEmpty()) sendTerminal(write(), fullPlayers);
+
+            m_terminalViewers = viewers;
         }
     }
 
@@ -169,8 +197,22 @@ public class ServerComputer extends ServerTerminal implements IComputer, IComput
     }
 
     public void sendTerminalState(EntityPlayer player) {
-        // Send terminal state to client
-        NetworkHandler.sendToPlayer(player, createTerminalPacket());
+        // Send terminal state to client. Any later deltas will also apply on top of this.
+        sendTerminal(write(), Collections.singletonList(player));
+        m_terminalViewers.add(player);
+    }
+
+    /**
+     * Send a terminal to several players. This is compressed off the server thread, and sent in order with this computer's other terminal packets.
+     *
+     * @param state   The terminal state to send.
+     * @param players The players to send it to.
+     */
+    private void sendTerminal(TerminalState state, List<? extends EntityPlayer> players) {
+        IMessage packet = new ComputerTerminalClientMessage(getInstanceID(), state);
+        TerminalEncoder.send(this, state, () -> {
+            for (EntityPlayer player : players) NetworkHandler.sendToPlayer(player, packet);
+        });
     }
 
     public void broadcastDelete() {
@@ -344,4 +386,31 @@ public class ServerComputer extends ServerTerminal implements IComputer, IComput
     protected boolean isInteracting(EntityPlayer player) {
         return getContainer(player) != null;
     }
+
+    /**
+     * Whether a player should be sent this computer's terminal.
+     *
+     * @param player The player to check.
+     * @return Whether this player can see the terminal.
+     */
+    protected boolean isViewing(EntityPlayerMP player) {
+        return isInteracting(player);
+    }
+
+    /**
+     * Whether a player should be sent this computer's state (whether it is on, and its user data). This is anyone who can see its
+     * terminal, or who is tracking the chunk it is in.
+     *
+     * @param player The player to check.
+     * @return Whether this player can observe the computer.
+     * @see ComputerWatcher
+     */
+    protected boolean isObserving(EntityPlayerMP player) {
+        if (isViewing(player)) return true;
+
+        World world = m_world;
+        BlockPos position = m_position;
+        return world instanceof WorldServer && position != null && player.world == world &&
+            ((WorldServer) world).getPlayerChunkMap().isPlayerWatchingChunk(player, position.getX() >> 4, position.getZ() >> 4);
+    }
 }
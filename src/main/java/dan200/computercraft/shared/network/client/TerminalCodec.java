@@ -0,0 +1,178 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2020. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.shared.network.client;
+
+import dan200.computercraft.ComputerCraft;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * The compression used when sending a {@link TerminalState}.
+ *
+ * The codec is written alongside each terminal, so the client can read whichever codec the server has chosen. Each thread keeps its own
+ * {@link Deflater}/{@link Inflater} and scratch buffer, rather than creating a new stream (and its native state) for every snapshot. These
+ * are never {@link Deflater#end() ended}, so should only be used from long-lived threads, such as {@link TerminalEncoder}'s pool and the
+ * network threads.
+ *
+ * @see ComputerCraft#terminalCodec
+ */
+public enum TerminalCodec {
+    /**
+     * Send terminals uncompressed.
+     */
+    NONE(0),
+
+    /**
+     * Compress terminals with deflate's default level. This gives the smallest packets.
+     */
+    DEFLATE(Deflater.DEFAULT_COMPRESSION),
+
+    /**
+     * Compress terminals with deflate's fastest level. This uses considerably less CPU time than {@link #DEFLATE}, at the cost of slightly
+     * larger packets.
+     */
+    FAST(Deflater.BEST_SPEED);
+
+    private static final TerminalCodec[] VALUES = values();
+    public static final String[] NAMES;
+
+    /**
+     * The maximum size of a decompressed terminal. A 164x81 monitor is ~26KiB, so this is very generous.
+     */
+    private static final int MAX_DECODED_SIZE = 1 << 24;
+
+    private static final ThreadLocal<Inflater> INFLATER = ThreadLocal.withInitial(Inflater::new);
+    private static final ThreadLocal<byte[]> SCRATCH = ThreadLocal.withInitial(() -> new byte[8192]);
+
+    private final String displayName = "gui.computercraft:config.peripheral.terminal_codec." + name().toLowerCase(Locale.ROOT);
+    private final ThreadLocal<Deflater> deflater;
+
+    static {
+        NAMES = new String[VALUES.length];
+        for (int i = 0; i < VALUES.length; i++) NAMES[i] = VALUES[i].displayName();
+    }
+
+    TerminalCodec(int level) {
+        deflater = ThreadLocal.withInitial(() -> new Deflater(level));
+    }
+
+    public String displayName() {
+        return displayName;
+    }
+
+    @Nonnull
+    public static TerminalCodec ofString(String name) {
+        for (TerminalCodec codec : VALUES) {
+            if (codec.displayName.equalsIgnoreCase(name) || codec.name().equalsIgnoreCase(name)) {
+                return codec;
+            }
+        }
+
+        ComputerCraft.log.warn("Unknown terminal codec {}. Falling back to default.", name);
+        return DEFLATE;
+    }
+
+    @Nonnull
+    static TerminalCodec of(int id) {
+        if (id < 0 || id >= VALUES.length) throw new IllegalArgumentException("Unknown terminal codec " + id);
+        return VALUES[id];
+    }
+
+    /**
+     * Compress a buffer with this codec.
+     *
+     * @param input The buffer to compress. This must be backed by an array.
+     * @return The compressed buffer, which is exactly as large as its contents.
+     */
+    @Nonnull
+    ByteBuf encode(@Nonnull ByteBuf input) {
+        if (this == NONE) return input;
+
+        Deflater deflater = this.deflater.get();
+        deflater.reset();
+        deflater.setInput(input.array(), input.arrayOffset() + input.readerIndex(), input.readableBytes());
+        deflater.finish();
+
+        byte[] output = SCRATCH.get();
+        int length = 0;
+        while (!deflater.finished()) {
+            if (length == output.length) SCRATCH.set(output = Arrays.copyOf(output, output.length * 2));
+            length += deflater.deflate(output, length, output.length - length);
+        }
+
+        return Unpooled.wrappedBuffer(Arrays.copyOf(output, length));
+    }
+
+    /**
+     * Read a buffer compressed with this codec.
+     *
+     * @param input         The buffer to read from.
+     * @param length        The number of bytes to read from {@code input}.
+     * @param decodedLength The size of the original buffer.
+     * @return The decompressed buffer.
+     * @throws IllegalArgumentException If either length is invalid, or {@code input} does not contain {@code length} bytes.
+     */
+    @Nonnull
+    ByteBuf decode(@Nonnull ByteBuf input, int length, int decodedLength) {
+        // Check both lengths before allocating anything, so a malformed packet cannot make us allocate an arbitrarily large buffer.
+        if (length < 0 || length > input.readableBytes()) {
+            throw new IllegalArgumentException("Terminal length " + length + " exceeds packet (" + input.readableBytes() + " bytes)");
+        }
+        if (length > MAX_DECODED_SIZE || decodedLength < 0 || decodedLength > MAX_DECODED_SIZE) {
+            throw new IllegalArgumentException("Terminal is too large (" + Math.max(length, decodedLength) + " bytes)");
+        }
+
+        if (this == NONE) {
+            ByteBuf buffer = Unpooled.buffer(length);
+            input.readBytes(buffer, length);
+            return buffer;
+        }
+
+        byte[] compressed;
+        int offset;
+        if (input.hasArray()) {
+            compressed = input.array();
+            offset = input.arrayOffset() + input.readerIndex();
+        } else {
+            compressed = SCRATCH.get();
+            if (compressed.length < length) SCRATCH.set(compressed = new byte[length]);
+            input.getBytes(input.readerIndex(), compressed, 0, length);
+            offset = 0;
+        }
+        input.skipBytes(length);
+
+        Inflater inflater = INFLATER.get();
+        inflater.reset();
+        inflater.setInput(compressed, offset, length);
+
+        ByteBuf output = Unpooled.buffer(decodedLength, decodedLength);
+        try {
+            int read = 0;
+            while (read < decodedLength && !inflater.finished()) {
+                int bytes = inflater.inflate(output.array(), output.arrayOffset() + read, decodedLength - read);
+                if (bytes == 0 && (inflater.needsInput() || inflater.needsDictionary())) break;
+                read += bytes;
+            }
+            if (read != decodedLength) throw new IOException("Expected " + decodedLength + " bytes, got " + read);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (DataFormatException e) {
+            throw new UncheckedIOException(new IOException(e));
+        }
+
+        output.writerIndex(decodedLength);
+        return output;
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2020. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+
+package dan200.computercraft.shared.network.client;
+
+import dan200.computercraft.ComputerCraft;
+import dan200.computercraft.shared.util.ThreadUtils;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import net.minecraftforge.fml.common.gameevent.TickEvent;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.*;
+
+/**
+ * Compresses {@link TerminalState}s on a worker pool, and then sends them from the server thread.
+ *
+ * Terminal snapshots are cheap to take, but compressing them is not. Rather than compressing while the packet is written (on the server
+ * thread), we compress on another thread and only send the packet once that has finished.
+ *
+ * Packets for the same terminal are sent in the order they were submitted, even if a later one finishes compressing first. Terminal
+ * deltas must arrive in order, so every terminal packet should go through here, even those which do not need compressing. Each
+ * terminal has its own queue, so one slow terminal does not hold up packets for any other.
+ */
+@Mod.EventBusSubscriber(modid = ComputerCraft.MOD_ID)
+public final class TerminalEncoder {
+
+    private static final ThreadPoolExecutor executor;
+
+    /**
+     * Packets waiting to be sent for each terminal. Terminals with nothing pending are removed.
+     */
+    private static final Map<Object, Queue<Pending>> pending = new HashMap<>();
+
+    static {
+        // The threads are kept alive while idle (rather than timing out), as each one holds on to TerminalCodec's per-thread Deflaters.
+        // Those own native memory which is only released by Deflater.end(), so recreating threads would leak it.
+        int threads = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                                          ThreadUtils.factory("Terminal-Encoder"));
+    }
+
+    private TerminalEncoder() {
+    }
+
+    /**
+     * Send a terminal once it has been compressed. This must be called from the server thread.
+     *
+     * @param terminal The terminal this packet is for, such as the computer or monitor. Packets for the same terminal are sent in order.
+     * @param state    The terminal to compress.
+     * @param send     The function to send the terminal. This will be called on the server thread.
+     */
+    public static void send(@Nonnull Object terminal, @Nonnull TerminalState state, @Nonnull Runnable send) {
+        Queue<Pending> queue = pending.get(terminal);
+        if (queue == null && !state.needsEncoding()) {
+            send.run();
+            return;
+        }
+
+        // The same state may be sent to several players, so share a single compression task between them.
+        Future<?> future = state.encoding;
+        if (future == null) {
+            future = state.encoding = state.needsEncoding() ? executor.submit(state::encode) : CompletableFuture.completedFuture(null);
+        }
+        if (queue == null) pending.put(terminal, queue = new ArrayDeque<>());
+        queue.add(new Pending(future, send));
+    }
+
+    @SubscribeEvent
+    public static void onTick(TickEvent.ServerTickEvent event) {
+        // We drain the queues at the start and end of the tick: anything submitted during the tick is likely to be done by the end, and
+        // anything which isn't will go at the start of the next one.
+        Iterator<Queue<Pending>> queues = pending.values().iterator();
+        while (queues.hasNext()) {
+            Queue<Pending> queue = queues.next();
+
+            Pending next;
+            while ((next = queue.peek()) != null && next.future.isDone()) {
+                queue.remove();
+                try {
+                    next.future.get();
+                } catch (ExecutionException e) {
+                    // We'll compress the terminal again on the server thread, which hopefully fails more loudly.
+                    ComputerCraft.log.error("Error compressing terminal", e.getCause());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+
+                next.send.run();
+            }
+
+            if (queue.isEmpty()) queues.remove();
+        }
+    }
+
+    public static void reset() {
+        for (Queue<Pending> queue : pending.values()) {
+            for (Pending item : queue) item.future.cancel(false);
+        }
+        pending.clear();
+    }
+
+    private static final class Pending {
+
+        final Future<?> future;
+        final Runnable send;
+
+        Pending(Future<?> future, Runnable send) {
+            this.future = future;
+            this.send = send;
+        }
+    }
+}
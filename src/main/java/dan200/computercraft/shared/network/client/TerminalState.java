@@ -6,26 +6,22 @@
 
 package dan200.computercraft.shared.network.client;
 
+import dan200.computercraft.ComputerCraft;
 import dan200.computercraft.core.terminal.Terminal;
-import dan200.computercraft.shared.util.IoUtil;
 import io.netty.buffer.ByteBuf;
-import io.netty.buffer.ByteBufInputStream;
-import io.netty.buffer.ByteBufOutputStream;
 import io.netty.buffer.Unpooled;
 import net.minecraft.network.PacketBuffer;
 
 import javax.annotation.Nullable;
-import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
-import java.io.UncheckedIOException;
-import java.util.zip.GZIPInputStream;
-import java.util.zip.GZIPOutputStream;
+import java.util.concurrent.Future;
 
 /**
  * A snapshot of a terminal's state.
  * This is somewhat memory inefficient (we build a buffer, only to write it elsewhere), however it means we get a complete and accurate
  * description of a terminal, which avoids a lot of complexities with resizing terminals, dirty states, etc...
+ *
+ * A snapshot may instead be a delta, only containing what has changed since the previous delta was taken (see
+ * {@link Terminal#writeDelta(PacketBuffer)}). These should only be sent to clients which have already received a full snapshot.
  */
 public class TerminalState {
 
@@ -34,42 +30,68 @@ public class TerminalState {
     public final int width;
     public final int height;
 
-    private final boolean compress;
+    /**
+     * Deltas smaller than this are not worth compressing.
+     */
+    private static final int MIN_DELTA_COMPRESS = 256;
+
+    private final TerminalCodec codec;
+    private final boolean delta;
 
     @Nullable private final ByteBuf buffer;
 
     private ByteBuf compressed;
 
+    /**
+     * The task compressing this terminal, set by {@link TerminalEncoder}. This is only accessed from the server thread.
+     */
+    Future<?> encoding;
+
     public TerminalState(boolean colour, @Nullable Terminal terminal) {
         this(colour, terminal, true);
     }
 
     public TerminalState(boolean colour, @Nullable Terminal terminal, boolean compress) {
+        this(colour, terminal, compress, false);
+    }
+
+    public TerminalState(boolean colour, @Nullable Terminal terminal, boolean compress, boolean delta) {
         this.colour = colour;
-        this.compress = compress;
+        this.delta = delta && terminal != null;
 
         if (terminal == null) {
             this.width = this.height = 0;
             this.buffer = null;
+            this.codec = TerminalCodec.NONE;
         } else {
-            this.width = terminal.getWidth();
-            this.height = terminal.getHeight();
-
             ByteBuf buf = this.buffer = Unpooled.buffer();
-            terminal.write(new PacketBuffer(buf));
+            synchronized (terminal) {
+                this.width = terminal.getWidth();
+                this.height = terminal.getHeight();
+                if (delta) {
+                    terminal.writeDelta(new PacketBuffer(buf));
+                } else {
+                    terminal.write(new PacketBuffer(buf));
+                }
+            }
+
+            boolean worthCompressing = !delta || buf.readableBytes() >= MIN_DELTA_COMPRESS;
+            this.codec = compress && worthCompressing ? ComputerCraft.terminalCodec : TerminalCodec.NONE;
         }
     }
 
     public TerminalState(PacketBuffer buf) {
         this.colour = buf.readBoolean();
-        this.compress = buf.readBoolean();
+        this.codec = TerminalCodec.of(buf.readByte());
+        this.delta = buf.readBoolean();
 
         if (buf.readBoolean()) {
             this.width = buf.readVarInt();
             this.height = buf.readVarInt();
 
             int length = buf.readVarInt();
-            this.buffer = readCompressed(buf, length, compress);
+            int decodedLength = codec == TerminalCodec.NONE ? length : buf.readVarInt();
+            this.buffer = codec.decode(buf, length, decodedLength);
         } else {
             this.width = this.height = 0;
             this.buffer = null;
@@ -78,7 +100,8 @@ public class TerminalState {
 
     public void write(PacketBuffer buf) {
         buf.writeBoolean(colour);
-        buf.writeBoolean(compress);
+        buf.writeByte(codec.ordinal());
+        buf.writeBoolean(delta);
 
         buf.writeBoolean(buffer != null);
         if (buffer != null) {
@@ -87,6 +110,7 @@ public class TerminalState {
 
             ByteBuf sendBuffer = getCompressed();
             buf.writeVarInt(sendBuffer.readableBytes());
+            if (codec != TerminalCodec.NONE) buf.writeVarInt(buffer.readableBytes());
             buf.writeBytes(sendBuffer, sendBuffer.readerIndex(), sendBuffer.readableBytes());
         }
     }
@@ -95,56 +119,43 @@ public class TerminalState {
         return buffer != null;
     }
 
+    public boolean isDelta() {
+        return delta;
+    }
+
     public int size() {
         return buffer == null ? 0 : buffer.readableBytes();
     }
 
     public void apply(Terminal terminal) {
         if (buffer == null) throw new NullPointerException("buffer");
-        terminal.read(new PacketBuffer(buffer));
+        if (delta) {
+            terminal.readDelta(new PacketBuffer(buffer));
+        } else {
+            terminal.read(new PacketBuffer(buffer));
+        }
     }
 
-    private ByteBuf getCompressed() {
-        if (buffer == null) throw new NullPointerException("buffer");
-        if (!compress) return buffer;
-        if (compressed != null) return compressed;
-
-        ByteBuf compressed = Unpooled.directBuffer();
-        OutputStream stream = null;
-        try {
-            stream = new GZIPOutputStream(new ByteBufOutputStream(compressed));
-            stream.write(buffer.array(), buffer.arrayOffset(), buffer.readableBytes());
-        } catch (IOException e) {
-            throw new UncheckedIOException(e);
-        } finally {
-            IoUtil.closeQuietly(stream);
-        }
+    /**
+     * Whether this terminal still needs compressing.
+     *
+     * @return Whether {@link #encode()} has any work to do.
+     * @see TerminalEncoder
+     */
+    synchronized boolean needsEncoding() {
+        return buffer != null && codec != TerminalCodec.NONE && compressed == null;
+    }
 
-        return this.compressed = compressed;
+    /**
+     * Compress this terminal ahead of time, so writing it to a packet is just a copy. This may be called from any thread.
+     */
+    void encode() {
+        if (buffer != null) getCompressed();
     }
 
-    private static ByteBuf readCompressed(ByteBuf buf, int length, boolean compress) {
-        if (compress) {
-            ByteBuf buffer = Unpooled.buffer();
-            InputStream stream = null;
-            try {
-                stream = new GZIPInputStream(new ByteBufInputStream(buf, length));
-                byte[] swap = new byte[8192];
-                while (true) {
-                    int bytes = stream.read(swap);
-                    if (bytes == -1) break;
-                    buffer.writeBytes(swap, 0, bytes);
-                }
-            } catch (IOException e) {
-                throw new UncheckedIOException(e);
-            } finally {
-                IoUtil.closeQuietly(stream);
-            }
-            return buffer;
-        } else {
-            ByteBuf buffer = Unpooled.buffer(length);
-            buf.readBytes(buffer, length);
-            return buffer;
-        }
+    private synchronized ByteBuf getCompressed() {
+        if (buffer == null) throw new NullPointerException("buffer");
+        if (compressed != null) return compressed;
+        return compressed = codec.encode(buffer);
     }
 }
@@ -5,14 +5,17 @@
  */
 package dan200.computercraft.shared.peripheral.modem;
 
+import dan200.computercraft.api.lua.IArguments;
 import dan200.computercraft.api.lua.ILuaContext;
 import dan200.computercraft.api.lua.LuaException;
+import dan200.computercraft.api.lua.ObjectArguments;
 import dan200.computercraft.api.network.IPacketNetwork;
 import dan200.computercraft.api.network.IPacketReceiver;
 import dan200.computercraft.api.network.IPacketSender;
 import dan200.computercraft.api.network.Packet;
 import dan200.computercraft.api.peripheral.IComputerAccess;
 import dan200.computercraft.api.peripheral.IPeripheral;
+import dan200.computercraft.core.lua.FrozenTable;
 import net.minecraft.util.math.Vec3d;
 import net.minecraft.world.World;
 
@@ -20,8 +23,6 @@ import javax.annotation.Nonnull;
 import java.util.HashSet;
 import java.util.Set;
 
-import static dan200.computercraft.api.lua.ArgumentHelper.getInt;
-
 public abstract class ModemPeripheral implements IPeripheral, IPacketSender, IPacketReceiver {
 
     private IPacketNetwork m_network;
@@ -111,8 +112,8 @@ public abstract class ModemPeripheral implements IPeripheral, IPacketSender, IPa
         return new String[]{"open", "isOpen", "close", "closeAll", "transmit", "isWireless",};
     }
 
-    private static int parseChannel(Object[] arguments, int index) throws LuaException {
-        int channel = getInt(arguments, index);
+    private static int parseChannel(IArguments arguments, int index) throws LuaException {
+        int channel = arguments.getInt(index);
         if (channel < 0 || channel > 65535) {
             throw new LuaException("Expected number in range 0-65535");
         }
@@ -121,6 +122,12 @@ public abstract class ModemPeripheral implements IPeripheral, IPacketSender, IPa
 
     @Override
     public Object[] callMethod(@Nonnull IComputerAccess computer, @Nonnull ILuaContext context, int method, @Nonnull Object[] arguments)
+        throws LuaException, InterruptedException {
+        return callMethod(computer, context, method, new ObjectArguments(arguments));
+    }
+
+    @Override
+    public Object[] callMethod(@Nonnull IComputerAccess computer, @Nonnull ILuaContext context, int method, @Nonnull IArguments arguments)
         throws LuaException, InterruptedException {
         switch (method) {
             case 0: {
@@ -147,7 +154,9 @@ public abstract class ModemPeripheral implements IPeripheral, IPacketSender, IPa
                 // transmit
                 int channel = parseChannel(arguments, 0);
                 int replyChannel = parseChannel(arguments, 1);
-                Object payload = arguments.length > 2 ? arguments[2] : null;
+                // The payload is delivered to other computers, so must be fully copied. We freeze it, so every receiver can
+                // share the same converted strings and numbers.
+                Object payload = FrozenTable.freeze(arguments.get(2));
                 World world = getWorld();
                 Vec3d position = getPosition();
                 IPacketNetwork network = m_network;
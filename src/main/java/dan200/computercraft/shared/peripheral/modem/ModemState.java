@@ -9,15 +9,30 @@ import dan200.computercraft.api.lua.LuaException;
 import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
 import it.unimi.dsi.fastutil.ints.IntSet;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 public class ModemState {
 
+    /**
+     * Observes channels being opened and closed on this modem.
+     *
+     * Listeners are called while this modem's channels are locked, so they always observe changes in the order in which they
+     * happened. Consequently, they must not call back into this modem.
+     */
+    public interface ChannelListener {
+        void onChannelOpened(int channel);
+
+        void onChannelClosed(int channel);
+    }
+
     private final Runnable onChanged;
     private final AtomicBoolean changed = new AtomicBoolean(true);
 
     private boolean open = false;
     private final IntSet channels = new IntOpenHashSet();
+    private final List<ChannelListener> listeners = new ArrayList<>(1);
 
     public ModemState() {
         onChanged = null;
@@ -53,21 +68,52 @@ public class ModemState {
                 if (channels.size() >= 128) throw new LuaException("Too many open channels");
                 channels.add(channel);
                 setOpen(true);
+                for (ChannelListener listener : listeners) listener.onChannelOpened(channel);
             }
         }
     }
 
     public void close(int channel) {
         synchronized (channels) {
-            channels.remove(channel);
+            if (!channels.remove(channel)) return;
             if (channels.isEmpty()) setOpen(false);
+            for (ChannelListener listener : listeners) listener.onChannelClosed(channel);
         }
     }
 
     public void closeAll() {
         synchronized (channels) {
+            for (ChannelListener listener : listeners) {
+                for (int channel : channels) listener.onChannelClosed(channel);
+            }
             channels.clear();
             setOpen(false);
         }
     }
+
+    /**
+     * Start observing this modem's channels. The listener is immediately told about every channel which is currently open.
+     *
+     * @param listener The listener to add.
+     */
+    public void addChannelListener(ChannelListener listener) {
+        synchronized (channels) {
+            if (listeners.contains(listener)) return;
+            listeners.add(listener);
+            for (int channel : channels) listener.onChannelOpened(channel);
+        }
+    }
+
+    /**
+     * Stop observing this modem's channels. The listener is told that every currently open channel has been closed, and will
+     * receive no further events once this method returns.
+     *
+     * @param listener The listener to remove.
+     */
+    public void removeChannelListener(ChannelListener listener) {
+        synchronized (channels) {
+            if (!listeners.remove(listener)) return;
+            for (int channel : channels) listener.onChannelClosed(channel);
+        }
+    }
 }
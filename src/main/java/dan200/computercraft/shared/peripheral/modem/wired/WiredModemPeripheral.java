@@ -8,6 +8,7 @@ package dan200.computercraft.shared.peripheral.modem.wired;
 import com.google.common.collect.ImmutableMap;
 import dan200.computercraft.api.filesystem.IMount;
 import dan200.computercraft.api.filesystem.IWritableMount;
+import dan200.computercraft.api.lua.IArguments;
 import dan200.computercraft.api.lua.ILuaContext;
 import dan200.computercraft.api.lua.LuaException;
 import dan200.computercraft.api.network.IPacketNetwork;
@@ -27,8 +28,6 @@ import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
-import static dan200.computercraft.api.lua.ArgumentHelper.getString;
-
 public abstract class WiredModemPeripheral extends ModemPeripheral implements IWiredSender {
 
     private final WiredModemElement modem;
@@ -83,7 +82,7 @@ public abstract class WiredModemPeripheral extends ModemPeripheral implements IW
     }
 
     @Override
-    public Object[] callMethod(@Nonnull IComputerAccess computer, @Nonnull ILuaContext context, int method, @Nonnull Object[] arguments)
+    public Object[] callMethod(@Nonnull IComputerAccess computer, @Nonnull ILuaContext context, int method, @Nonnull IArguments arguments)
         throws LuaException, InterruptedException {
         String[] methods = super.getMethodNames();
         switch (method - methods.length) {
@@ -99,18 +98,18 @@ public abstract class WiredModemPeripheral extends ModemPeripheral implements IW
             }
             case 1: {
                 // isPresentRemote
-                String name = getString(arguments, 0);
+                String name = arguments.getString(0);
                 return new Object[]{getWrapper(computer, name) != null};
             }
             case 2: {
                 // getTypeRemote
-                String name = getString(arguments, 0);
+                String name = arguments.getString(0);
                 RemotePeripheralWrapper wrapper = getWrapper(computer, name);
                 return wrapper != null ? new Object[]{wrapper.getType()} : null;
             }
             case 3: {
                 // getMethodsRemote
-                String name = getString(arguments, 0);
+                String name = arguments.getString(0);
                 RemotePeripheralWrapper wrapper = getWrapper(computer, name);
                 if (wrapper == null) return null;
 
@@ -123,14 +122,12 @@ public abstract class WiredModemPeripheral extends ModemPeripheral implements IW
             }
             case 4: {
                 // callRemote
-                String remoteName = getString(arguments, 0);
-                String methodName = getString(arguments, 1);
+                String remoteName = arguments.getString(0);
+                String methodName = arguments.getString(1);
                 RemotePeripheralWrapper wrapper = getWrapper(computer, remoteName);
                 if (wrapper == null) throw new LuaException("No peripheral: " + remoteName);
 
-                Object[] methodArgs = new Object[arguments.length - 2];
-                System.arraycopy(arguments, 2, methodArgs, 0, arguments.length - 2);
-                return wrapper.callMethod(context, methodName, methodArgs);
+                return wrapper.callMethod(context, methodName, arguments.drop(2));
             }
             case 5: {
                 // getNameLocal
@@ -276,7 +273,7 @@ public abstract class WiredModemPeripheral extends ModemPeripheral implements IW
             return m_methods;
         }
 
-        public Object[] callMethod(ILuaContext context, String methodName, Object[] arguments) throws LuaException, InterruptedException {
+        public Object[] callMethod(ILuaContext context, String methodName, IArguments arguments) throws LuaException, InterruptedException {
             if (m_methodMap.containsKey(methodName)) {
                 int method = m_methodMap.get(methodName);
                 return m_peripheral.callMethod(this, context, method, arguments);
@@ -48,6 +48,11 @@ public abstract class TileWirelessModemBase extends TileGeneric implements IPeri
             return new Vec3d(pos.getX(), pos.getY(), pos.getZ());
         }
 
+        @Override
+        public boolean isStationary() {
+            return true;
+        }
+
         @Override
         public boolean equals(IPeripheral other) {
             return this == other;
@@ -26,6 +26,30 @@ public abstract class WirelessModemPeripheral extends ModemPeripheral {
         return m_advanced;
     }
 
+    /**
+     * Whether this modem stays in the same place for as long as it is attached to a network, such as modem blocks.
+     *
+     * Stationary modems are indexed by their position, so that transmissions only need to consider those nearby. Their position
+     * may drift by a couple of blocks (for instance, while the modem's direction is resolved), but no further.
+     *
+     * @return Whether this modem is stationary.
+     */
+    public boolean isStationary() {
+        return false;
+    }
+
+    /**
+     * The largest range any normal (non-advanced) modem may have, as returned by {@link #getRange()}.
+     *
+     * @return The largest range under the current config.
+     */
+    public static double getMaxRange() {
+        return Math.max(
+            Math.max(ComputerCraft.modem_range, ComputerCraft.modem_highAltitudeRange),
+            Math.max(ComputerCraft.modem_rangeDuringStorm, ComputerCraft.modem_highAltitudeRangeDuringStorm)
+        );
+    }
+
     @Override
     public double getRange() {
         if (m_advanced) {
@@ -9,15 +9,40 @@ import dan200.computercraft.api.network.IPacketNetwork;
 import dan200.computercraft.api.network.IPacketReceiver;
 import dan200.computercraft.api.network.IPacketSender;
 import dan200.computercraft.api.network.Packet;
+import dan200.computercraft.shared.peripheral.modem.ModemPeripheral;
+import dan200.computercraft.shared.peripheral.modem.ModemState;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.util.math.Vec3d;
+import net.minecraft.world.World;
 
 import javax.annotation.Nonnull;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 public class WirelessNetwork implements IPacketNetwork {
 
+    /**
+     * The width of a cell in the spatial index, in blocks.
+     */
+    private static final int CELL_SIZE = 64;
+
+    /**
+     * How far a stationary modem may be from the position it was indexed at. See {@link WirelessModemPeripheral#isStationary()}.
+     */
+    private static final double POSITION_SLACK = 2;
+
     private static WirelessNetwork s_universalNetwork = null;
 
     public static WirelessNetwork getUniversal() {
@@ -31,29 +56,85 @@ public class WirelessNetwork implements IPacketNetwork {
         s_universalNetwork = null;
     }
 
+    /**
+     * Receivers whose channels we do not know about, and so must be sent every packet.
+     */
     private final Set<IPacketReceiver> m_receivers = Collections.newSetFromMap(new ConcurrentHashMap<>());
 
+    /**
+     * Modems attached to this network, and the listeners which keep {@link #m_channels} in sync with their open channels.
+     */
+    private final Map<ModemPeripheral, ChannelIndexer> m_modems = new ConcurrentHashMap<>();
+
+    /**
+     * A lookup of channel to the modems which have that channel open. Modems never receive packets on closed channels, so
+     * transmitting only needs to consider the modems listening on the packet's channel.
+     *
+     * This is guarded by {@link #m_lock}. Receivers are collected while holding the lock, but packets are delivered after it has
+     * been released, as modems lock their channels when receiving.
+     */
+    private final Int2ObjectMap<Channel> m_channels = new Int2ObjectOpenHashMap<>();
+
+    private final ReadWriteLock m_lock = new ReentrantReadWriteLock();
+
     @Override
     public void addReceiver(@Nonnull IPacketReceiver receiver) {
         Objects.requireNonNull(receiver, "device cannot be null");
-        m_receivers.add(receiver);
+        if (receiver instanceof ModemPeripheral modem) {
+            ChannelIndexer indexer = new ChannelIndexer(modem);
+            if (m_modems.putIfAbsent(modem, indexer) == null) modem.getModemState().addChannelListener(indexer);
+        } else {
+            m_receivers.add(receiver);
+        }
     }
 
     @Override
     public void removeReceiver(@Nonnull IPacketReceiver receiver) {
         Objects.requireNonNull(receiver, "device cannot be null");
-        m_receivers.remove(receiver);
+        if (receiver instanceof ModemPeripheral modem) {
+            ChannelIndexer indexer = m_modems.remove(modem);
+            if (indexer != null) modem.getModemState().removeChannelListener(indexer);
+        } else {
+            m_receivers.remove(receiver);
+        }
     }
 
     @Override
     public void transmitSameDimension(@Nonnull Packet packet, double range) {
         Objects.requireNonNull(packet, "packet cannot be null");
+
+        IPacketSender sender = packet.getSender();
+        List<IPacketReceiver> receivers = new ArrayList<>();
+        m_lock.readLock().lock();
+        try {
+            Channel channel = m_channels.get(packet.getChannel());
+            if (channel != null) {
+                // Range is symmetrical, so we need to consider any modem which could reach us, as well as those we can reach.
+                double radius = Math.max(range, WirelessModemPeripheral.getMaxRange()) + POSITION_SLACK;
+                channel.collectNear(receivers, sender.getWorld(), sender.getPosition(), radius);
+            }
+        } finally {
+            m_lock.readLock().unlock();
+        }
+
+        for (IPacketReceiver device : receivers) tryTransmit(device, packet, range, false);
         for (IPacketReceiver device : m_receivers) tryTransmit(device, packet, range, false);
     }
 
     @Override
     public void transmitInterdimensional(@Nonnull Packet packet) {
         Objects.requireNonNull(packet, "packet cannot be null");
+
+        List<IPacketReceiver> receivers = new ArrayList<>();
+        m_lock.readLock().lock();
+        try {
+            Channel channel = m_channels.get(packet.getChannel());
+            if (channel != null) channel.collectAll(receivers);
+        } finally {
+            m_lock.readLock().unlock();
+        }
+
+        for (IPacketReceiver device : receivers) tryTransmit(device, packet, 0, true);
         for (IPacketReceiver device : m_receivers) tryTransmit(device, packet, 0, true);
     }
 
@@ -76,4 +157,137 @@ public class WirelessNetwork implements IPacketNetwork {
     public boolean isWireless() {
         return true;
     }
+
+    private static int getCell(double position) {
+        return (int) Math.floor(position / CELL_SIZE);
+    }
+
+    private static long getCellKey(int x, int z) {
+        return ((long) x << 32) | (z & 0xFFFFFFFFL);
+    }
+
+    /**
+     * The modems listening on a single channel.
+     *
+     * Stationary modems are grouped by world and by the cell they are in, so same-dimension transmissions only visit modems in
+     * nearby cells. Mobile modems (such as those on turtles and pocket computers) and ender modems (which may receive from
+     * anywhere) are visited on every transmission.
+     */
+    private static final class Channel {
+
+        final Set<IPacketReceiver> anywhere = new HashSet<>();
+        final Map<World, Long2ObjectMap<Set<IPacketReceiver>>> worlds = new HashMap<>();
+
+        boolean isEmpty() {
+            return anywhere.isEmpty() && worlds.isEmpty();
+        }
+
+        void collectNear(List<IPacketReceiver> out, World world, Vec3d position, double radius) {
+            out.addAll(anywhere);
+
+            Long2ObjectMap<Set<IPacketReceiver>> cells = worlds.get(world);
+            if (cells == null) return;
+
+            int minX = getCell(position.x - radius), maxX = getCell(position.x + radius);
+            int minZ = getCell(position.z - radius), maxZ = getCell(position.z + radius);
+
+            if (((long) maxX - minX + 1) * ((long) maxZ - minZ + 1) >= cells.size()) {
+                // If the area covers more cells than are occupied, then it's cheaper to check every occupied cell.
+                for (Long2ObjectMap.Entry<Set<IPacketReceiver>> entry : cells.long2ObjectEntrySet()) {
+                    long key = entry.getLongKey();
+                    int x = (int) (key >> 32), z = (int) key;
+                    if (x >= minX && x <= maxX && z >= minZ && z <= maxZ) out.addAll(entry.getValue());
+                }
+            } else {
+                for (int x = minX; x <= maxX; x++) {
+                    for (int z = minZ; z <= maxZ; z++) {
+                        Set<IPacketReceiver> cell = cells.get(getCellKey(x, z));
+                        if (cell != null) out.addAll(cell);
+                    }
+                }
+            }
+        }
+
+        void collectAll(List<IPacketReceiver> out) {
+            out.addAll(anywhere);
+            for (Long2ObjectMap<Set<IPacketReceiver>> cells : worlds.values()) {
+                for (Set<IPacketReceiver> cell : cells.values()) out.addAll(cell);
+            }
+        }
+    }
+
+    /**
+     * Keeps {@link #m_channels} in sync with a single modem's open channels.
+     */
+    private final class ChannelIndexer implements ModemState.ChannelListener {
+
+        private final IPacketReceiver receiver;
+
+        private final boolean indexed;
+        private final World world;
+        private final long cell;
+
+        ChannelIndexer(ModemPeripheral modem) {
+            receiver = modem;
+
+            // Ender modems receive from everywhere, so there's no point indexing them.
+            if (modem instanceof WirelessModemPeripheral wireless && wireless.isStationary() && !wireless.isInterdimensional()) {
+                Vec3d position = modem.getPosition();
+                indexed = true;
+                world = modem.getWorld();
+                cell = getCellKey(getCell(position.x), getCell(position.z));
+            } else {
+                indexed = false;
+                world = null;
+                cell = 0;
+            }
+        }
+
+        @Override
+        public void onChannelOpened(int channel) {
+            m_lock.writeLock().lock();
+            try {
+                Channel receivers = m_channels.get(channel);
+                if (receivers == null) m_channels.put(channel, receivers = new Channel());
+
+                if (!indexed) {
+                    receivers.anywhere.add(receiver);
+                    return;
+                }
+
+                Long2ObjectMap<Set<IPacketReceiver>> cells = receivers.worlds.get(world);
+                if (cells == null) receivers.worlds.put(world, cells = new Long2ObjectOpenHashMap<>());
+
+                Set<IPacketReceiver> cellReceivers = cells.get(cell);
+                if (cellReceivers == null) cells.put(cell, cellReceivers = new HashSet<>());
+                cellReceivers.add(receiver);
+            } finally {
+                m_lock.writeLock().unlock();
+            }
+        }
+
+        @Override
+        public void onChannelClosed(int channel) {
+            m_lock.writeLock().lock();
+            try {
+                Channel receivers = m_channels.get(channel);
+                if (receivers == null) return;
+
+                if (!indexed) {
+                    receivers.anywhere.remove(receiver);
+                } else {
+                    Long2ObjectMap<Set<IPacketReceiver>> cells = receivers.worlds.get(world);
+                    Set<IPacketReceiver> cellReceivers = cells == null ? null : cells.get(cell);
+                    if (cellReceivers != null && cellReceivers.remove(receiver) && cellReceivers.isEmpty()) {
+                        cells.remove(cell);
+                        if (cells.isEmpty()) receivers.worlds.remove(world);
+                    }
+                }
+
+                if (receivers.isEmpty()) m_channels.remove(channel);
+            } finally {
+                m_lock.writeLock().unlock();
+            }
+        }
+    }
 }
@@ -11,6 +11,7 @@ import net.minecraft.client.renderer.GLAllocation;
 import net.minecraft.client.renderer.GlStateManager;
 import net.minecraft.client.renderer.OpenGlHelper;
 import net.minecraft.client.renderer.vertex.VertexBuffer;
+import net.minecraft.client.shader.Framebuffer;
 import net.minecraft.util.math.BlockPos;
 import net.minecraftforge.fml.relauncher.Side;
 import net.minecraftforge.fml.relauncher.SideOnly;
@@ -36,6 +37,7 @@ public final class ClientMonitor extends ClientTerminal {
     public int tboTexture;
     public VertexBuffer buffer;
     public int displayList = 0;
+    public Framebuffer framebuffer;
 
     public ClientMonitor(boolean colour, TileMonitor origin) {
         super(colour);
@@ -91,6 +93,15 @@ public final class ClientMonitor extends ClientTerminal {
                 addMonitor();
                 return true;
 
+            case FRAMEBUFFER:
+                if (framebuffer != null) return false;
+
+                deleteBuffers();
+                // The framebuffer is resized to fit the terminal when it is first drawn.
+                framebuffer = new Framebuffer(1, 1, false);
+                addMonitor();
+                return true;
+
             default:
                 return false;
         }
@@ -123,11 +134,16 @@ public final class ClientMonitor extends ClientTerminal {
             GLAllocation.deleteDisplayLists(displayList);
             displayList = 0;
         }
+
+        if (framebuffer != null) {
+            framebuffer.deleteFramebuffer();
+            framebuffer = null;
+        }
     }
 
     @SideOnly(Side.CLIENT)
     public void destroy() {
-        if (tboBuffer != 0 || buffer != null || displayList != 0) {
+        if (tboBuffer != 0 || buffer != null || displayList != 0 || framebuffer != null) {
             synchronized (allMonitors) {
                 allMonitors.remove(this);
             }
@@ -45,7 +45,16 @@ public enum MonitorRenderer {
      *
      * @see net.minecraft.client.renderer.GLAllocation#generateDisplayLists(int)
      */
-    DISPLAY_LIST;
+    DISPLAY_LIST,
+
+    /**
+     * Render each terminal to a framebuffer when it changes, and then draw it as a single textured quad.
+     *
+     * This is never picked by {@link #BEST}, but may be faster when there are many large monitors which rarely change.
+     *
+     * @see net.minecraft.client.shader.Framebuffer
+     */
+    FRAMEBUFFER;
 
     private static final MonitorRenderer[] VALUES = values();
     public static final String[] NAMES;
@@ -101,6 +110,14 @@ public enum MonitorRenderer {
                 }
 
                 return VBO;
+            case FRAMEBUFFER:
+                if (!OpenGlHelper.isFramebufferEnabled()) {
+                    ComputerCraft.log.warn("Framebuffers are not supported on your graphics card. Falling back to default.");
+                    ComputerCraft.monitorRenderer = BEST;
+                    return best();
+                }
+
+                return FRAMEBUFFER;
             default:
                 return current;
         }
@@ -9,7 +9,10 @@ package dan200.computercraft.shared.peripheral.monitor;
 import dan200.computercraft.ComputerCraft;
 import dan200.computercraft.shared.network.NetworkHandler;
 import dan200.computercraft.shared.network.client.MonitorClientMessage;
+import dan200.computercraft.shared.network.client.TerminalEncoder;
 import dan200.computercraft.shared.network.client.TerminalState;
+import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.entity.player.EntityPlayerMP;
 import net.minecraft.server.management.PlayerChunkMapEntry;
 import net.minecraft.tileentity.TileEntity;
 import net.minecraft.util.math.BlockPos;
@@ -20,25 +23,45 @@ import net.minecraftforge.common.DimensionManager;
 import net.minecraftforge.event.world.ChunkWatchEvent;
 import net.minecraftforge.fml.common.Mod;
 import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import net.minecraftforge.fml.common.gameevent.PlayerEvent;
 import net.minecraftforge.fml.common.gameevent.TickEvent;
-import net.minecraftforge.fml.common.network.NetworkRegistry;
-
-import java.util.ArrayDeque;
-import java.util.Queue;
 
+import javax.annotation.Nullable;
+import java.util.*;
+
+/**
+ * Sends monitor terminals to the players who can see them.
+ *
+ * Each player has their own queue of monitors waiting to be sent, and their own bandwidth budget (see
+ * {@link ComputerCraft#monitorPlayerBandwidth}). A player's queue is sent closest monitor first, so a busy monitor elsewhere cannot
+ * starve the ones in front of them. A monitor is only queued once per player: if it changes again before it is sent, the player just
+ * receives its latest state.
+ *
+ * The global {@link ComputerCraft#monitorBandwidth} limit still applies on top of this, and is only charged once for each monitor sent in
+ * a tick, however many players receive it.
+ */
 @Mod.EventBusSubscriber(modid = ComputerCraft.MOD_ID)
 public final class MonitorWatcher {
 
     private static final Queue<TileMonitor> watching = new ArrayDeque<>();
+    private static final Map<EntityPlayerMP, PlayerQueue> players = new LinkedHashMap<>();
+
+    private static int rotation;
+
+    private static long sentBytes;
+    private static long sentUpdates;
+    private static long deferredBytes;
+    private static long deferredUpdates;
 
     private MonitorWatcher() {
     }
 
     static void enqueue(TileMonitor monitor) {
+        // The cached state is cleared even if the monitor is already queued, so players will receive its latest state.
+        monitor.cached = null;
         if (monitor.enqueued) return;
 
         monitor.enqueued = true;
-        monitor.cached = null;
         watching.add(monitor);
     }
 
@@ -47,50 +70,160 @@ public final class MonitorWatcher {
         Chunk chunk = event.getChunkInstance();
         if (chunk == null) return;
 
+        PlayerQueue queue = null;
         for (TileEntity te : chunk.getTileEntityMap().values()) {
-            // Find all origin monitors who are not already on the queue.
-            if (!(te instanceof TileMonitor monitor)) continue;
-
-            ServerMonitor serverMonitor = getMonitor(monitor);
-            if (serverMonitor == null || monitor.enqueued) continue;
+            // Queue all origin monitors. They will be sent alongside any other updates, nearest first.
+            if (!(te instanceof TileMonitor monitor) || getMonitor(monitor) == null) continue;
 
-            // We use the cached terminal state if available - this is guaranteed to
-            TerminalState state = monitor.cached;
-            if (state == null) state = monitor.cached = serverMonitor.write();
-            NetworkHandler.sendToPlayer(event.getPlayer(), new MonitorClientMessage(monitor.getPos(), state));
+            if (queue == null) queue = getQueue(event.getPlayer());
+            queue.pending.add(monitor);
         }
     }
 
+    @SubscribeEvent
+    public static void onLogout(PlayerEvent.PlayerLoggedOutEvent event) {
+        EntityPlayer player = event.player;
+        if (player instanceof EntityPlayerMP) players.remove(player);
+    }
+
     @SubscribeEvent
     public static void onTick(TickEvent.ServerTickEvent event) {
         if (event.phase != TickEvent.Phase.END) return;
 
-        long limit = ComputerCraft.monitorBandwidth;
-        boolean obeyLimit = limit > 0;
-
+        // Queue every changed monitor for each player who can see it.
         TileMonitor tile;
-        while ((!obeyLimit || limit > 0) && (tile = watching.poll()) != null) {
+        while ((tile = watching.poll()) != null) {
             tile.enqueued = false;
-            ServerMonitor monitor = getMonitor(tile);
-            if (monitor == null) continue;
-
-            BlockPos pos = tile.getPos();
-            World world = tile.getWorld();
-            WorldServer serverWorld =
-                world instanceof WorldServer ? (WorldServer) world : DimensionManager.getWorld(world.provider.getDimension());
-            PlayerChunkMapEntry entry = serverWorld.getPlayerChunkMap().getEntry(pos.getX() >> 4, pos.getZ() >> 4);
-            if (entry == null || entry.getWatchingPlayers().isEmpty()) continue;
-
-            NetworkRegistry.TargetPoint point = new NetworkRegistry.TargetPoint(world.provider.getDimension(), pos.getX(), pos.getY(),
-                                                                                pos.getZ(), 0);
-            TerminalState state = tile.cached = monitor.write();
-            NetworkHandler.sendToAllTracking(new MonitorClientMessage(pos, state), point);
-
-            limit -= state.size();
+            if (getMonitor(tile) == null) continue;
+
+            PlayerChunkMapEntry entry = getEntry(tile);
+            if (entry == null) continue;
+            for (EntityPlayerMP player : entry.getWatchingPlayers()) getQueue(player).pending.add(tile);
+        }
+
+        if (players.isEmpty()) return;
+
+        long playerLimit = ComputerCraft.monitorPlayerBandwidth;
+        long globalLimit = ComputerCraft.monitorBandwidth;
+        boolean obeyGlobalLimit = globalLimit > 0;
+        Set<TileMonitor> sentThisTick = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        // Rotate the players each tick, so the global limit is shared fairly between them.
+        List<PlayerQueue> queues = new ArrayList<>(players.values());
+        Collections.rotate(queues, rotation++ % queues.size());
+
+        for (PlayerQueue queue : queues) {
+            if (queue.player.isDead) {
+                // This player has logged out or respawned (in which case they'll be given a new queue).
+                players.remove(queue.player);
+                continue;
+            }
+
+            if (playerLimit > 0) queue.budget = Math.min(queue.budget + playerLimit, playerLimit);
+            if (queue.pending.isEmpty()) continue;
+
+            EntityPlayerMP player = queue.player;
+            List<TileMonitor> pending = new ArrayList<>(queue.pending);
+            pending.sort(Comparator.comparingDouble(x -> x.getPos().distanceSq(player.posX, player.posY, player.posZ)));
+
+            for (TileMonitor monitor : pending) {
+                ServerMonitor serverMonitor = getMonitor(monitor);
+                PlayerChunkMapEntry entry = serverMonitor == null ? null : getEntry(monitor);
+                if (entry == null || !entry.containsPlayer(player)) {
+                    // The player can no longer see this monitor. They'll be sent it again if they start watching its chunk.
+                    queue.pending.remove(monitor);
+                    queue.deferred.remove(monitor);
+                    continue;
+                }
+
+                boolean alreadySent = sentThisTick.contains(monitor);
+                if ((playerLimit > 0 && queue.budget <= 0) || (obeyGlobalLimit && globalLimit <= 0 && !alreadySent)) {
+                    // Leave this monitor queued until the next tick. It is only counted the first time it is held back, rather than
+                    // on every tick it stays queued.
+                    if (queue.deferred.add(monitor)) {
+                        deferredUpdates++;
+                        deferredBytes += monitor.cached == null ? monitor.lastSize : monitor.cached.size();
+                    }
+                    continue;
+                }
+
+                TerminalState state = monitor.cached;
+                if (state == null) {
+                    state = monitor.cached = serverMonitor.write();
+                    monitor.lastSize = state.size();
+                }
+
+                MonitorClientMessage packet = new MonitorClientMessage(monitor.getPos(), state);
+                TerminalEncoder.send(serverMonitor, state, () -> NetworkHandler.sendToPlayer(player, packet));
+                queue.pending.remove(monitor);
+                queue.deferred.remove(monitor);
+                queue.budget -= state.size();
+                sentBytes += state.size();
+                sentUpdates++;
+
+                if (!alreadySent) {
+                    sentThisTick.add(monitor);
+                    globalLimit -= state.size();
+                }
+            }
         }
     }
 
+    public static long getSentBytes() {
+        return sentBytes;
+    }
+
+    public static long getSentUpdates() {
+        return sentUpdates;
+    }
+
+    public static long getDeferredBytes() {
+        return deferredBytes;
+    }
+
+    public static long getDeferredUpdates() {
+        return deferredUpdates;
+    }
+
+    public static void reset() {
+        for (TileMonitor monitor : watching) monitor.enqueued = false;
+        watching.clear();
+        players.clear();
+        sentBytes = sentUpdates = deferredBytes = deferredUpdates = 0;
+    }
+
+    private static PlayerQueue getQueue(EntityPlayerMP player) {
+        PlayerQueue queue = players.get(player);
+        if (queue == null) players.put(player, queue = new PlayerQueue(player));
+        return queue;
+    }
+
+    @Nullable
+    private static PlayerChunkMapEntry getEntry(TileMonitor tile) {
+        BlockPos pos = tile.getPos();
+        World world = tile.getWorld();
+        WorldServer serverWorld =
+            world instanceof WorldServer ? (WorldServer) world : DimensionManager.getWorld(world.provider.getDimension());
+        return serverWorld == null ? null : serverWorld.getPlayerChunkMap().getEntry(pos.getX() >> 4, pos.getZ() >> 4);
+    }
+
     private static ServerMonitor getMonitor(TileMonitor monitor) {
         return !monitor.isInvalid() && monitor.getXIndex() == 0 && monitor.getYIndex() == 0 ? monitor.getCachedServerMonitor() : null;
     }
+
+    private static final class PlayerQueue {
+
+        final EntityPlayerMP player;
+        final Set<TileMonitor> pending = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        /**
+         * The subset of {@link #pending} which has already been held back by the bandwidth limits, and so counted as deferred.
+         */
+        final Set<TileMonitor> deferred = Collections.newSetFromMap(new IdentityHashMap<>());
+        long budget;
+
+        PlayerQueue(EntityPlayerMP player) {
+            this.player = player;
+        }
+    }
 }
@@ -51,6 +51,7 @@ public class TileMonitor extends TileGeneric implements ITilePeripheral, IPeriph
     // MonitorWatcher state.
     boolean enqueued;
     TerminalState cached;
+    int lastSize;
 
     private int m_width = 1;
     private int m_height = 1;
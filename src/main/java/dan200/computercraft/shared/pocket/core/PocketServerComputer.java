@@ -13,7 +13,6 @@ import dan200.computercraft.core.computer.ComputerSide;
 import dan200.computercraft.shared.common.IColouredItem;
 import dan200.computercraft.shared.computer.core.ComputerFamily;
 import dan200.computercraft.shared.computer.core.ServerComputer;
-import dan200.computercraft.shared.network.NetworkHandler;
 import dan200.computercraft.shared.pocket.items.ItemPocketComputer;
 import net.minecraft.entity.Entity;
 import net.minecraft.entity.EntityLivingBase;
@@ -162,14 +161,8 @@ public class PocketServerComputer extends ServerComputer implements IPocketAcces
     }
 
     @Override
-    public void broadcastState(boolean force) {
-        super.broadcastState(force);
-
-        if ((hasTerminalChanged() || force) && m_entity instanceof EntityPlayerMP player) {
-            // Broadcast the state to the current entity if they're not already interacting with it.
-            if (player.connection != null && !isInteracting(player)) {
-                NetworkHandler.sendToPlayer(player, createTerminalPacket());
-            }
-        }
+    protected boolean isViewing(EntityPlayerMP player) {
+        // The player holding this computer can see its terminal, even if they're not interacting with it.
+        return super.isViewing(player) || (player == m_entity && player.connection != null);
     }
 }
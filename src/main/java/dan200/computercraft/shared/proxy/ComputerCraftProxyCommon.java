@@ -10,6 +10,7 @@ import dan200.computercraft.api.ComputerCraftAPI;
 import dan200.computercraft.api.media.IMedia;
 import dan200.computercraft.api.peripheral.IPeripheralTile;
 import dan200.computercraft.core.computer.MainThread;
+import dan200.computercraft.core.filesystem.FileMount;
 import dan200.computercraft.shared.Config;
 import dan200.computercraft.shared.command.CommandComputerCraft;
 import dan200.computercraft.shared.common.DefaultBundledRedstoneProvider;
@@ -34,7 +35,9 @@ import net.minecraft.server.MinecraftServer;
 import net.minecraft.tileentity.TileEntity;
 import net.minecraft.tileentity.TileEntityCommandBlock;
 import net.minecraft.util.ResourceLocation;
+import net.minecraft.world.World;
 import net.minecraftforge.event.entity.player.PlayerContainerEvent;
+import net.minecraftforge.event.world.WorldEvent;
 import net.minecraftforge.fml.client.event.ConfigChangedEvent;
 import net.minecraftforge.fml.common.FMLCommonHandler;
 import net.minecraftforge.fml.common.Loader;
@@ -129,6 +132,13 @@ public class ComputerCraftProxyCommon {
             }
         }
 
+        @SubscribeEvent
+        public static void onWorldSave(WorldEvent.Save event) {
+            // Save disk usage alongside the world, so it does not need to be measured on the next start.
+            World world = event.getWorld();
+            if (!world.isRemote && world.provider.getDimension() == 0) FileMount.saveLedgers();
+        }
+
         @SubscribeEvent
         public static void onConfigChanged(ConfigChangedEvent.OnConfigChangedEvent event) {
             if (event.getModID().equals(ComputerCraft.MOD_ID)) Config.sync();
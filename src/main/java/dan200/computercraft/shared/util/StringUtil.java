@@ -53,15 +53,4 @@ public final class StringUtil {
     public static String translateFormatted(String key, Object... args) {
         return net.minecraft.util.text.translation.I18n.translateToLocalFormatted(key, args);
     }
-
-    public static byte[] encodeString(String string) {
-        byte[] chars = new byte[string.length()];
-
-        for (int i = 0; i < chars.length; i++) {
-            char c = string.charAt(i);
-            chars[i] = c < 256 ? (byte) c : 63;
-        }
-
-        return chars;
-    }
 }
@@ -5,7 +5,11 @@
  */
 package dan200.computercraft.shared.wired;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
 import com.google.common.collect.ImmutableMap;
+import dan200.computercraft.api.network.IPacketSender;
 import dan200.computercraft.api.network.Packet;
 import dan200.computercraft.api.network.wired.IWiredNetwork;
 import dan200.computercraft.api.network.wired.IWiredNode;
@@ -20,10 +24,30 @@ import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 public final class WiredNetwork implements IWiredNetwork {
 
+    /**
+     * The maximum number of senders to cache routes for in a network.
+     */
+    private static final int MAX_CACHED_SENDERS = 32;
+
     final ReadWriteLock lock = new ReentrantReadWriteLock();
     HashSet<WiredNode> nodes;
     private HashMap<String, IPeripheral> peripherals = new HashMap<>();
 
+    /**
+     * The distance from each node which has transmitted a packet to every other node in the network.
+     *
+     * Nodes do not move, so these only need to be recomputed when the network's topology changes. This is read while holding
+     * the read lock (so may be populated by several threads at once), and cleared while holding the write lock.
+     *
+     * This holds routes for at most {@link #MAX_CACHED_SENDERS} senders, evicting the least recently used first. Each sender has one
+     * route (a {@link TransmitPoint}, roughly 40 bytes) per node in the network, so the cache uses at most 32 * 40 = 1280 bytes per node:
+     * about 6MiB for a 5,000 node network.
+     */
+    private final Cache<WiredNode, TransmitPoint[]> routes = CacheBuilder.newBuilder()
+        .maximumSize(MAX_CACHED_SENDERS)
+        .recordStats()
+        .build();
+
     WiredNetwork(WiredNode node) {
         nodes = new HashSet<>(1);
         nodes.add(node);
@@ -82,6 +106,7 @@ public final class WiredNetwork implements IWiredNetwork {
 
             boolean added = wiredU.neighbours.add(wiredV);
             if (added) wiredV.neighbours.add(wiredU);
+            routes.invalidateAll();
 
             InvariantChecker.checkNetwork(this);
             InvariantChecker.checkNode(wiredU);
@@ -108,56 +133,42 @@ public final class WiredNetwork implements IWiredNetwork {
             // If there was no connection to remove then split.
             if (!wiredU.neighbours.remove(wiredV)) return false;
             wiredV.neighbours.remove(wiredU);
+            routes.invalidateAll();
 
-            // Determine if there is still some connection from u to v.
-            // Note this is an inlining of reachableNodes which short-circuits
-            // if all nodes are reachable.
-            Queue<WiredNode> enqueued = new ArrayDeque<>();
-            HashSet<WiredNode> reachableU = new HashSet<>();
-
-            reachableU.add(wiredU);
-            enqueued.add(wiredU);
-
-            while (!enqueued.isEmpty()) {
-                WiredNode node = enqueued.remove();
-                for (WiredNode neighbour : node.neighbours) {
-                    // If we can reach wiredV from wiredU then abort.
-                    if (neighbour == wiredV) return true;
-
-                    // Otherwise attempt to enqueue this neighbour as well.
-                    if (reachableU.add(neighbour)) enqueued.add(neighbour);
-                }
-            }
+            // Determine if there is still some connection from u to v. If not, then we split off the smaller of the two
+            // halves into a new network.
+            List<HashSet<WiredNode>> separated = findSeparated(Arrays.asList(wiredU, wiredV));
+            if (separated.isEmpty()) return true;
 
-            // Create a new network with all U-reachable nodes/edges and remove them
-            // from the existing graph.
-            WiredNetwork networkU = new WiredNetwork(reachableU);
-            networkU.lock.writeLock().lock();
+            // Create a new network with all the separated nodes/edges and remove them from the existing graph.
+            HashSet<WiredNode> separatedNodes = separated.get(0);
+            WiredNetwork separatedNetwork = new WiredNetwork(separatedNodes);
+            separatedNetwork.lock.writeLock().lock();
             try {
                 // Remove nodes from this network
-                nodes.removeAll(reachableU);
+                nodes.removeAll(separatedNodes);
 
                 // Set network and transfer peripherals
-                for (WiredNode node : reachableU) {
-                    node.network = networkU;
-                    networkU.peripherals.putAll(node.peripherals);
+                for (WiredNode node : separatedNodes) {
+                    node.network = separatedNetwork;
+                    separatedNetwork.peripherals.putAll(node.peripherals);
                     peripherals.keySet().removeAll(node.peripherals.keySet());
                 }
 
                 // Broadcast changes
-                if (!peripherals.isEmpty()) WiredNetworkChange.removed(peripherals).broadcast(networkU.nodes);
-                if (!networkU.peripherals.isEmpty()) {
-                    WiredNetworkChange.removed(networkU.peripherals).broadcast(nodes);
+                if (!peripherals.isEmpty()) WiredNetworkChange.removed(peripherals).broadcast(separatedNetwork.nodes);
+                if (!separatedNetwork.peripherals.isEmpty()) {
+                    WiredNetworkChange.removed(separatedNetwork.peripherals).broadcast(nodes);
                 }
 
                 InvariantChecker.checkNetwork(this);
-                InvariantChecker.checkNetwork(networkU);
+                InvariantChecker.checkNetwork(separatedNetwork);
                 InvariantChecker.checkNode(wiredU);
                 InvariantChecker.checkNode(wiredV);
 
                 return true;
             } finally {
-                networkU.lock.writeLock().unlock();
+                separatedNetwork.lock.writeLock().unlock();
             }
         } finally {
             lock.writeLock().unlock();
@@ -180,6 +191,7 @@ public final class WiredNetwork implements IWiredNetwork {
             // Remove this node and move into a separate network.
             nodes.remove(wired);
             for (WiredNode neighbour : neighbours) neighbour.neighbours.remove(wired);
+            routes.invalidateAll();
 
             WiredNetwork wiredNetwork = new WiredNetwork(wired);
 
@@ -193,10 +205,9 @@ public final class WiredNetwork implements IWiredNetwork {
                 return true;
             }
 
-            HashSet<WiredNode> reachable = reachableNodes(neighbours.iterator().next());
-
-            // If all nodes are reachable then exit.
-            if (reachable.size() == nodes.size()) {
+            // If the remaining nodes are all still connected then exit.
+            List<HashSet<WiredNode>> separated = findSeparated(neighbours);
+            if (separated.isEmpty()) {
                 // Broadcast our simple peripheral changes
                 removeSingleNode(wired, wiredNetwork);
                 InvariantChecker.checkNode(wired);
@@ -204,48 +215,49 @@ public final class WiredNetwork implements IWiredNetwork {
                 return true;
             }
 
-            // A split may cause 2..neighbours.size() separate networks, so we
-            // iterate through our neighbour list, generating child networks.
-            neighbours.removeAll(reachable);
-            ArrayList<WiredNetwork> maximals = new ArrayList<>(neighbours.size() + 1);
+            // A split may cause 2..neighbours.size() separate networks. The largest stays in this network, so we only need to
+            // move nodes (and update the peripherals) of the smaller ones.
+            ArrayList<WiredNetwork> maximals = new ArrayList<>(separated.size() + 1);
             maximals.add(wiredNetwork);
-            maximals.add(new WiredNetwork(reachable));
-
-            while (!neighbours.isEmpty()) {
-                reachable = reachableNodes(neighbours.iterator().next());
-                neighbours.removeAll(reachable);
-                maximals.add(new WiredNetwork(reachable));
+            for (HashSet<WiredNode> separatedNodes : separated) {
+                nodes.removeAll(separatedNodes);
+                maximals.add(new WiredNetwork(separatedNodes));
             }
 
             for (WiredNetwork network : maximals) network.lock.writeLock().lock();
 
             try {
+                Map<String, IPeripheral> oldPeripherals = new HashMap<>(peripherals);
+
                 // We special case the original node: detaching all peripherals when needed.
                 wired.network = wiredNetwork;
+                wired.neighbours.clear();
+                peripherals.keySet().removeAll(wired.peripherals.keySet());
                 wired.peripherals = Collections.emptyMap();
 
                 // Ensure every network is finalised
                 for (WiredNetwork network : maximals) {
                     for (WiredNode child : network.nodes) {
+                        if (child == wired) continue;
                         child.network = network;
                         network.peripherals.putAll(child.peripherals);
+                        peripherals.keySet().removeAll(child.peripherals.keySet());
                     }
                 }
 
                 for (WiredNetwork network : maximals) InvariantChecker.checkNetwork(network);
+                InvariantChecker.checkNetwork(this);
                 InvariantChecker.checkNode(wired);
 
                 // Then broadcast network changes once all nodes are finalised
                 for (WiredNetwork network : maximals) {
-                    WiredNetworkChange.changeOf(peripherals, network.peripherals).broadcast(network.nodes);
+                    WiredNetworkChange.changeOf(oldPeripherals, network.peripherals).broadcast(network.nodes);
                 }
+                WiredNetworkChange.changeOf(oldPeripherals, peripherals).broadcast(nodes);
             } finally {
                 for (WiredNetwork network : maximals) network.lock.writeLock().unlock();
             }
 
-            nodes.clear();
-            peripherals.clear();
-
             return true;
         } finally {
             lock.writeLock().unlock();
@@ -280,13 +292,55 @@ public final class WiredNetwork implements IWiredNetwork {
     }
 
     static void transmitPacket(WiredNode start, Packet packet, double range, boolean interdimensional) {
+        IPacketSender sender = packet.getSender();
+        if (start.element.getWorld() != sender.getWorld()) {
+            // This should never happen with our modems, so don't bother caching it.
+            for (TransmitPoint point : findRoutes(start, Double.POSITIVE_INFINITY, true)) {
+                point.node.tryTransmit(packet, point.distance, point.interdimensional, range, interdimensional);
+            }
+            return;
+        }
+
+        // Routes are computed from the start node, so we offset them by the sender's distance from it. Infinite distances are
+        // preserved, as infinity + d = infinity.
+        double offset = start.element.getPosition().distanceTo(sender.getPosition());
+        for (TransmitPoint point : start.network.getRoutes(start)) {
+            point.node.tryTransmit(packet, point.distance + offset, point.interdimensional, range, interdimensional);
+        }
+    }
+
+    /**
+     * Get the route from a node to every other node on this network, computing it if needed. The caller must hold this
+     * network's read lock.
+     *
+     * @param start The node to find routes from.
+     * @return The route to every node in the network. This must not be modified.
+     */
+    private TransmitPoint[] getRoutes(WiredNode start) {
+        TransmitPoint[] points = routes.getIfPresent(start);
+        if (points != null) return points;
+
+        // Several threads may compute the same routes at once. This is harmless, as they'll all find the same thing.
+        points = findRoutes(start, 0, false);
+        TransmitPoint[] existing = routes.asMap().putIfAbsent(start, points);
+        return existing == null ? points : existing;
+    }
+
+    /**
+     * Get statistics about how often transmitting a packet could use cached routes.
+     *
+     * @return This network's route cache statistics.
+     */
+    CacheStats getRouteStats() {
+        return routes.stats();
+    }
+
+    private static TransmitPoint[] findRoutes(WiredNode start, double startDistance, boolean startInterdimensional) {
         Map<WiredNode, TransmitPoint> points = new HashMap<>();
         TreeSet<TransmitPoint> transmitTo = new TreeSet<>();
 
         {
-            TransmitPoint startEntry =
-                start.element.getWorld() != packet.getSender().getWorld() ? new TransmitPoint(start, Double.POSITIVE_INFINITY, true) :
-                new TransmitPoint(start, start.element.getPosition().distanceTo(packet.getSender().getPosition()), false);
+            TransmitPoint startEntry = new TransmitPoint(start, startDistance, startInterdimensional);
             points.put(start, startEntry);
             transmitTo.add(startEntry);
         }
@@ -323,9 +377,7 @@ public final class WiredNetwork implements IWiredNetwork {
             }
         }
 
-        for (TransmitPoint point : points.values()) {
-            point.node.tryTransmit(packet, point.distance, point.interdimensional, range, interdimensional);
-        }
+        return points.values().toArray(new TransmitPoint[0]);
     }
 
     private void removeSingleNode(WiredNode wired, WiredNetwork wiredNetwork) {
@@ -379,21 +431,107 @@ public final class WiredNetwork implements IWiredNetwork {
         }
     }
 
-    private static HashSet<WiredNode> reachableNodes(WiredNode start) {
-        Queue<WiredNode> enqueued = new ArrayDeque<>();
-        HashSet<WiredNode> reachable = new HashSet<>();
+    /**
+     * Determine which of several nodes are no longer connected to each other, and find the nodes which have been separated.
+     *
+     * This searches outwards from every node at once, one node at a time, stopping as soon as all but one of the searches have
+     * either met each other or visited every node they can reach. Consequently, removing a redundant link only visits the nodes
+     * around it, and splitting a network only visits (roughly) as many nodes as there are in the smaller parts, rather than the
+     * whole network.
+     *
+     * @param starts The nodes to search from.
+     * @return The separated parts of the network, which should be moved into new networks. The part which was still being
+     * searched (or the largest, if every search finished) stays where it is, and so is not included. This is empty if all nodes are
+     * still connected.
+     */
+    private static List<HashSet<WiredNode>> findSeparated(Collection<WiredNode> starts) {
+        Map<WiredNode, Search> owners = new HashMap<>();
+        List<Search> searches = new ArrayList<>(starts.size());
+        for (WiredNode start : starts) {
+            if (owners.containsKey(start)) continue;
+            Search search = new Search(start);
+            owners.put(start, search);
+            searches.add(search);
+        }
+
+        List<Search> exhausted = new ArrayList<>();
+        int live = searches.size();
+        while (live > 1) {
+            for (Search search : searches) {
+                WiredNode node = search.queue.poll();
+                if (node == null) continue;
+
+                for (WiredNode neighbour : node.neighbours) {
+                    Search owner = owners.putIfAbsent(neighbour, search);
+                    if (owner == null) {
+                        search.visited.add(neighbour);
+                        search.queue.add(neighbour);
+                    } else if (owner.find() != search.find()) {
+                        // Exhausted searches have found their entire component, so we can only ever meet a live one.
+                        Search.union(owner.find(), search.find());
+                        live--;
+                    }
+                }
 
-        reachable.add(start);
-        enqueued.add(start);
+                if (search.queue.isEmpty()) {
+                    Search root = search.find();
+                    if (--root.active == 0) {
+                        exhausted.add(root);
+                        live--;
+                    }
+                }
 
-        WiredNode node;
-        while ((node = enqueued.poll()) != null) {
-            for (WiredNode neighbour : node.neighbours) {
-                // Otherwise attempt to enqueue this neighbour as well.
-                if (reachable.add(neighbour)) enqueued.add(neighbour);
+                if (live <= 1) break;
             }
         }
 
-        return reachable;
+        List<HashSet<WiredNode>> separated = new ArrayList<>(exhausted.size());
+        for (Search root : exhausted) {
+            HashSet<WiredNode> component = new HashSet<>();
+            for (Search member : root.members) component.addAll(member.visited);
+            separated.add(component);
+        }
+
+        // If every search was exhausted, then one of them is the original network: keep the largest where it is.
+        if (live == 0) separated.remove(Collections.max(separated, Comparator.comparingInt(HashSet::size)));
+
+        return separated;
+    }
+
+    private static final class Search {
+
+        final Queue<WiredNode> queue = new ArrayDeque<>();
+        final HashSet<WiredNode> visited = new HashSet<>();
+
+        Search parent = this;
+        List<Search> members;
+        int active = 1;
+
+        Search(WiredNode start) {
+            queue.add(start);
+            visited.add(start);
+            members = new ArrayList<>(1);
+            members.add(this);
+        }
+
+        Search find() {
+            Search root = this;
+            while (root.parent != root) root = root.parent;
+            parent = root;
+            return root;
+        }
+
+        static void union(Search a, Search b) {
+            if (a.members.size() < b.members.size()) {
+                Search temp = a;
+                a = b;
+                b = temp;
+            }
+
+            b.parent = a;
+            a.members.addAll(b.members);
+            a.active += b.active;
+            b.members = null;
+        }
     }
 }
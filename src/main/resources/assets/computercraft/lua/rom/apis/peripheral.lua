@@ -155,6 +155,76 @@ function call(name, method, ...)
     return nil
 end
 
+--- Call several peripheral methods at once, waiting for all of them to finish.
+--
+-- Methods which interact with the world normally take at least one server tick
+-- each, so calling many methods one after another can be very slow. Batched
+-- methods are instead run together, as many in each tick as the server's time
+-- limits allow.
+--
+-- As batched methods are run on the server thread, they cannot wait for
+-- events.
+--
+-- @tparam { { string, string, any... }... } calls A list of calls to make. Each
+-- call is a table of the form `{ name, method, ... }`, as would be passed to
+-- @{peripheral.call}.
+-- @treturn { { boolean, any... }... } The result of each call, in the same
+-- order as `calls`. Each result is either `{ true, ...return values... }` or
+-- `{ false, error message }`, with the number of values stored in `n`.
+-- @usage Read the contents of several chests within a single tick.
+--
+--     local names = { peripheral.find("minecraft:chest") }
+--     local calls = {}
+--     for i, name in ipairs(names) do calls[i] = { name, "list" } end
+--
+--     for i, result in ipairs(peripheral.batch(calls)) do
+--         if result[1] then print(names[i], #result[2]) end
+--     end
+function batch(calls)
+    expect(1, calls, "table")
+
+    local resolved = {}
+    for i = 1, #calls do
+        local call = calls[i]
+        if type(call) ~= "table" then
+            error(("bad argument #1 (call %d is not a table)"):format(i), 2)
+        end
+
+        local name, method = call[1], call[2]
+        if type(name) ~= "string" then
+            error(("bad argument #1 (call %d: expected string name, got %s)"):format(i, type(name)), 2)
+        end
+        if type(method) ~= "string" then
+            error(("bad argument #1 (call %d: expected string method, got %s)"):format(i, type(method)), 2)
+        end
+
+        local n = call.n or #call
+        if native.isPresent(name) then
+            resolved[i] = table.pack(name, method, table.unpack(call, 3, n))
+        else
+            -- Route calls to remote peripherals through the modem they're attached to.
+            local remote
+            for s = 1, #sides do
+                local side = sides[s]
+                if native.getType(side) == "modem" and not native.call(side, "isWireless") and
+                    native.call(side, "isPresentRemote", name)
+                then
+                    remote = side
+                    break
+                end
+            end
+
+            if remote then
+                resolved[i] = table.pack(remote, "callRemote", name, method, table.unpack(call, 3, n))
+            else
+                resolved[i] = table.pack(name, method)
+            end
+        end
+    end
+
+    return native.batch(resolved)
+end
+
 --- Get a table containing functions pointing to the peripheral's methods, which
 -- can then be called as if using @{peripheral.call}.
 --
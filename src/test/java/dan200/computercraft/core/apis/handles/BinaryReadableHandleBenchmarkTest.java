@@ -0,0 +1,95 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2020. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.core.apis.handles;
+
+import dan200.computercraft.api.lua.LuaException;
+import dan200.computercraft.core.apis.ObjectWrapper;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+/**
+ * Measures how long {@code readLine}, {@code read} and {@code readAll} take to consume a 10MB file through a
+ * {@link BinaryReadableHandle}. Run this on two revisions to compare them.
+ */
+public class BinaryReadableHandleBenchmarkTest
+{
+    private static final File FILE = new File( "test-files/binary-handle-benchmark.txt" );
+    private static final int SIZE = 10 * 1024 * 1024;
+    private static final int ITERATIONS = 10;
+
+    private interface Consumer
+    {
+        void consume( ObjectWrapper handle ) throws LuaException;
+    }
+
+    @Test
+    @Disabled( "Takes a long time to run, mostly for benchmarking" )
+    public void testThroughput() throws Exception
+    {
+        writeFile();
+
+        run( "readLine", handle -> {
+            while( handle.call( "readLine" ) != null ) ;
+        } );
+        run( "read()", handle -> {
+            while( handle.call( "read" ) != null ) ;
+        } );
+        run( "read(100)", handle -> {
+            while( handle.call( "read", 100 ) != null ) ;
+        } );
+        run( "read(65536)", handle -> {
+            while( handle.call( "read", 65536 ) != null ) ;
+        } );
+        run( "readAll", handle -> handle.call( "readAll" ) );
+    }
+
+    /**
+     * Write the file to read. This is only done when the benchmark is actually run, so normal test runs don't write 10MB to disk.
+     *
+     * @throws IOException If the file could not be written.
+     */
+    private static void writeFile() throws IOException
+    {
+        // Lines of text of varying length, much like a log file or serialised table.
+        Random random = new Random( 0 );
+        byte[] contents = new byte[SIZE];
+        for( int i = 0; i < contents.length; i++ )
+        {
+            contents[i] = random.nextInt( 40 ) == 0 ? (byte) '\n' : (byte) ('a' + random.nextInt( 26 ));
+        }
+
+        FILE.getParentFile().mkdirs();
+        Files.write( FILE.toPath(), contents );
+    }
+
+    private static void run( String name, Consumer consumer ) throws Exception
+    {
+        // Warm up first, so we are not measuring the JIT.
+        time( consumer );
+        long time = 0;
+        for( int i = 0; i < ITERATIONS; i++ ) time += time( consumer );
+
+        System.out.printf( "%s: %.1fms/file\n", name, time / (double) ITERATIONS / 1e6 );
+    }
+
+    private static long time( Consumer consumer ) throws Exception
+    {
+        try( FileChannel channel = FileChannel.open( FILE.toPath(), StandardOpenOption.READ ) )
+        {
+            ObjectWrapper wrapper = new ObjectWrapper( new BinaryReadableHandle( channel ) );
+            long start = System.nanoTime();
+            consumer.consume( wrapper );
+            return System.nanoTime() - start;
+        }
+    }
+}
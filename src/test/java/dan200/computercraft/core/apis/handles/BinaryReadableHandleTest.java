@@ -77,6 +77,42 @@ public class BinaryReadableHandleTest
         assertNull( wrapper.call( "readLine", true ) );
     }
 
+    @Test
+    public void testReadLineLong() throws LuaException
+    {
+        // Lines which span several reads from the underlying channel.
+        byte[] line = new byte[20000];
+        Arrays.fill( line, (byte) 'A' );
+        line[line.length - 1] = '\r';
+        byte[] input = Arrays.copyOf( line, line.length * 2 + 2 );
+        input[line.length] = '\n';
+        System.arraycopy( line, 0, input, line.length + 1, line.length );
+        input[input.length - 1] = '\n';
+
+        ObjectWrapper wrapper = new ObjectWrapper( new BinaryReadableHandle( new ArrayByteChannel( input ) ) );
+        assertArrayEquals( Arrays.copyOf( line, line.length - 1 ), wrapper.callOf( "readLine" ) );
+        assertArrayEquals( Arrays.copyOfRange( input, line.length + 1, input.length ), wrapper.callOf( "readLine", true ) );
+        assertNull( wrapper.call( "readLine" ) );
+    }
+
+    @Test
+    public void testSeekAfterRead() throws LuaException
+    {
+        ObjectWrapper wrapper = new ObjectWrapper( new BinaryReadableHandle( new ArrayByteChannel( "abc\ndef\nghi".getBytes( StandardCharsets.UTF_8 ) ) ) );
+        assertArrayEquals( "abc".getBytes( StandardCharsets.UTF_8 ), wrapper.callOf( "readLine" ) );
+
+        // Reading ahead should not be visible to the user.
+        assertEquals( 4L, (long) wrapper.callOf( Long.class, "seek" ) );
+        assertEquals( 'd', (int) wrapper.callOf( Integer.class, "read" ) );
+        assertEquals( 3L, (long) wrapper.callOf( Long.class, "seek", "cur", -2 ) );
+        assertArrayEquals( "\ndef\nghi".getBytes( StandardCharsets.UTF_8 ), wrapper.callOf( "readAll" ) );
+        assertNull( wrapper.call( "readAll" ) );
+        assertNull( wrapper.call( "read", 0 ) );
+
+        assertEquals( 8L, (long) wrapper.callOf( Long.class, "seek", "set", 8 ) );
+        assertArrayEquals( "ghi".getBytes( StandardCharsets.UTF_8 ), wrapper.callOf( "read", 100000 ) );
+    }
+
     private static ObjectWrapper fromLength( int length )
     {
         byte[] input = new byte[length];
@@ -0,0 +1,271 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2020. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.core.computer;
+
+import dan200.computercraft.ComputerCraft;
+import dan200.computercraft.api.lua.ILuaAPI;
+import dan200.computercraft.api.lua.ILuaContext;
+import dan200.computercraft.core.filesystem.MemoryMount;
+import dan200.computercraft.core.terminal.Terminal;
+import org.apache.logging.log4j.LogManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+public class ComputerThreadTest
+{
+    private static final int THREADS = 8;
+    private static final int COMPUTERS = 2000;
+    private static final int WARMUP_SECONDS = 5;
+    private static final int RUN_SECONDS = 20;
+
+    private static final String PROGRAM = "while true do os.queueEvent('bench') os.pullEvent('bench') bench.count() end";
+
+    /**
+     * A short-lived program, which keeps a runner busy for a little while and yields a few times before finishing.
+     */
+    private static final String SHORT_PROGRAM = "for i = 1, 10 do for j = 1, 1e5 do end sleep(0) end bench.count() os.shutdown()";
+    private static final int SHORT_COMPUTERS = 16;
+    private static final int SHORT_TIMEOUT = 10;
+
+    private int oldThreads;
+    private int oldMaxThreads;
+    private boolean oldWorkStealing;
+
+    @BeforeEach
+    public void setup()
+    {
+        ComputerCraft.log = LogManager.getLogger( ComputerCraft.MOD_ID );
+        oldThreads = ComputerCraft.computer_threads;
+        oldMaxThreads = ComputerCraft.maxComputerThreads;
+        oldWorkStealing = ComputerCraft.computerWorkStealing;
+    }
+
+    @AfterEach
+    public void tearDown()
+    {
+        ComputerThread.stop();
+        ComputerCraft.computer_threads = oldThreads;
+        ComputerCraft.maxComputerThreads = oldMaxThreads;
+        ComputerCraft.computerWorkStealing = oldWorkStealing;
+    }
+
+    @Test
+    public void testSharedQueue() throws InterruptedException
+    {
+        runShort( false, 4 );
+    }
+
+    @Test
+    public void testWorkStealing() throws InterruptedException
+    {
+        runShort( true, 4 );
+    }
+
+    @Test
+    public void testSharedQueueResize() throws InterruptedException
+    {
+        runShortWithResize( false );
+    }
+
+    @Test
+    public void testWorkStealingResize() throws InterruptedException
+    {
+        runShortWithResize( true );
+    }
+
+    /**
+     * Run several short-lived computers to completion, without changing the thread pool.
+     *
+     * @param workStealing Whether to enable work stealing.
+     * @param threads      The number of runners to use.
+     */
+    private static void runShort( boolean workStealing, int threads ) throws InterruptedException
+    {
+        ComputerThread.stop();
+        ComputerCraft.computer_threads = threads;
+        ComputerCraft.maxComputerThreads = 0;
+        ComputerCraft.computerWorkStealing = workStealing;
+
+        CountingApi api = new CountingApi();
+        List<Computer> computers = startShort( api );
+        runUntilDone( computers, api, () -> { } );
+    }
+
+    /**
+     * Run several short-lived computers to completion, while shrinking the thread pool (retiring runners and, with work stealing,
+     * their queues) and then growing it again.
+     *
+     * @param workStealing Whether to enable work stealing.
+     */
+    private static void runShortWithResize( boolean workStealing ) throws InterruptedException
+    {
+        ComputerThread.stop();
+        ComputerCraft.computer_threads = 4;
+        ComputerCraft.maxComputerThreads = 0;
+        ComputerCraft.computerWorkStealing = workStealing;
+
+        CountingApi api = new CountingApi();
+        List<Computer> computers = startShort( api );
+
+        int[] ticks = { 0 };
+        runUntilDone( computers, api, () -> {
+            switch( ++ticks[0] )
+            {
+                case 3:
+                    ComputerCraft.computer_threads = 1;
+                    ComputerThread.updateThreadCount();
+                    break;
+                case 6:
+                    ComputerCraft.computer_threads = 3;
+                    ComputerThread.updateThreadCount();
+                    break;
+            }
+        } );
+    }
+
+    private static List<Computer> startShort( CountingApi api )
+    {
+        List<Computer> computers = new ArrayList<>( SHORT_COMPUTERS );
+        for( int i = 0; i < SHORT_COMPUTERS; i++ )
+        {
+            MemoryMount mount = new MemoryMount()
+                .addFile( "startup", SHORT_PROGRAM );
+            Computer computer = new Computer( new BasicEnvironment( mount ), new Terminal( 51, 19 ), i );
+            computer.addApi( api );
+            computer.turnOn();
+            computers.add( computer );
+        }
+        return computers;
+    }
+
+    /**
+     * Tick the computers until they have all finished and shut down, failing if that takes longer than {@link #SHORT_TIMEOUT}.
+     *
+     * @param computers The computers to tick.
+     * @param api       The API each computer reports completion to.
+     * @param onTick    Run after each tick, used to change the thread pool mid-run.
+     */
+    private static void runUntilDone( List<Computer> computers, CountingApi api, Runnable onTick ) throws InterruptedException
+    {
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos( SHORT_TIMEOUT );
+        try
+        {
+            while( System.nanoTime() < end && !isDone( computers, api ) )
+            {
+                for( Computer computer : computers ) computer.tick();
+                MainThread.executePendingTasks();
+                onTick.run();
+                Thread.sleep( 50 );
+            }
+
+            assertEquals( computers.size(), api.count.get(), "Every computer should have finished its program" );
+            for( Computer computer : computers ) assertFalse( computer.isOn(), "Computer #" + computer.getID() + " should have shut down" );
+        }
+        finally
+        {
+            for( Computer computer : computers ) computer.unload();
+        }
+    }
+
+    private static boolean isDone( List<Computer> computers, CountingApi api )
+    {
+        if( api.count.get() < computers.size() ) return false;
+        for( Computer computer : computers )
+        {
+            if( computer.isOn() ) return false;
+        }
+        return true;
+    }
+
+    @Test
+    @Disabled( "Takes a long time to run, mostly for stress testing" )
+    public void testContention() throws InterruptedException
+    {
+        long shared = runBenchmark( false );
+        long stealing = runBenchmark( true );
+
+        System.out.printf(
+            "%d computers on %d threads: single queue ran %.0f tasks/s, work stealing ran %.0f tasks/s\n",
+            COMPUTERS, THREADS, shared / (double) RUN_SECONDS, stealing / (double) RUN_SECONDS
+        );
+    }
+
+    private static long runBenchmark( boolean workStealing ) throws InterruptedException
+    {
+        ComputerThread.stop();
+        ComputerCraft.computer_threads = THREADS;
+        ComputerCraft.computerWorkStealing = workStealing;
+
+        CountingApi api = new CountingApi();
+        List<Computer> computers = new ArrayList<>( COMPUTERS );
+        for( int i = 0; i < COMPUTERS; i++ )
+        {
+            MemoryMount mount = new MemoryMount()
+                .addFile( "startup", PROGRAM );
+            Computer computer = new Computer( new BasicEnvironment( mount ), new Terminal( 51, 19 ), i );
+            computer.addApi( api );
+            computer.turnOn();
+            computers.add( computer );
+        }
+
+        runFor( computers, WARMUP_SECONDS );
+        long start = api.count.get();
+        runFor( computers, RUN_SECONDS );
+        long count = api.count.get() - start;
+
+        for( Computer computer : computers ) computer.unload();
+        return count;
+    }
+
+    private static void runFor( List<Computer> computers, int seconds ) throws InterruptedException
+    {
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos( seconds );
+        while( System.nanoTime() < end )
+        {
+            for( Computer computer : computers ) computer.tick();
+            MainThread.executePendingTasks();
+            Thread.sleep( 50 );
+        }
+    }
+
+    private static class CountingApi implements ILuaAPI
+    {
+        final AtomicLong count = new AtomicLong();
+
+        @Override
+        public String[] getNames()
+        {
+            return new String[] { "bench" };
+        }
+
+        @Nonnull
+        @Override
+        public String[] getMethodNames()
+        {
+            return new String[] { "count" };
+        }
+
+        @Nullable
+        @Override
+        public Object[] callMethod( @Nonnull ILuaContext context, int method, @Nonnull Object[] arguments )
+        {
+            count.incrementAndGet();
+            return null;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2020. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.core.computer;
+
+import dan200.computercraft.ComputerCraft;
+import dan200.computercraft.api.lua.ILuaAPI;
+import dan200.computercraft.api.lua.ILuaContext;
+import dan200.computercraft.api.lua.LuaException;
+import dan200.computercraft.core.filesystem.MemoryMount;
+import dan200.computercraft.core.terminal.Terminal;
+import org.apache.logging.log4j.LogManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class MainThreadTaskTest
+{
+    private static final int CALLS = 20000;
+    private static final long TIMEOUT = TimeUnit.SECONDS.toNanos( 60 );
+
+    private static final String PROGRAM =
+        "bench.start()\n" +
+        "for i = 1, " + CALLS + " do bench.execute() end\n" +
+        "bench.stop()\n" +
+        "bench.start()\n" +
+        "for i = 1, " + CALLS + " do\n" +
+        "  local id = bench.issue()\n" +
+        "  repeat local _, got = os.pullEvent('task_complete') until got == id\n" +
+        "end\n" +
+        "bench.stop()\n";
+
+    @BeforeEach
+    public void setup()
+    {
+        ComputerCraft.log = LogManager.getLogger( ComputerCraft.MOD_ID );
+    }
+
+    @Test
+    public void testFullEventQueue()
+    {
+        // Fill the event queue past its limit: the task's wake-up must still be delivered.
+        MemoryMount mount = new MemoryMount()
+            .addFile( "test.lua", "for i = 1, 300 do os.queueEvent('filler') end\nassertion.assert(bench.result() == 'done')" )
+            .addFile( "startup", "assertion.assert(pcall(loadfile('test.lua', nil, _ENV))) os.shutdown()" );
+        ComputerBootstrap.run( mount, computer -> computer.addApi( new BenchApi() ) );
+    }
+
+    @Test
+    @Disabled( "Takes a long time to run, mostly for benchmarking" )
+    public void testRoundTrip()
+    {
+        BenchApi api = new BenchApi();
+        MemoryMount mount = new MemoryMount().addFile( "startup", PROGRAM );
+        Computer computer = new Computer( new BasicEnvironment( mount ), new Terminal( 51, 19 ), 0 );
+        computer.addApi( api );
+        computer.turnOn();
+
+        // Run the main thread as fast as possible, so we measure the overhead of the round trip rather than the tick rate.
+        long start = System.nanoTime();
+        while( api.timings.size() < 2 && System.nanoTime() - start < TIMEOUT )
+        {
+            computer.tick();
+            MainThread.executePendingTasks();
+            Thread.yield();
+        }
+
+        computer.unload();
+
+        assertEquals( 2, api.timings.size(), "Both benchmarks should have finished" );
+        System.out.printf(
+            "%d calls: executeMainThreadTask took %.2fus/call, issueMainThreadTask and pullEvent took %.2fus/call\n",
+            CALLS, api.timings.get( 0 ) * 1e-3 / CALLS, api.timings.get( 1 ) * 1e-3 / CALLS
+        );
+    }
+
+    private static class BenchApi implements ILuaAPI
+    {
+        final List<Long> timings = new CopyOnWriteArrayList<>();
+        long start;
+
+        @Override
+        public String[] getNames()
+        {
+            return new String[] { "bench" };
+        }
+
+        @Nonnull
+        @Override
+        public String[] getMethodNames()
+        {
+            return new String[] { "start", "stop", "execute", "issue", "result" };
+        }
+
+        @Nullable
+        @Override
+        public Object[] callMethod( @Nonnull ILuaContext context, int method, @Nonnull Object[] arguments ) throws LuaException, InterruptedException
+        {
+            switch( method )
+            {
+                case 0: // start
+                    start = System.nanoTime();
+                    return null;
+                case 1: // stop
+                    timings.add( System.nanoTime() - start );
+                    return null;
+                case 2: // execute
+                    return context.executeMainThreadTask( () -> null );
+                case 3: // issue
+                    return new Object[] { context.issueMainThreadTask( () -> null ) };
+                case 4: // result
+                    return context.executeMainThreadTask( () -> new Object[] { "done" } );
+                default:
+                    return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2020. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.core.filesystem;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FileMountTest
+{
+    private static final File ROOT = new File( "test-files/file-mount" );
+    private static final File LEDGER = new File( "test-files/file-mount.usage" );
+
+    private static final long CAPACITY = 10_000;
+
+    @BeforeEach
+    public void before() throws IOException
+    {
+        FileMount.reset();
+        if( ROOT.exists() )
+        {
+            try( Stream<Path> paths = Files.walk( ROOT.toPath() ) )
+            {
+                for( Path path : (Iterable<Path>) paths.sorted( Comparator.reverseOrder() )::iterator ) Files.delete( path );
+            }
+        }
+
+        Files.deleteIfExists( LEDGER.toPath() );
+    }
+
+    @Test
+    public void testLedgerIsTrusted() throws IOException
+    {
+        FileMount mount = new FileMount( ROOT, CAPACITY );
+        write( mount, "a.txt", 1000 );
+        long remaining = mount.getRemainingSpace();
+
+        FileMount.saveLedgers();
+        assertTrue( LEDGER.exists(), "Ledger should be saved" );
+
+        // Files added behind the mount's back are not measured, as the saved ledger is up-to-date.
+        Files.write( new File( ROOT, "b.txt" ).toPath(), new byte[1000] );
+        FileMount.reset();
+        assertEquals( remaining, new FileMount( ROOT, CAPACITY ).getRemainingSpace() );
+    }
+
+    @Test
+    public void testDirtyLedgerIsMeasured() throws IOException
+    {
+        FileMount mount = new FileMount( ROOT, CAPACITY );
+        write( mount, "a.txt", 1000 );
+        FileMount.saveLedgers();
+
+        // Modifying the mount marks the ledger as dirty, so the next mount measures the directory again.
+        write( mount, "b.txt", 1000 );
+        Files.write( new File( ROOT, "c.txt" ).toPath(), new byte[1000] );
+        FileMount.reset();
+        assertEquals( mount.getRemainingSpace() - 1000, new FileMount( ROOT, CAPACITY ).getRemainingSpace() );
+    }
+
+    @Test
+    public void testMountsShareLedger() throws IOException
+    {
+        // Such as a floppy disk being ejected and inserted again.
+        FileMount first = new FileMount( ROOT, CAPACITY );
+        FileMount second = new FileMount( ROOT, CAPACITY );
+
+        write( first, "a.txt", 1000 );
+        FileMount.saveLedgers();
+
+        // Changes from one mount are visible to the other, and mark the shared ledger as dirty again.
+        write( second, "b.txt", 1000 );
+        assertEquals( first.getRemainingSpace(), second.getRemainingSpace() );
+        assertEquals( CAPACITY - 2000, second.getRemainingSpace() );
+
+        FileMount.saveLedgers();
+        FileMount.reset();
+        assertEquals( CAPACITY - 2000, new FileMount( ROOT, CAPACITY ).getRemainingSpace() );
+    }
+
+    private static void write( FileMount mount, String path, int size ) throws IOException
+    {
+        try( WritableByteChannel channel = mount.openChannelForWrite( path ) )
+        {
+            channel.write( ByteBuffer.wrap( new byte[size] ) );
+        }
+    }
+}
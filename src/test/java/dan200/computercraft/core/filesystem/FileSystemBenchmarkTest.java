@@ -0,0 +1,103 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2020. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.core.filesystem;
+
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Measures the throughput of {@link FileSystem#exists(String)}, {@link FileSystem#isDir(String)} and {@link FileSystem#list(String)} on
+ * a computer with many mounts (such as one attached to a large bank of disk drives), from one and several threads.
+ */
+public class FileSystemBenchmarkTest
+{
+    private static final int MOUNTS = 64;
+    private static final int OPERATIONS = 500_000;
+    private static final int[] THREADS = new int[] { 1, 4 };
+
+    private static final String[] PATHS = new String[] {
+        "startup.lua", "rom/programs/edit.lua", "rom/apis/missing", "disk32/data/file.txt", "disk64/missing", "",
+    };
+
+    private interface Operation
+    {
+        void run( FileSystem fs, String path ) throws FileSystemException;
+    }
+
+    @Test
+    @Disabled( "Takes a long time to run, mostly for benchmarking" )
+    public void testThroughput() throws Exception
+    {
+        FileSystem fs = create();
+        run( fs, "exists", FileSystem::exists );
+        run( fs, "isDir", FileSystem::isDir );
+        run( fs, "list", ( x, path ) -> {
+            if( x.isDir( path ) ) x.list( path );
+        } );
+    }
+
+    private static void run( FileSystem fs, String name, Operation operation ) throws Exception
+    {
+        for( int threads : THREADS )
+        {
+            // Warm up first, so we are not measuring the JIT.
+            time( fs, operation, threads, OPERATIONS / 10 );
+            long time = time( fs, operation, threads, OPERATIONS );
+
+            System.out.printf(
+                "%s with %d thread(s): %.0f ops/ms\n", name, threads, (double) OPERATIONS * threads / (time / 1e6)
+            );
+        }
+    }
+
+    private static long time( FileSystem fs, Operation operation, int threads, int operations ) throws Exception
+    {
+        ExecutorService executor = Executors.newFixedThreadPool( threads );
+        try
+        {
+            List<Callable<Void>> tasks = new ArrayList<>();
+            for( int i = 0; i < threads; i++ )
+            {
+                tasks.add( () -> {
+                    for( int j = 0; j < operations; j++ ) operation.run( fs, PATHS[j % PATHS.length] );
+                    return null;
+                } );
+            }
+
+            long start = System.nanoTime();
+            for( Future<Void> future : executor.invokeAll( tasks ) ) future.get();
+            return System.nanoTime() - start;
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
+    private static FileSystem create() throws FileSystemException
+    {
+        FileSystem fs = new FileSystem( "hdd", new MemoryMount().addFile( "startup.lua", "print('Hello')" ) );
+        fs.mount( "rom", "rom", new MemoryMount()
+            .addFile( "programs/edit.lua", "" )
+            .addFile( "programs/shell.lua", "" )
+            .addFile( "apis/colors.lua", "" ) );
+
+        for( int i = 1; i <= MOUNTS; i++ )
+        {
+            String name = i == 1 ? "disk" : "disk" + i;
+            fs.mountWritable( name, name, new MemoryMount().addFile( "data/file.txt", "Some data" ) );
+        }
+
+        return fs;
+    }
+}
@@ -17,7 +17,11 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class FileSystemTest
 {
@@ -54,4 +58,41 @@ public class FileSystemTest
 
         assertEquals( "Tiny line", Files.toString( new File( ROOT, "out.txt" ), StandardCharsets.UTF_8 ) );
     }
+
+    @Test
+    public void testMountResolution() throws FileSystemException
+    {
+        FileSystem fs = new FileSystem( "hdd", new MemoryMount() );
+        fs.mount( "rom", "rom", new MemoryMount() );
+        fs.mount( "programs", "rom/programs", new MemoryMount() );
+        fs.mountWritable( "disk", "disk", new MemoryMount() );
+
+        assertEquals( "hdd", fs.getMountLabel( "startup.lua" ) );
+        assertEquals( "rom", fs.getMountLabel( "rom/apis/colors.lua" ) );
+        assertEquals( "programs", fs.getMountLabel( "rom/programs/edit.lua" ) );
+        assertEquals( "programs", fs.getMountLabel( "ROM/Programs" ) );
+        assertEquals( "rom", fs.getMountLabel( "rom/programsx" ) );
+        assertThrows( FileSystemException.class, () -> fs.getMountLabel( "../x" ) );
+
+        assertArrayEquals( new String[] { "disk", "rom" }, fs.list( "" ) );
+        assertArrayEquals( new String[] { "programs" }, fs.list( "rom" ) );
+
+        fs.unmount( "rom/programs" );
+        assertEquals( "rom", fs.getMountLabel( "rom/programs/edit.lua" ) );
+        assertArrayEquals( new String[0], fs.list( "rom" ) );
+    }
+
+    @Test
+    public void testMountIfFree() throws FileSystemException
+    {
+        FileSystem fs = new FileSystem( "hdd", new MemoryMount() );
+
+        assertTrue( fs.mountIfFree( "disk", "disk", new MemoryMount() ) );
+        assertFalse( fs.mountWritableIfFree( "disk2", "DISK", new MemoryMount() ) );
+        assertEquals( "disk", fs.getMountLabel( "disk" ) );
+
+        fs.unmount( "disk" );
+        assertTrue( fs.mountWritableIfFree( "disk2", "disk", new MemoryMount() ) );
+        assertEquals( "disk2", fs.getMountLabel( "disk" ) );
+    }
 }
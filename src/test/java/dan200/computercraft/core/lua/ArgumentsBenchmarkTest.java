@@ -0,0 +1,209 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2020. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.core.lua;
+
+import dan200.computercraft.ComputerCraft;
+import dan200.computercraft.api.lua.ArgumentHelper;
+import dan200.computercraft.api.lua.IArguments;
+import dan200.computercraft.api.lua.ILuaAPI;
+import dan200.computercraft.api.lua.ILuaContext;
+import dan200.computercraft.api.lua.LuaException;
+import dan200.computercraft.core.computer.BasicEnvironment;
+import dan200.computercraft.core.computer.Computer;
+import dan200.computercraft.core.computer.MainThread;
+import dan200.computercraft.core.filesystem.MemoryMount;
+import dan200.computercraft.core.terminal.Terminal;
+import org.apache.logging.log4j.LogManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ArgumentsBenchmarkTest
+{
+    private static final int CALLS = 200000;
+    private static final long TIMEOUT = TimeUnit.SECONDS.toNanos( 120 );
+
+    private static final String[] CASES = new String[] { "numbers", "strings", "table" };
+
+    private static final String PROGRAM =
+        "local tbl = {}\n" +
+        "for i = 1, 100 do tbl[i] = { x = i, name = 'item ' .. i } end\n" +
+        "local text = ('a'):rep(51)\n" +
+        "local function yield() os.queueEvent('yield') os.pullEvent('yield') end\n" +
+        "local function run(api)\n" +
+        "  bench.start() for i = 1, " + CALLS + " do api.numbers(1, 2, 3) end bench.stop() yield()\n" +
+        "  bench.start() for i = 1, " + CALLS + " do api.strings(text, text, text) end bench.stop() yield()\n" +
+        "  bench.start() for i = 1, " + CALLS + " do api.table(tbl) end bench.stop() yield()\n" +
+        "end\n" +
+        "run(eager)\n" +
+        "run(lazy)\n";
+
+    @BeforeEach
+    public void setup()
+    {
+        ComputerCraft.log = LogManager.getLogger( ComputerCraft.MOD_ID );
+    }
+
+    @Test
+    @Disabled( "Takes a long time to run, mostly for benchmarking" )
+    public void testCallOverhead() throws InterruptedException
+    {
+        TimingApi timings = new TimingApi();
+        MemoryMount mount = new MemoryMount().addFile( "startup", PROGRAM );
+        Computer computer = new Computer( new BasicEnvironment( mount ), new Terminal( 51, 19 ), 0 );
+        computer.addApi( timings );
+        computer.addApi( new EagerApi() );
+        computer.addApi( new LazyApi() );
+        computer.turnOn();
+
+        long start = System.nanoTime();
+        while( timings.timings.size() < CASES.length * 2 && System.nanoTime() - start < TIMEOUT )
+        {
+            computer.tick();
+            MainThread.executePendingTasks();
+            Thread.sleep( 50 );
+        }
+
+        computer.unload();
+
+        assertEquals( CASES.length * 2, timings.timings.size(), "All benchmarks should have finished" );
+        for( int i = 0; i < CASES.length; i++ )
+        {
+            System.out.printf(
+                "%s: Object[] took %.0fns/call, IArguments took %.0fns/call\n", CASES[i],
+                timings.timings.get( i ) / (double) CALLS, timings.timings.get( i + CASES.length ) / (double) CALLS
+            );
+        }
+    }
+
+    private static class TimingApi implements ILuaAPI
+    {
+        final List<Long> timings = new CopyOnWriteArrayList<>();
+        long start;
+
+        @Override
+        public String[] getNames()
+        {
+            return new String[] { "bench" };
+        }
+
+        @Nonnull
+        @Override
+        public String[] getMethodNames()
+        {
+            return new String[] { "start", "stop" };
+        }
+
+        @Nullable
+        @Override
+        public Object[] callMethod( @Nonnull ILuaContext context, int method, @Nonnull Object[] arguments )
+        {
+            if( method == 0 )
+            {
+                start = System.nanoTime();
+            }
+            else
+            {
+                timings.add( System.nanoTime() - start );
+            }
+            return null;
+        }
+    }
+
+    private static class EagerApi implements ILuaAPI
+    {
+        @Override
+        public String[] getNames()
+        {
+            return new String[] { "eager" };
+        }
+
+        @Nonnull
+        @Override
+        public String[] getMethodNames()
+        {
+            return CASES;
+        }
+
+        @Nullable
+        @Override
+        public Object[] callMethod( @Nonnull ILuaContext context, int method, @Nonnull Object[] arguments ) throws LuaException
+        {
+            switch( method )
+            {
+                case 0:
+                {
+                    int x = ArgumentHelper.getInt( arguments, 0 ), y = ArgumentHelper.getInt( arguments, 1 );
+                    return new Object[] { x + y + ArgumentHelper.getInt( arguments, 2 ) };
+                }
+                case 1:
+                {
+                    String a = ArgumentHelper.getString( arguments, 0 ), b = ArgumentHelper.getString( arguments, 1 );
+                    return new Object[] { a.length() + b.length() + ArgumentHelper.getString( arguments, 2 ).length() };
+                }
+                case 2:
+                {
+                    Map<?, ?> table = ArgumentHelper.getTable( arguments, 0 );
+                    return new Object[] { table.containsKey( 1.0 ) };
+                }
+                default:
+                    return null;
+            }
+        }
+    }
+
+    private static class LazyApi implements ILuaAPI
+    {
+        @Override
+        public String[] getNames()
+        {
+            return new String[] { "lazy" };
+        }
+
+        @Nonnull
+        @Override
+        public String[] getMethodNames()
+        {
+            return CASES;
+        }
+
+        @Nullable
+        @Override
+        public Object[] callMethod( @Nonnull ILuaContext context, int method, @Nonnull Object[] arguments ) throws LuaException
+        {
+            throw new IllegalStateException( "Should use IArguments" );
+        }
+
+        @Nullable
+        @Override
+        public Object[] callMethod( @Nonnull ILuaContext context, int method, @Nonnull IArguments arguments ) throws LuaException
+        {
+            switch( method )
+            {
+                case 0:
+                    return new Object[] { arguments.getInt( 0 ) + arguments.getInt( 1 ) + arguments.getInt( 2 ) };
+                case 1:
+                    return new Object[] { arguments.getString( 0 ).length() + arguments.getString( 1 ).length() + arguments.getString( 2 ).length() };
+                case 2:
+                {
+                    Map<?, ?> table = arguments.getTable( 0 );
+                    return new Object[] { table.containsKey( 1.0 ) };
+                }
+                default:
+                    return null;
+            }
+        }
+    }
+}
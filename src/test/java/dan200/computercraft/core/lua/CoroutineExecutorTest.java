@@ -0,0 +1,149 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2020. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.core.lua;
+
+import dan200.computercraft.ComputerCraft;
+import dan200.computercraft.api.lua.ILuaAPI;
+import dan200.computercraft.api.lua.ILuaContext;
+import dan200.computercraft.core.computer.BasicEnvironment;
+import dan200.computercraft.core.computer.Computer;
+import dan200.computercraft.core.computer.MainThread;
+import dan200.computercraft.core.filesystem.MemoryMount;
+import dan200.computercraft.core.terminal.Terminal;
+import org.apache.logging.log4j.LogManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class CoroutineExecutorTest
+{
+    private static final int COMPUTERS = 100;
+    private static final int COROUTINES = 100;
+    private static final long TIMEOUT = TimeUnit.SECONDS.toNanos( 60 );
+
+    private static final String PROGRAM =
+        "local cos = {}\n" +
+        "for i = 1, " + COROUTINES + " do\n" +
+        "  cos[i] = coroutine.create(function() coroutine.yield() end)\n" +
+        "  coroutine.resume(cos[i])\n" +
+        "end\n" +
+        "bench.ready()\n" +
+        "os.pullEvent('never')\n";
+
+    private CoroutineExecutor oldExecutor;
+
+    @BeforeEach
+    public void setup()
+    {
+        ComputerCraft.log = LogManager.getLogger( ComputerCraft.MOD_ID );
+        oldExecutor = ComputerCraft.coroutineExecutor;
+    }
+
+    @AfterEach
+    public void tearDown()
+    {
+        ComputerCraft.coroutineExecutor = oldExecutor;
+    }
+
+    @Test
+    @Disabled( "Takes a long time to run, mostly for stress testing" )
+    public void testPlatformThreads() throws InterruptedException
+    {
+        runStress( CoroutineExecutor.PLATFORM );
+    }
+
+    @Test
+    @Disabled( "Takes a long time to run, mostly for stress testing. Requires Java 21." )
+    public void testVirtualThreads() throws InterruptedException
+    {
+        runStress( CoroutineExecutor.VIRTUAL );
+    }
+
+    private static void runStress( CoroutineExecutor executor ) throws InterruptedException
+    {
+        ComputerCraft.coroutineExecutor = executor;
+
+        int threadsBefore = ManagementFactory.getThreadMXBean().getThreadCount();
+        long memoryBefore = usedMemory();
+
+        ReadyApi api = new ReadyApi();
+        List<Computer> computers = new ArrayList<>( COMPUTERS );
+        for( int i = 0; i < COMPUTERS; i++ )
+        {
+            MemoryMount mount = new MemoryMount().addFile( "startup", PROGRAM );
+            Computer computer = new Computer( new BasicEnvironment( mount ), new Terminal( 51, 19 ), i );
+            computer.addApi( api );
+            computer.turnOn();
+            computers.add( computer );
+        }
+
+        long start = System.nanoTime();
+        while( api.ready.get() < COMPUTERS && System.nanoTime() - start < TIMEOUT )
+        {
+            for( Computer computer : computers ) computer.tick();
+            MainThread.executePendingTasks();
+            Thread.sleep( 50 );
+        }
+        long elapsed = System.nanoTime() - start;
+
+        int threadsAfter = ManagementFactory.getThreadMXBean().getThreadCount();
+        long memoryAfter = usedMemory();
+
+        System.out.printf(
+            "%s: started %d coroutines in %.2fs. %d new threads, %.1fMiB more memory\n",
+            executor, api.ready.get() * COROUTINES, elapsed * 1e-9,
+            threadsAfter - threadsBefore, (memoryAfter - memoryBefore) / (1024.0 * 1024.0)
+        );
+
+        for( Computer computer : computers ) computer.unload();
+
+        assertEquals( COMPUTERS, api.ready.get(), "All computers should have started their coroutines" );
+    }
+
+    private static long usedMemory()
+    {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static class ReadyApi implements ILuaAPI
+    {
+        final AtomicInteger ready = new AtomicInteger();
+
+        @Override
+        public String[] getNames()
+        {
+            return new String[] { "bench" };
+        }
+
+        @Nonnull
+        @Override
+        public String[] getMethodNames()
+        {
+            return new String[] { "ready" };
+        }
+
+        @Nullable
+        @Override
+        public Object[] callMethod( @Nonnull ILuaContext context, int method, @Nonnull Object[] arguments )
+        {
+            ready.incrementAndGet();
+            return null;
+        }
+    }
+}
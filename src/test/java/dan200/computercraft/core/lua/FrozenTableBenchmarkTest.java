@@ -0,0 +1,95 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2020. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.core.lua;
+
+import dan200.computercraft.ComputerCraft;
+import dan200.computercraft.core.computer.BasicEnvironment;
+import dan200.computercraft.core.computer.Computer;
+import dan200.computercraft.core.computer.TimeoutState;
+import dan200.computercraft.core.filesystem.MemoryMount;
+import dan200.computercraft.core.terminal.Terminal;
+import org.apache.logging.log4j.LogManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Measures the time taken and memory allocated when a 200 key table is broadcast to 300 computers, converting the payload for
+ * each of them, as a modem message would be.
+ */
+public class FrozenTableBenchmarkTest
+{
+    private static final int KEYS = 200;
+    private static final int RECEIVERS = 300;
+    private static final int BROADCASTS = 200;
+
+    @BeforeEach
+    public void setup()
+    {
+        ComputerCraft.log = LogManager.getLogger( ComputerCraft.MOD_ID );
+    }
+
+    @Test
+    @Disabled( "Takes a long time to run, mostly for benchmarking" )
+    public void testBroadcast()
+    {
+        Map<Object, Object> payload = new HashMap<>();
+        for( int i = 0; i < KEYS; i++ )
+        {
+            Map<Object, Object> child = new HashMap<>();
+            child.put( "x", (double) i );
+            child.put( "name", "Item number " + i );
+
+            payload.put( "key_" + i, i % 2 == 0 ? "Value number " + i : child );
+        }
+
+        Computer computer = new Computer( new BasicEnvironment( new MemoryMount() ), new Terminal( 51, 19 ), 0 );
+        CobaltLuaMachine machine = new CobaltLuaMachine( computer, new TimeoutState() );
+        try
+        {
+            run( machine, "Plain payload", x -> x, payload );
+            run( machine, "Frozen payload", FrozenTable::freeze, payload );
+        }
+        finally
+        {
+            machine.close();
+        }
+    }
+
+    private static void run( CobaltLuaMachine machine, String name, Function<Object, Object> prepare, Object payload )
+    {
+        // Warm up first, so we are not measuring the JIT.
+        broadcast( machine, prepare, payload, BROADCASTS / 10 );
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+
+        long startBytes = threads.getThreadAllocatedBytes( thread );
+        long start = System.nanoTime();
+        broadcast( machine, prepare, payload, BROADCASTS );
+        long time = System.nanoTime() - start;
+        long bytes = threads.getThreadAllocatedBytes( thread ) - startBytes;
+
+        System.out.printf(
+            "%s: %.2fms and %.0fKiB allocated per broadcast to %d computers\n",
+            name, time / (double) BROADCASTS / 1e6, bytes / (double) BROADCASTS / 1024, RECEIVERS
+        );
+    }
+
+    private static void broadcast( CobaltLuaMachine machine, Function<Object, Object> prepare, Object payload, int broadcasts )
+    {
+        for( int i = 0; i < broadcasts; i++ )
+        {
+            Object prepared = prepare.apply( payload );
+            for( int j = 0; j < RECEIVERS; j++ ) machine.toValues( new Object[] { prepared } );
+        }
+    }
+}
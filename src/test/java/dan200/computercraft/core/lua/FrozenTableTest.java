@@ -0,0 +1,98 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2020. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.core.lua;
+
+import dan200.computercraft.ComputerCraft;
+import dan200.computercraft.core.computer.BasicEnvironment;
+import dan200.computercraft.core.computer.Computer;
+import dan200.computercraft.core.computer.TimeoutState;
+import dan200.computercraft.core.filesystem.MemoryMount;
+import dan200.computercraft.core.terminal.Terminal;
+import org.apache.logging.log4j.LogManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.squiddev.cobalt.LuaTable;
+import org.squiddev.cobalt.LuaValue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FrozenTableTest
+{
+    @BeforeEach
+    public void setup()
+    {
+        ComputerCraft.log = LogManager.getLogger( ComputerCraft.MOD_ID );
+    }
+
+    @Test
+    public void testJavaView()
+    {
+        Map<Object, Object> child = new HashMap<>();
+        child.put( "x", 1.0 );
+
+        Map<Object, Object> table = new HashMap<>();
+        table.put( 1.0, "one" );
+        table.put( "child", child );
+        table.put( "flag", true );
+
+        Object frozen = FrozenTable.freeze( table );
+        assertTrue( frozen instanceof FrozenTable, "Tables should be frozen" );
+        assertEquals( table, frozen, "Frozen tables should have the same contents" );
+        assertTrue( ((Map<?, ?>) frozen).get( "child" ) instanceof FrozenTable, "Nested tables should be frozen" );
+
+        assertThrows( UnsupportedOperationException.class, () -> ((Map<Object, Object>) frozen).put( "x", 2.0 ) );
+    }
+
+    @Test
+    public void testNotFrozen()
+    {
+        assertEquals( "hello", FrozenTable.freeze( "hello" ) );
+        assertNull( FrozenTable.freeze( null ) );
+
+        // Values which cannot be converted ahead of time are left alone.
+        Map<Object, Object> table = new HashMap<>();
+        table.put( "object", new Object() );
+        assertSame( table, FrozenTable.freeze( table ) );
+    }
+
+    @Test
+    public void testToLua()
+    {
+        Map<Object, Object> table = new HashMap<>();
+        table.put( 1.0, "one" );
+        table.put( 2.0, 2.5 );
+        table.put( "self", table );
+
+        Object frozen = FrozenTable.freeze( table );
+        LuaValue first = convert( frozen );
+        LuaValue second = convert( frozen );
+
+        assertTrue( first instanceof LuaTable, "Should be converted to a table" );
+        assertNotSame( first, second, "Each conversion should create a new table" );
+
+        LuaTable result = (LuaTable) first;
+        assertEquals( "one", result.rawget( 1 ).toString() );
+        assertEquals( 2.5, result.rawget( 2 ).toDouble() );
+        assertSame( result, result.rawget( "self" ), "Recursive tables should be preserved" );
+    }
+
+    private static LuaValue convert( Object value )
+    {
+        Computer computer = new Computer( new BasicEnvironment( new MemoryMount() ), new Terminal( 51, 19 ), 0 );
+        CobaltLuaMachine machine = new CobaltLuaMachine( computer, new TimeoutState() );
+        try
+        {
+            return machine.toValues( new Object[] { value } ).first();
+        }
+        finally
+        {
+            machine.close();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2020. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.core.lua;
+
+import org.junit.jupiter.api.Test;
+import org.squiddev.cobalt.LuaState;
+import org.squiddev.cobalt.LuaString;
+import org.squiddev.cobalt.LuaTable;
+import org.squiddev.cobalt.Prototype;
+import org.squiddev.cobalt.compiler.LoadState;
+import org.squiddev.cobalt.function.LuaFunction;
+import org.squiddev.cobalt.function.LuaInterpretedFunction;
+
+import java.io.ByteArrayInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.squiddev.cobalt.ValueFactory.valueOf;
+
+public class PrototypeCacheTest
+{
+    @Test
+    public void testCachesFiles() throws Exception
+    {
+        LuaString name = valueOf( "@cached.lua" );
+        LuaString contents = valueOf( "local function f(x) return x .. \"" + System.nanoTime() + "\" end return f" );
+        assertNull( PrototypeCache.get( name, contents ), "Chunk should not be cached yet" );
+
+        LuaFunction function = load( name, contents );
+        PrototypeCache.put( name, contents, function );
+
+        Prototype prototype = ((LuaInterpretedFunction) function).getPrototype();
+        assertSame( prototype, PrototypeCache.get( name, contents ), "Chunk should be cached" );
+        assertSame( prototype, PrototypeCache.get( valueOf( "@cached.lua" ), valueOf( contents.toString() ) ),
+            "Keys should be compared by value" );
+        assertNull( PrototypeCache.get( name, valueOf( contents + " " ) ), "Edited chunks should not be cached" );
+    }
+
+    @Test
+    public void testSkipsStrings() throws Exception
+    {
+        LuaString name = valueOf( "=string" );
+        LuaString contents = valueOf( "return " + System.nanoTime() );
+
+        PrototypeCache.put( name, contents, load( name, contents ) );
+        assertNull( PrototypeCache.get( name, contents ), "Chunks not loaded from files should not be cached" );
+    }
+
+    @Test
+    public void testEstimatesNestedPrototypes() throws Exception
+    {
+        LuaString name = valueOf( "@nested.lua" );
+        LuaString flat = valueOf( "return 1" );
+        LuaString nested = valueOf( "return function() return function() return \"a long string constant\" end end" );
+
+        long flatSize = PrototypeCache.estimateSize( ((LuaInterpretedFunction) load( name, flat )).getPrototype() );
+        long nestedSize = PrototypeCache.estimateSize( ((LuaInterpretedFunction) load( name, nested )).getPrototype() );
+        assertTrue( nestedSize > flatSize, "Nested prototypes should be included" );
+        assertTrue( nestedSize > nested.length(), "Prototypes should be weighed above their source" );
+    }
+
+    private static LuaFunction load( LuaString name, LuaString contents ) throws Exception
+    {
+        LuaState state = LuaState.builder().build();
+        ByteArrayInputStream stream = new ByteArrayInputStream( contents.bytes, contents.offset, contents.length() );
+        return LoadState.load( state, stream, name.toString(), new LuaTable() );
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2020. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+
+package dan200.computercraft.core.terminal;
+
+import io.netty.buffer.Unpooled;
+import net.minecraft.network.PacketBuffer;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class TerminalTest
+{
+    @Test
+    public void testWrite()
+    {
+        Terminal terminal = new Terminal( 5, 2 );
+        terminal.setTextColour( 1 );
+        terminal.setBackgroundColour( 2 );
+        terminal.setCursorPos( -1, 0 );
+        terminal.write( "abcdefg" );
+
+        assertEquals( "bcdef", terminal.getLine( 0 ).toString() );
+        assertEquals( "11111", terminal.getTextColourLine( 0 ).toString() );
+        assertEquals( "22222", terminal.getBackgroundColourLine( 0 ).toString() );
+        assertEquals( "     ", terminal.getLine( 1 ).toString() );
+        assertEquals( "00000", terminal.getTextColourLine( 1 ).toString() );
+        assertEquals( "fffff", terminal.getBackgroundColourLine( 1 ).toString() );
+        assertNull( terminal.getLine( 2 ) );
+    }
+
+    @Test
+    public void testBlit()
+    {
+        Terminal terminal = new Terminal( 5, 1 );
+        terminal.setCursorPos( 1, 0 );
+        terminal.blit( "abc", "0a1", "f?e" );
+
+        assertEquals( " abc ", terminal.getLine( 0 ).toString() );
+        assertEquals( "00a10", terminal.getTextColourLine( 0 ).toString() );
+        // Invalid colours fall back to the default, as they did when rendering.
+        assertEquals( "fffef", terminal.getBackgroundColourLine( 0 ).toString() );
+    }
+
+    @Test
+    public void testScroll()
+    {
+        Terminal terminal = lines( "aaa", "bbb", "ccc" );
+
+        terminal.setBackgroundColour( 1 );
+        terminal.scroll( 1 );
+        assertLines( terminal, "bbb", "ccc", "   " );
+        assertEquals( "111", terminal.getBackgroundColourLine( 2 ).toString() );
+
+        terminal.scroll( -2 );
+        assertLines( terminal, "   ", "   ", "bbb" );
+
+        terminal.scroll( 5 );
+        assertLines( terminal, "   ", "   ", "   " );
+    }
+
+    @Test
+    public void testScrollThenWrite()
+    {
+        Terminal terminal = lines( "aaa", "bbb", "ccc" );
+        for( int i = 0; i < 4; i++ )
+        {
+            terminal.scroll( 1 );
+            terminal.setCursorPos( 0, 2 );
+            terminal.write( Integer.toString( i ) );
+        }
+
+        assertLines( terminal, "1  ", "2  ", "3  " );
+    }
+
+    @Test
+    public void testResizeAfterScroll()
+    {
+        Terminal terminal = lines( "abc", "def", "ghi" );
+        terminal.scroll( 1 );
+
+        terminal.resize( 2, 4 );
+        assertLines( terminal, "de", "gh", "  ", "  " );
+
+        terminal.resize( 4, 1 );
+        assertLines( terminal, "de  " );
+    }
+
+    @Test
+    public void testLineAfterResize()
+    {
+        Terminal terminal = lines( "abc", "def", "ghi" );
+        TextBuffer line = terminal.getLine( 2 );
+
+        // Views are detached by a resize, rather than reading whichever row now has the same index.
+        terminal.resize( 3, 1 );
+        assertEquals( 0, line.length() );
+        assertEquals( "", line.toString() );
+
+        line.write( "xyz" );
+        assertLines( terminal, "abc" );
+    }
+
+    @Test
+    public void testDeltaAfterShrink()
+    {
+        Terminal terminal = lines( "abc", "def", "ghi", "jkl" );
+        terminal.resize( 3, 2 );
+
+        // Rows which were dirty before the resize no longer exist, so must not be written.
+        PacketBuffer buffer = new PacketBuffer( Unpooled.buffer() );
+        terminal.writeDelta( buffer );
+
+        Terminal other = new Terminal( 3, 2 );
+        other.readDelta( buffer );
+        assertLines( other, "abc", "def" );
+        assertEquals( 0, buffer.readableBytes() );
+    }
+
+    @Test
+    public void testDeltaPaletteAfterSnapshot()
+    {
+        Terminal terminal = new Terminal( 3, 1 );
+        terminal.getPalette().setColour( 0, 0, 0, 1 );
+        terminal.writeDelta( new PacketBuffer( Unpooled.buffer() ) );
+
+        // The palette changes while nobody is watching, and then a new viewer is sent the full terminal.
+        terminal.getPalette().setColour( 0, 1, 0, 0 );
+        terminal.clearDelta();
+
+        Terminal client = new Terminal( 3, 1 );
+        PacketBuffer full = new PacketBuffer( Unpooled.buffer() );
+        terminal.write( full );
+        client.read( full );
+
+        // Changing the palette back to what was last sent in a delta must still be sent to the new viewer.
+        terminal.getPalette().setColour( 0, 0, 0, 1 );
+        PacketBuffer delta = new PacketBuffer( Unpooled.buffer() );
+        terminal.writeDelta( delta );
+        client.readDelta( delta );
+
+        assertArrayEquals( terminal.getPalette().getColour( 0 ), client.getPalette().getColour( 0 ) );
+    }
+
+    @Test
+    public void testVersion()
+    {
+        Terminal terminal = new Terminal( 3, 1 );
+        int version = terminal.getVersion();
+
+        terminal.write( "a" );
+        assertNotEquals( version, terminal.getVersion() );
+
+        // Clearing the changed flag does not reset the version, so other observers still see the change.
+        version = terminal.getVersion();
+        terminal.clearChanged();
+        assertEquals( version, terminal.getVersion() );
+    }
+
+    private static Terminal lines( String... lines )
+    {
+        Terminal terminal = new Terminal( lines[0].length(), lines.length );
+        for( int y = 0; y < lines.length; y++ ) terminal.setLine( y, lines[y], "", "" );
+        return terminal;
+    }
+
+    private static void assertLines( Terminal terminal, String... lines )
+    {
+        assertEquals( lines.length, terminal.getHeight(), "Heights must match" );
+        for( int y = 0; y < lines.length; y++ ) assertEquals( lines[y], terminal.getLine( y ).toString(), "Line " + y );
+    }
+}
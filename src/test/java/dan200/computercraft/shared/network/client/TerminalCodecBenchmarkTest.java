@@ -0,0 +1,107 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2020. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+
+package dan200.computercraft.shared.network.client;
+
+import dan200.computercraft.ComputerCraft;
+import dan200.computercraft.core.terminal.Terminal;
+import io.netty.buffer.Unpooled;
+import net.minecraft.network.PacketBuffer;
+import org.apache.logging.log4j.LogManager;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+/**
+ * Compares the bytes sent against the CPU time spent for each {@link TerminalCodec}, for a computer-sized and a maximum-sized monitor
+ * terminal.
+ */
+public class TerminalCodecBenchmarkTest
+{
+    private static final int WARMUP = 200;
+    private static final int SNAPSHOTS = 2000;
+
+    private static final int[][] SIZES = new int[][] { { 51, 19 }, { 164, 81 } };
+
+    @BeforeAll
+    public static void before()
+    {
+        ComputerCraft.log = LogManager.getLogger( ComputerCraft.MOD_ID );
+    }
+
+    @Test
+    @Disabled( "Takes a long time to run, mostly for benchmarking" )
+    public void testCodecs()
+    {
+        TerminalCodec original = ComputerCraft.terminalCodec;
+        try
+        {
+            for( int[] size : SIZES )
+            {
+                Terminal terminal = filledTerminal( size[0], size[1] );
+                for( TerminalCodec codec : TerminalCodec.values() )
+                {
+                    ComputerCraft.terminalCodec = codec;
+                    for( int i = 0; i < WARMUP; i++ ) snapshot( terminal );
+
+                    long bytes = 0;
+                    long start = System.nanoTime();
+                    for( int i = 0; i < SNAPSHOTS; i++ ) bytes += snapshot( terminal );
+                    long time = System.nanoTime() - start;
+
+                    System.out.printf(
+                        "%dx%d %s: %d bytes/snapshot, %.1fus/snapshot\n", size[0], size[1], codec,
+                        bytes / SNAPSHOTS, time / (double) SNAPSHOTS / 1000
+                    );
+                }
+            }
+        }
+        finally
+        {
+            ComputerCraft.terminalCodec = original;
+        }
+    }
+
+    private static int snapshot( Terminal terminal )
+    {
+        PacketBuffer buffer = new PacketBuffer( Unpooled.buffer() );
+        new TerminalState( true, terminal ).write( buffer );
+        return buffer.readableBytes();
+    }
+
+    /**
+     * Build a terminal which looks vaguely like a real program: lines of words with a handful of colours, and some blank space.
+     *
+     * @param width  The terminal's width.
+     * @param height The terminal's height.
+     * @return The filled terminal.
+     */
+    private static Terminal filledTerminal( int width, int height )
+    {
+        Random random = new Random( 0 );
+        Terminal terminal = new Terminal( width, height );
+        for( int y = 0; y < height; y++ )
+        {
+            terminal.setCursorPos( 0, y );
+            terminal.setTextColour( random.nextInt( 4 ) );
+            terminal.setBackgroundColour( 15 - random.nextInt( 2 ) );
+
+            StringBuilder line = new StringBuilder();
+            int length = random.nextInt( width );
+            while( line.length() < length )
+            {
+                int word = 1 + random.nextInt( 8 );
+                for( int i = 0; i < word; i++ ) line.append( (char) ('a' + random.nextInt( 26 )) );
+                line.append( ' ' );
+            }
+            terminal.write( line.toString() );
+        }
+
+        return terminal;
+    }
+}
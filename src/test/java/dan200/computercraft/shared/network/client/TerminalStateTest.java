@@ -14,6 +14,7 @@ import net.minecraft.network.PacketBuffer;
 import org.apache.logging.log4j.LogManager;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
 
 import java.util.Random;
 
@@ -54,6 +55,80 @@ public class TerminalStateTest
         assertEquals( 0, buffer.readableBytes() );
     }
 
+    @Test
+    public void testCodecs()
+    {
+        TerminalCodec original = ComputerCraft.terminalCodec;
+        try
+        {
+            for( TerminalCodec codec : TerminalCodec.values() )
+            {
+                ComputerCraft.terminalCodec = codec;
+                Terminal terminal = randomTerminal();
+
+                PacketBuffer buffer = new PacketBuffer( Unpooled.directBuffer() );
+                new TerminalState( true, terminal, true ).write( buffer );
+
+                checkEqual( terminal, read( buffer ) );
+                assertEquals( 0, buffer.readableBytes(), "Codec " + codec + " should consume the whole packet" );
+            }
+        }
+        finally
+        {
+            ComputerCraft.terminalCodec = original;
+        }
+    }
+
+    @Test
+    public void testTruncated()
+    {
+        for( TerminalCodec codec : TerminalCodec.values() )
+        {
+            PacketBuffer buffer = new PacketBuffer( Unpooled.buffer() );
+            buffer.writeBoolean( true );
+            buffer.writeByte( codec.ordinal() );
+            buffer.writeBoolean( false );
+            buffer.writeBoolean( true );
+            buffer.writeVarInt( 51 );
+            buffer.writeVarInt( 19 );
+            buffer.writeVarInt( Integer.MAX_VALUE );
+            if( codec != TerminalCodec.NONE ) buffer.writeVarInt( 100 );
+            buffer.writeBytes( new byte[16] );
+
+            assertThrows( IllegalArgumentException.class, () -> new TerminalState( buffer ),
+                "Codec " + codec + " should reject a length longer than the packet" );
+        }
+    }
+
+    @RepeatedTest( 5 )
+    public void testDelta()
+    {
+        Terminal terminal = randomTerminal();
+        new TerminalState( true, terminal, false, true ); // Discard the initial delta.
+
+        PacketBuffer buffer = new PacketBuffer( Unpooled.directBuffer() );
+        new TerminalState( true, terminal, false ).write( buffer );
+        Terminal other = read( buffer );
+
+        terminal.setCursorPos( 2, 3 );
+        terminal.write( "Hello" );
+        terminal.getPalette().setColour( 0, 0.5, 0.25, 0.125 );
+
+        buffer = new PacketBuffer( Unpooled.directBuffer() );
+        TerminalState delta = new TerminalState( true, terminal, true, true );
+        assertTrue( delta.isDelta() );
+        assertEquals( 10 + 1 + 1 + terminal.getWidth() * 2 + 1 + 16 * 3, delta.size(), "Only one row should be sent" );
+
+        delta.write( buffer );
+        apply( other, buffer );
+        checkEqual( terminal, other );
+        assertEquals( 3, other.getCursorY() );
+        assertArrayEquals( terminal.getPalette().getColour( 0 ), other.getPalette().getColour( 0 ), 1 / 255.0 );
+
+        // Nothing has changed, so the next delta should only contain the cursor.
+        assertEquals( 10 + 1 + 1, new TerminalState( true, terminal, true, true ).size() );
+    }
+
     private static Terminal randomTerminal()
     {
         Random random = new Random();
@@ -80,6 +155,13 @@ public class TerminalStateTest
         }
     }
 
+    private static void apply( Terminal terminal, PacketBuffer buffer )
+    {
+        TerminalState state = new TerminalState( buffer );
+        assertTrue( state.hasTerminal() );
+        state.apply( terminal );
+    }
+
     private static Terminal read( PacketBuffer buffer )
     {
         TerminalState state = new TerminalState( buffer );
@@ -0,0 +1,90 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2020. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.shared.peripheral.modem.wireless;
+
+import dan200.computercraft.api.lua.LuaException;
+import dan200.computercraft.shared.peripheral.modem.wireless.WirelessNetworkTest.Modem;
+import net.minecraft.util.math.Vec3d;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.function.IntSupplier;
+
+/**
+ * Measures how long it takes to transmit packets on a wireless network with 10k modems. Run this on two revisions to compare
+ * them.
+ */
+public class WirelessNetworkBenchmarkTest
+{
+    private static final int MODEMS = 10_000;
+    private static final int PACKETS = 100_000;
+    private static final int GPS_CHANNEL = 65534;
+
+    /**
+     * Each modem opens its own channel, as rednet does with the computer's ID.
+     */
+
+    @Test
+    @Disabled( "Takes a long time to run, mostly for benchmarking" )
+    public void testTransmit() throws LuaException
+    {
+        WirelessNetwork network = new WirelessNetwork();
+        Random random = new Random( 0 );
+
+        Modem[] modems = new Modem[MODEMS];
+        for( int i = 0; i < MODEMS; i++ )
+        {
+            Modem modem = modems[i] = create( network, random, 2048 );
+            modem.getModemState().open( i );
+        }
+
+        run( "Transmit on own channel", modems, random, () -> random.nextInt( MODEMS ) );
+    }
+
+    /**
+     * Every modem is a GPS host, and so listens on the same channel. Only those within range of the sender should be visited.
+     */
+    @Test
+    @Disabled( "Takes a long time to run, mostly for benchmarking" )
+    public void testGps() throws LuaException
+    {
+        WirelessNetwork network = new WirelessNetwork();
+        Random random = new Random( 0 );
+
+        Modem[] modems = new Modem[MODEMS];
+        for( int i = 0; i < MODEMS; i++ )
+        {
+            Modem modem = modems[i] = create( network, random, 16384 );
+            modem.getModemState().open( GPS_CHANNEL );
+        }
+
+        run( "Transmit on GPS channel", modems, random, () -> GPS_CHANNEL );
+    }
+
+    private static Modem create( WirelessNetwork network, Random random, int size )
+    {
+        return new Modem( network, new Vec3d(
+            random.nextInt( size ) - size / 2, random.nextInt( 256 ), random.nextInt( size ) - size / 2
+        ), true ).join();
+    }
+
+    private static void run( String name, Modem[] modems, Random random, IntSupplier channel )
+    {
+        // Warm up first, so we are not measuring the JIT.
+        time( modems, random, channel, PACKETS / 10 );
+        long time = time( modems, random, channel, PACKETS );
+
+        System.out.printf( "%s with %d modems: %.2fus/packet\n", name, MODEMS, time / (double) PACKETS / 1e3 );
+    }
+
+    private static long time( Modem[] modems, Random random, IntSupplier channel, int packets )
+    {
+        long start = System.nanoTime();
+        for( int i = 0; i < packets; i++ ) modems[random.nextInt( MODEMS )].transmit( channel.getAsInt() );
+        return System.nanoTime() - start;
+    }
+}
@@ -0,0 +1,234 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2020. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.shared.peripheral.modem.wireless;
+
+import dan200.computercraft.api.lua.LuaException;
+import dan200.computercraft.api.network.IPacketNetwork;
+import dan200.computercraft.api.network.IPacketReceiver;
+import dan200.computercraft.api.network.Packet;
+import dan200.computercraft.api.peripheral.IPeripheral;
+import dan200.computercraft.shared.peripheral.modem.ModemState;
+import net.minecraft.util.math.Vec3d;
+import net.minecraft.world.World;
+import org.junit.jupiter.api.Test;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class WirelessNetworkTest
+{
+    @Test
+    public void testOnlyOpenChannelsReceive() throws LuaException
+    {
+        WirelessNetwork network = new WirelessNetwork();
+        Modem sender = new Modem( network ).join();
+        Modem receiver = new Modem( network ).join();
+
+        receiver.getModemState().open( 1 );
+        sender.transmit( 1 );
+        sender.transmit( 2 );
+        assertEquals( 1, receiver.received, "Should only receive on the open channel" );
+
+        receiver.getModemState().close( 1 );
+        sender.transmit( 1 );
+        assertEquals( 1, receiver.received, "Should not receive after closing the channel" );
+
+        receiver.getModemState().open( 2 );
+        receiver.getModemState().open( 3 );
+        receiver.getModemState().closeAll();
+        sender.transmit( 2 );
+        sender.transmit( 3 );
+        assertEquals( 1, receiver.received, "Should not receive after closing all channels" );
+    }
+
+    @Test
+    public void testJoinAndLeave() throws LuaException
+    {
+        WirelessNetwork network = new WirelessNetwork();
+        Modem sender = new Modem( network ).join();
+        Modem receiver = new Modem( network );
+
+        // Channels opened before joining the network are still listened on.
+        receiver.getModemState().open( 1 );
+        receiver.join();
+        sender.transmit( 1 );
+        assertEquals( 1, receiver.received, "Should receive after joining" );
+
+        receiver.destroy();
+        sender.transmit( 1 );
+        assertEquals( 1, receiver.received, "Should not receive after leaving" );
+
+        // Changes to a modem's channels are ignored once it has left.
+        receiver.getModemState().close( 1 );
+        receiver.getModemState().open( 1 );
+        sender.transmit( 1 );
+        assertEquals( 1, receiver.received, "Should not receive after leaving" );
+    }
+
+    @Test
+    public void testOtherReceiversReceiveEverything()
+    {
+        WirelessNetwork network = new WirelessNetwork();
+        Modem sender = new Modem( network ).join();
+
+        int[] received = new int[1];
+        network.addReceiver( new IPacketReceiver()
+        {
+            @Nonnull
+            @Override
+            public World getWorld()
+            {
+                return null;
+            }
+
+            @Nonnull
+            @Override
+            public Vec3d getPosition()
+            {
+                return Vec3d.ZERO;
+            }
+
+            @Override
+            public double getRange()
+            {
+                return 64;
+            }
+
+            @Override
+            public boolean isInterdimensional()
+            {
+                return false;
+            }
+
+            @Override
+            public void receiveSameDimension( @Nonnull Packet packet, double distance )
+            {
+                received[0]++;
+            }
+
+            @Override
+            public void receiveDifferentDimension( @Nonnull Packet packet )
+            {
+                received[0]++;
+            }
+        } );
+
+        sender.transmit( 1 );
+        sender.transmit( 2 );
+        assertEquals( 2, received[0], "Receivers which are not modems should receive every packet" );
+    }
+
+    @Test
+    public void testOnlyNearbyReceive() throws LuaException
+    {
+        WirelessNetwork network = new WirelessNetwork();
+        Modem sender = new Modem( network ).join();
+
+        Modem[] near = new Modem[] {
+            new Modem( network, new Vec3d( 50, 0, 0 ), true ),
+            new Modem( network, new Vec3d( -30, 0, 30 ), true ),
+            new Modem( network, new Vec3d( 0, 0, -64 ), true ),
+            new Modem( network, new Vec3d( 10, 0, 0 ), false ),
+        };
+        Modem[] far = new Modem[] {
+            new Modem( network, new Vec3d( 100, 0, 0 ), true ),
+            new Modem( network, new Vec3d( 0, 0, 1000 ), true ),
+            new Modem( network, new Vec3d( -46, 0, -46 ), true ),
+            new Modem( network, new Vec3d( 1000, 0, 0 ), false ),
+        };
+
+        for( Modem modem : near ) modem.join().getModemState().open( 1 );
+        for( Modem modem : far ) modem.join().getModemState().open( 1 );
+
+        sender.transmit( 1 );
+        for( Modem modem : near ) assertEquals( 1, modem.received, "Modem at " + modem.getPosition() + " should receive" );
+        for( Modem modem : far ) assertEquals( 0, modem.received, "Modem at " + modem.getPosition() + " should not receive" );
+    }
+
+    static class Modem extends WirelessModemPeripheral
+    {
+        private final IPacketNetwork network;
+        private final Vec3d position;
+        private final boolean stationary;
+        int received;
+
+        Modem( IPacketNetwork network, Vec3d position, boolean stationary )
+        {
+            super( new ModemState(), false );
+            this.network = network;
+            this.position = position;
+            this.stationary = stationary;
+        }
+
+        Modem( IPacketNetwork network )
+        {
+            this( network, Vec3d.ZERO, false );
+        }
+
+        Modem join()
+        {
+            switchNetwork();
+            return this;
+        }
+
+        void transmit( int channel )
+        {
+            network.transmitSameDimension( new Packet( channel, channel, null, this ), getRange() );
+        }
+
+        @Override
+        protected IPacketNetwork getNetwork()
+        {
+            return network;
+        }
+
+        @Override
+        public void receiveSameDimension( @Nonnull Packet packet, double distance )
+        {
+            if( packet.getSender() != this ) received++;
+        }
+
+        @Override
+        public void receiveDifferentDimension( @Nonnull Packet packet )
+        {
+            if( packet.getSender() != this ) received++;
+        }
+
+        @Nonnull
+        @Override
+        public World getWorld()
+        {
+            return null;
+        }
+
+        @Nonnull
+        @Override
+        public Vec3d getPosition()
+        {
+            return position;
+        }
+
+        @Override
+        public double getRange()
+        {
+            return 64;
+        }
+
+        @Override
+        public boolean isStationary()
+        {
+            return stationary;
+        }
+
+        @Override
+        public boolean equals( @Nullable IPeripheral other )
+        {
+            return this == other;
+        }
+    }
+}
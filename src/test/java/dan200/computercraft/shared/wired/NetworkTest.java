@@ -11,10 +11,13 @@ import dan200.computercraft.ComputerCraft;
 import dan200.computercraft.api.ComputerCraftAPI;
 import dan200.computercraft.api.lua.ILuaContext;
 import dan200.computercraft.api.lua.LuaException;
+import dan200.computercraft.api.network.IPacketReceiver;
+import dan200.computercraft.api.network.Packet;
 import dan200.computercraft.api.network.wired.IWiredElement;
 import dan200.computercraft.api.network.wired.IWiredNetwork;
 import dan200.computercraft.api.network.wired.IWiredNetworkChange;
 import dan200.computercraft.api.network.wired.IWiredNode;
+import dan200.computercraft.api.network.wired.IWiredSender;
 import dan200.computercraft.api.peripheral.IComputerAccess;
 import dan200.computercraft.api.peripheral.IPeripheral;
 import net.minecraft.util.EnumFacing;
@@ -252,9 +255,52 @@ public class NetworkTest
         assertEquals( Sets.newHashSet(), cE.allPeripherals().keySet(), "C's peripheral set should be empty" );
     }
 
+    @Test
+    public void testTransmitAfterTopologyChange()
+    {
+        NetworkElement
+            aE = new NetworkElement( null, new Vec3d( 0, 0, 0 ), "a" ),
+            bE = new NetworkElement( null, new Vec3d( 1, 0, 0 ), "b" ),
+            cE = new NetworkElement( null, new Vec3d( 2, 0, 0 ), "c" ),
+            dE = new NetworkElement( null, new Vec3d( 1, 3, 0 ), "d" );
+
+        IWiredNode
+            aN = aE.getNode(),
+            bN = bE.getNode(),
+            cN = cE.getNode(),
+            dN = dE.getNode();
+
+        aN.getNetwork().connect( aN, bN );
+        aN.getNetwork().connect( bN, cN );
+
+        NetworkModem sender = new NetworkModem( aE );
+        NetworkModem receiver = new NetworkModem( cE );
+
+        sender.transmit();
+        assertEquals( 2, receiver.distance, 1e-9, "Should receive along the cable" );
+
+        // Routes are cached, so transmitting again should find the same thing.
+        sender.transmit();
+        assertEquals( 2, receiver.distance, 1e-9, "Should receive along the cable" );
+
+        aN.getNetwork().disconnect( bN, cN );
+        sender.transmit();
+        assertTrue( Double.isNaN( receiver.distance ), "Should not receive once disconnected" );
+
+        aN.getNetwork().connect( aN, dN );
+        aN.getNetwork().connect( dN, cN );
+        sender.transmit();
+        assertEquals( 2 * Math.sqrt( 10 ), receiver.distance, 1e-9, "Should receive along the new route" );
+
+        aN.getNetwork().remove( dN );
+        sender.transmit();
+        assertTrue( Double.isNaN( receiver.distance ), "Should not receive once removed" );
+    }
+
     private static final int BRUTE_SIZE = 16;
     private static final int TOGGLE_CONNECTION_TIMES = 5;
     private static final int TOGGLE_NODE_TIMES = 5;
+    private static final int TOGGLE_REDUNDANT_TIMES = 1000;
 
     @Test
     @Disabled( "Takes a long time to run, mostly for stress testing" )
@@ -323,6 +369,86 @@ public class NetworkTest
         }
     }
 
+    @Test
+    @Disabled( "Takes a long time to run, mostly for stress testing" )
+    public void testLargeRedundant()
+    {
+        Grid<IWiredNode> grid = new Grid<>( BRUTE_SIZE );
+        grid.map( ( existing, pos ) -> new NetworkElement( null, null, "n_" + pos ).getNode() );
+
+        grid.forEach( ( existing, pos ) -> {
+            for( EnumFacing facing : EnumFacing.VALUES )
+            {
+                IWiredNode other = grid.get( pos.offset( facing ) );
+                if( other != null ) existing.getNetwork().connect( existing, other );
+            }
+        } );
+
+        // Every link in the grid is redundant, so this should never split the network.
+        {
+            IWiredNode left = grid.get( new BlockPos( BRUTE_SIZE / 2, BRUTE_SIZE / 2, BRUTE_SIZE / 2 ) );
+            IWiredNode right = grid.get( new BlockPos( BRUTE_SIZE / 2 + 1, BRUTE_SIZE / 2, BRUTE_SIZE / 2 ) );
+
+            long start = System.nanoTime();
+            for( int i = 0; i < TOGGLE_REDUNDANT_TIMES; i++ )
+            {
+                left.getNetwork().disconnect( left, right );
+                left.getNetwork().connect( left, right );
+            }
+
+            long end = System.nanoTime();
+
+            assertEquals( left.getNetwork(), right.getNetwork() );
+            System.out.printf( "Toggling redundant connection %s times took %s seconds\n", TOGGLE_REDUNDANT_TIMES, (end - start) * 1e-9 );
+        }
+
+        {
+            BlockPos pos = new BlockPos( BRUTE_SIZE / 2, BRUTE_SIZE / 2, BRUTE_SIZE / 2 );
+            IWiredNode centre = grid.get( pos );
+            IWiredNode neighbour = grid.get( pos.up() );
+
+            long start = System.nanoTime();
+            for( int i = 0; i < TOGGLE_REDUNDANT_TIMES; i++ )
+            {
+                neighbour.getNetwork().remove( centre );
+                for( EnumFacing facing : EnumFacing.VALUES ) neighbour.getNetwork().connect( centre, grid.get( pos.offset( facing ) ) );
+            }
+
+            long end = System.nanoTime();
+
+            assertEquals( centre.getNetwork(), neighbour.getNetwork() );
+            System.out.printf( "Toggling redundant node %s times took %s seconds\n", TOGGLE_REDUNDANT_TIMES, (end - start) * 1e-9 );
+        }
+
+        // Splitting off a single corner should only need to visit that corner.
+        {
+            IWiredNode corner = grid.get( BlockPos.ORIGIN );
+            IWiredNode other = grid.get( new BlockPos( 1, 1, 1 ) );
+
+            long start = System.nanoTime();
+            for( int i = 0; i < TOGGLE_REDUNDANT_TIMES; i++ )
+            {
+                for( EnumFacing facing : EnumFacing.VALUES )
+                {
+                    IWiredNode neighbour = grid.get( BlockPos.ORIGIN.offset( facing ) );
+                    if( neighbour != null ) corner.getNetwork().disconnect( corner, neighbour );
+                }
+
+                assertNotEquals( corner.getNetwork(), other.getNetwork() );
+
+                for( EnumFacing facing : EnumFacing.VALUES )
+                {
+                    IWiredNode neighbour = grid.get( BlockPos.ORIGIN.offset( facing ) );
+                    if( neighbour != null ) neighbour.getNetwork().connect( neighbour, corner );
+                }
+            }
+
+            long end = System.nanoTime();
+
+            System.out.printf( "Splitting corner %s times took %s seconds\n", TOGGLE_REDUNDANT_TIMES, (end - start) * 1e-9 );
+        }
+    }
+
     private static final class NetworkElement implements IWiredElement
     {
         private final World world;
@@ -396,6 +522,75 @@ public class NetworkTest
         }
     }
 
+    private static final class NetworkModem implements IWiredSender, IPacketReceiver
+    {
+        private final NetworkElement element;
+        double distance = Double.NaN;
+
+        private NetworkModem( NetworkElement element )
+        {
+            this.element = element;
+            element.getNode().addReceiver( this );
+        }
+
+        void transmit()
+        {
+            distance = Double.NaN;
+            element.getNode().transmitSameDimension( new Packet( 1, 1, null, this ), getRange() );
+        }
+
+        @Nonnull
+        @Override
+        public IWiredNode getNode()
+        {
+            return element.getNode();
+        }
+
+        @Nonnull
+        @Override
+        public World getWorld()
+        {
+            return element.getWorld();
+        }
+
+        @Nonnull
+        @Override
+        public Vec3d getPosition()
+        {
+            return element.getPosition();
+        }
+
+        @Nonnull
+        @Override
+        public String getSenderID()
+        {
+            return element.getSenderID();
+        }
+
+        @Override
+        public double getRange()
+        {
+            return 64;
+        }
+
+        @Override
+        public boolean isInterdimensional()
+        {
+            return false;
+        }
+
+        @Override
+        public void receiveSameDimension( @Nonnull Packet packet, double distance )
+        {
+            if( packet.getSender() != this ) this.distance = distance;
+        }
+
+        @Override
+        public void receiveDifferentDimension( @Nonnull Packet packet )
+        {
+        }
+    }
+
     private static class NetworkPeripheral implements IPeripheral
     {
         @Nonnull
@@ -0,0 +1,216 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2020. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.shared.wired;
+
+import com.google.common.cache.CacheStats;
+import dan200.computercraft.ComputerCraft;
+import dan200.computercraft.api.ComputerCraftAPI;
+import dan200.computercraft.api.network.IPacketReceiver;
+import dan200.computercraft.api.network.Packet;
+import dan200.computercraft.api.network.wired.IWiredElement;
+import dan200.computercraft.api.network.wired.IWiredNetworkChange;
+import dan200.computercraft.api.network.wired.IWiredNode;
+import dan200.computercraft.api.network.wired.IWiredSender;
+import net.minecraft.util.math.Vec3d;
+import net.minecraft.world.World;
+import org.apache.logging.log4j.LogManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import javax.annotation.Nonnull;
+import java.util.Random;
+
+/**
+ * Measures how long it takes to transmit packets across a large (17³ = 4913 node) cable network, with modems dotted around it. This is
+ * run with both fewer and more modems than the network caches routes for, reporting how often the cache was used.
+ * Run this on two revisions to compare them.
+ */
+public class WiredNetworkBenchmarkTest
+{
+    private static final int SIZE = 17;
+    private static final int[] MODEMS = new int[] { 16, 64 };
+    private static final int PACKETS = 10_000;
+
+    @BeforeEach
+    public void setup()
+    {
+        ComputerCraft.log = LogManager.getLogger();
+    }
+
+    @Test
+    @Disabled( "Takes a long time to run, mostly for benchmarking" )
+    public void testTransmit()
+    {
+        Element[] elements = new Element[SIZE * SIZE * SIZE];
+        for( int x = 0; x < SIZE; x++ )
+        {
+            for( int y = 0; y < SIZE; y++ )
+            {
+                for( int z = 0; z < SIZE; z++ )
+                {
+                    Element element = elements[index( x, y, z )] = new Element( new Vec3d( x, y, z ) );
+                    if( x > 0 ) connect( element, elements[index( x - 1, y, z )] );
+                    if( y > 0 ) connect( element, elements[index( x, y - 1, z )] );
+                    if( z > 0 ) connect( element, elements[index( x, y, z - 1 )] );
+                }
+            }
+        }
+
+        WiredNetwork network = (WiredNetwork) elements[0].getNode().getNetwork();
+        for( int count : MODEMS )
+        {
+            Random random = new Random( 0 );
+            Modem[] modems = new Modem[count];
+            for( int i = 0; i < count; i++ ) modems[i] = new Modem( elements[random.nextInt( elements.length )] );
+
+            // Warm up first, so we are not measuring the JIT.
+            time( modems, random, PACKETS / 10 );
+            CacheStats before = network.getRouteStats();
+            long time = time( modems, random, PACKETS );
+            CacheStats stats = network.getRouteStats().minus( before );
+
+            System.out.printf(
+                "Transmit across %d nodes from %d modems: %.2fus/packet, %.1f%% route cache hits\n",
+                elements.length, count, time / (double) PACKETS / 1e3, stats.hitRate() * 100
+            );
+
+            for( Modem modem : modems ) modem.remove();
+        }
+    }
+
+    private static long time( Modem[] modems, Random random, int packets )
+    {
+        long start = System.nanoTime();
+        for( int i = 0; i < packets; i++ )
+        {
+            Modem modem = modems[random.nextInt( modems.length )];
+            modem.getNode().transmitSameDimension( new Packet( 1, 1, null, modem ), modem.getRange() );
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static int index( int x, int y, int z )
+    {
+        return (x * SIZE + y) * SIZE + z;
+    }
+
+    private static void connect( Element a, Element b )
+    {
+        a.getNode().getNetwork().connect( a.getNode(), b.getNode() );
+    }
+
+    private static final class Element implements IWiredElement
+    {
+        private final Vec3d position;
+        private final IWiredNode node;
+
+        private Element( Vec3d position )
+        {
+            this.position = position;
+            this.node = ComputerCraftAPI.createWiredNodeForElement( this );
+        }
+
+        @Nonnull
+        @Override
+        public World getWorld()
+        {
+            return null;
+        }
+
+        @Nonnull
+        @Override
+        public Vec3d getPosition()
+        {
+            return position;
+        }
+
+        @Nonnull
+        @Override
+        public String getSenderID()
+        {
+            return "element";
+        }
+
+        @Nonnull
+        @Override
+        public IWiredNode getNode()
+        {
+            return node;
+        }
+
+        @Override
+        public void networkChanged( @Nonnull IWiredNetworkChange change )
+        {
+        }
+    }
+
+    private static final class Modem implements IWiredSender, IPacketReceiver
+    {
+        private final Element element;
+
+        private Modem( Element element )
+        {
+            this.element = element;
+            element.getNode().addReceiver( this );
+        }
+
+        void remove()
+        {
+            element.getNode().removeReceiver( this );
+        }
+
+        @Nonnull
+        @Override
+        public IWiredNode getNode()
+        {
+            return element.getNode();
+        }
+
+        @Nonnull
+        @Override
+        public World getWorld()
+        {
+            return null;
+        }
+
+        @Nonnull
+        @Override
+        public Vec3d getPosition()
+        {
+            return element.getPosition();
+        }
+
+        @Nonnull
+        @Override
+        public String getSenderID()
+        {
+            return "modem";
+        }
+
+        @Override
+        public double getRange()
+        {
+            return 256;
+        }
+
+        @Override
+        public boolean isInterdimensional()
+        {
+            return false;
+        }
+
+        @Override
+        public void receiveSameDimension( @Nonnull Packet packet, double distance )
+        {
+        }
+
+        @Override
+        public void receiveDifferentDimension( @Nonnull Packet packet )
+        {
+        }
+    }
+}
@@ -107,6 +107,21 @@ describe("The fs library", function()
                 handle.close()
                 expect.error(handle.close):eq("attempt to use a closed file")
             end)
+
+            it("preserves every byte of a string", function()
+                local bytes = {}
+                for i = 0, 255 do bytes[i + 1] = string.char(i) end
+                local contents = table.concat(bytes)
+
+                local handle = fs.open("test-files/out.bin", "wb")
+                handle.write(contents)
+                handle.write(65)
+                handle.close()
+
+                handle = fs.open("test-files/out.bin", "rb")
+                expect(handle.read(257)):eq(contents .. "A")
+                handle.close()
+            end)
         end)
 
         describe("appending", function()
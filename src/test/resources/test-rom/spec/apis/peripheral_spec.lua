@@ -55,6 +55,26 @@ describe("The peripheral library", function()
         end)
     end)
 
+    describe("peripheral.batch", function()
+        it("validates arguments", function()
+            peripheral.batch({})
+            expect.error(peripheral.batch, nil):eq("bad argument #1 (expected table, got nil)")
+            expect.error(peripheral.batch, { false }):eq("bad argument #1 (call 1 is not a table)")
+            expect.error(peripheral.batch, { { "top" } }):eq("bad argument #1 (call 1: expected string method, got nil)")
+        end)
+
+        it("returns an error for missing peripherals", function()
+            expect(peripheral.batch({ { "not_a_side", "foo" } })):same { { false, "No peripheral attached", n = 2 } }
+        end)
+
+        it_modem("calls several methods", function()
+            expect(peripheral.batch({ { "top", "isOpen", 1 }, { "top", "noSuchMethod" } })):same {
+                { true, false, n = 2 },
+                { false, "No such method noSuchMethod", n = 2 },
+            }
+        end)
+    end)
+
     describe("peripheral.wrap", function()
         it("validates arguments", function()
             peripheral.wrap("")
@@ -67,6 +67,15 @@ describe("The Lua base library", function()
             local env = {}
             expect(loadfile("test-files/out.lua", env)()):eq(env)
         end)
+
+        it("loads the same file into separate environments", function()
+            make_file()
+            local env1, env2 = {}, {}
+            local fn1, fn2 = loadfile("test-files/out.lua", nil, env1), loadfile("test-files/out.lua", nil, env2)
+            expect(fn1 ~= fn2):eq(true)
+            expect(fn1()):eq(env1)
+            expect(fn2()):eq(env2)
+        end)
     end)
 
     describe("dofile", function()